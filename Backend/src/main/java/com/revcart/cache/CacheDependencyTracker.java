@@ -0,0 +1,94 @@
+package com.revcart.cache;
+
+import com.revcart.dto.PagedResponse;
+import com.revcart.dto.ProductDto;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which product ids each cached listing entry contains, so a change to one product only
+ * evicts the pages that actually show it. Dependencies belong to the cached value, not just its key:
+ * a removal only forgets them while that same value is still the one tracked, so the removal of a
+ * stale value cannot drop the dependencies of the value that replaced it.
+ */
+public class CacheDependencyTracker {
+
+    private final Map<Long, Set<CacheEntryRef>> entriesByProduct = new ConcurrentHashMap<>();
+    private final Map<CacheEntryRef, TrackedValue> valuesByEntry = new ConcurrentHashMap<>();
+
+    public void onPut(String cacheName, Object key, Object value) {
+        Set<Long> productIds = productIds(value);
+        valuesByEntry.compute(new CacheEntryRef(cacheName, key), (entry, previous) -> {
+            if (previous != null) {
+                unlink(entry, previous.productIds());
+            }
+            if (productIds.isEmpty()) {
+                return null;
+            }
+            productIds.forEach(productId ->
+                    entriesByProduct.computeIfAbsent(productId, id -> ConcurrentHashMap.newKeySet()).add(entry));
+            return new TrackedValue(value, productIds);
+        });
+    }
+
+    /**
+     * Forgets the dependencies of {@code value}, unless the entry holds another value by now.
+     */
+    public void onRemoval(String cacheName, Object key, Object value) {
+        valuesByEntry.computeIfPresent(new CacheEntryRef(cacheName, key), (entry, tracked) -> {
+            if (tracked.value() != value) {
+                return tracked;
+            }
+            unlink(entry, tracked.productIds());
+            return null;
+        });
+    }
+
+    public Set<CacheEntryRef> entriesFor(Collection<Long> productIds) {
+        Set<CacheEntryRef> entries = new HashSet<>();
+        for (Long productId : productIds) {
+            entries.addAll(entriesByProduct.getOrDefault(productId, Set.of()));
+        }
+        return entries;
+    }
+
+    private void unlink(CacheEntryRef entry, Set<Long> productIds) {
+        for (Long productId : productIds) {
+            entriesByProduct.computeIfPresent(productId, (id, entries) -> {
+                entries.remove(entry);
+                return entries.isEmpty() ? null : entries;
+            });
+        }
+    }
+
+    static Set<Long> productIds(Object value) {
+        List<?> items;
+        if (value instanceof PagedResponse<?> page) {
+            items = page.getContent();
+        } else if (value instanceof List<?> list) {
+            items = list;
+        } else {
+            return Set.of();
+        }
+        Set<Long> ids = new HashSet<>();
+        if (items != null) {
+            for (Object item : items) {
+                if (item instanceof ProductDto product && product.getId() != null) {
+                    ids.add(product.getId());
+                }
+            }
+        }
+        return ids;
+    }
+
+    public record CacheEntryRef(String cacheName, Object key) implements Serializable {
+    }
+
+    private record TrackedValue(Object value, Set<Long> productIds) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.revcart.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Transport used by {@link TwoLevelCache} to tell other nodes which local entries are stale, and by
+ * the catalog to keep their in-memory indexes in step.
+ */
+public interface CacheInvalidationBus {
+
+    String nodeId();
+
+    void publish(CacheInvalidationMessage message);
+
+    void subscribe(Consumer<CacheInvalidationMessage> listener);
+}
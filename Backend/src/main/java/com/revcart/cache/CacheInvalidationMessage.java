@@ -0,0 +1,10 @@
+package com.revcart.cache;
+
+import java.io.Serializable;
+
+/**
+ * Broadcast when a node changes a shared cache entry so the other nodes drop their local copy.
+ * A {@code null} key means the whole cache was cleared.
+ */
+public record CacheInvalidationMessage(String origin, String cacheName, Object key) implements Serializable {
+}
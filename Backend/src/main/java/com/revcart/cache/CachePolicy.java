@@ -0,0 +1,28 @@
+package com.revcart.cache;
+
+import java.time.Duration;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Size, lifetime and refresh settings for a single named cache.
+ */
+@Data
+@NoArgsConstructor
+public class CachePolicy {
+
+    private long maximumSize = 1_000;
+
+    private Duration timeToLive = Duration.ofMinutes(10);
+
+    private Duration timeToIdle;
+
+    private Duration refreshAhead;
+
+    public CachePolicy(long maximumSize, Duration timeToLive, Duration timeToIdle, Duration refreshAhead) {
+        this.maximumSize = maximumSize;
+        this.timeToLive = timeToLive;
+        this.timeToIdle = timeToIdle;
+        this.refreshAhead = refreshAhead;
+    }
+}
@@ -0,0 +1,64 @@
+package com.revcart.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractCacheManager;
+
+/**
+ * Cache manager that builds one bounded Caffeine cache per configured name. Caches that are not
+ * configured explicitly are created on first use with the default policy, so a new
+ * {@code @Cacheable} name can never grow without limit.
+ */
+public class PolicyCacheManager extends AbstractCacheManager {
+
+    private final Map<String, CachePolicy> policies;
+    private final CachePolicy defaultPolicy;
+    private final CacheDependencyTracker dependencyTracker;
+
+    public PolicyCacheManager(
+            Map<String, CachePolicy> policies, CachePolicy defaultPolicy, CacheDependencyTracker dependencyTracker) {
+        this.policies = policies;
+        this.defaultPolicy = defaultPolicy;
+        this.dependencyTracker = dependencyTracker;
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        return policies.entrySet().stream()
+                .map(entry -> createCache(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    protected Cache getMissingCache(String name) {
+        return createCache(name, defaultPolicy);
+    }
+
+    public CachePolicy getPolicy(String name) {
+        return policies.getOrDefault(name, defaultPolicy);
+    }
+
+    public List<String> getConfiguredCacheNames() {
+        return List.copyOf(policies.keySet());
+    }
+
+    protected Cache createCache(String name, CachePolicy policy) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(policy.getMaximumSize())
+                // Runs on the removing thread, so the tracker is up to date once a removal returns
+                .removalListener((key, value, cause) -> dependencyTracker.onRemoval(name, key, value))
+                .executor(Runnable::run)
+                .recordStats();
+        if (policy.getTimeToLive() != null) {
+            builder.expireAfterWrite(policy.getTimeToLive());
+        }
+        if (policy.getTimeToIdle() != null) {
+            builder.expireAfterAccess(policy.getTimeToIdle());
+        }
+        return new RefreshAheadCaffeineCache(name, builder.build(), policy.getRefreshAhead(), dependencyTracker);
+    }
+}
@@ -0,0 +1,109 @@
+package com.revcart.cache;
+
+import com.revcart.catalog.CatalogVersion;
+import com.revcart.util.TransactionCallbacks;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts only the cached catalog entries that contain a changed product. Evictions run after the
+ * surrounding transaction commits so a concurrent reader cannot re-cache the old stock level, and
+ * are broadcast so peers evict the shared entries that only they know about. Shared entries no node
+ * holds any more are found through the {@link SharedDependencyIndex}. Every change also
+ * advances the {@link CatalogVersion} used for conditional GETs; the broadcast carries the stamp so
+ * every node answers with the same ETag.
+ */
+@Component
+public class ProductCacheInvalidator {
+
+    public static final List<String> CATALOG_CACHES = List.of("products", "featuredProducts");
+
+    private static final String DEPENDENCY_MESSAGE = "product-dependencies";
+    private static final String CATALOG_MESSAGE = "catalog-version";
+
+    private final CacheManager cacheManager;
+    private final CacheDependencyTracker dependencyTracker;
+    private final CatalogVersion catalogVersion;
+    private final CacheInvalidationBus invalidationBus;
+    private final SharedDependencyIndex sharedDependencies;
+
+    public ProductCacheInvalidator(
+            CacheManager cacheManager,
+            CacheDependencyTracker dependencyTracker,
+            CatalogVersion catalogVersion,
+            ObjectProvider<CacheInvalidationBus> invalidationBus,
+            ObjectProvider<SharedDependencyIndex> sharedDependencies) {
+        this.cacheManager = cacheManager;
+        this.dependencyTracker = dependencyTracker;
+        this.catalogVersion = catalogVersion;
+        this.invalidationBus = invalidationBus.getIfAvailable();
+        this.sharedDependencies = sharedDependencies.getIfAvailable();
+        if (this.invalidationBus != null) {
+            this.invalidationBus.subscribe(this::onInvalidation);
+        }
+    }
+
+    public void productsChanged(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(productIds);
+        TransactionCallbacks.afterCommit(() -> {
+            evictEntries(ids);
+            if (sharedDependencies != null) {
+                evict(sharedDependencies.entriesFor(ids));
+            }
+            long stamp = catalogVersion.productsChanged(ids);
+            if (invalidationBus != null) {
+                invalidationBus.publish(new CacheInvalidationMessage(invalidationBus.nodeId(), DEPENDENCY_MESSAGE,
+                        new ProductsChanged(ids, stamp)));
+            }
+        });
+    }
+
+    public void catalogChanged() {
+        TransactionCallbacks.afterCommit(() -> {
+            CATALOG_CACHES.forEach(name -> {
+                Cache cache = cacheManager.getCache(name);
+                if (cache != null) {
+                    cache.clear();
+                }
+            });
+            long stamp = catalogVersion.catalogChanged();
+            if (invalidationBus != null) {
+                invalidationBus.publish(new CacheInvalidationMessage(invalidationBus.nodeId(), CATALOG_MESSAGE, stamp));
+            }
+        });
+    }
+
+    private void evictEntries(Collection<Long> productIds) {
+        evict(dependencyTracker.entriesFor(productIds));
+    }
+
+    private void evict(Collection<CacheDependencyTracker.CacheEntryRef> entries) {
+        for (CacheDependencyTracker.CacheEntryRef entry : entries) {
+            Cache cache = cacheManager.getCache(entry.cacheName());
+            if (cache != null) {
+                cache.evict(entry.key());
+            }
+        }
+    }
+
+    private void onInvalidation(CacheInvalidationMessage message) {
+        if (DEPENDENCY_MESSAGE.equals(message.cacheName()) && message.key() instanceof ProductsChanged change) {
+            evictEntries(change.productIds());
+            catalogVersion.productsChanged(change.productIds(), change.stamp());
+        } else if (CATALOG_MESSAGE.equals(message.cacheName()) && message.key() instanceof Long stamp) {
+            catalogVersion.catalogChanged(stamp);
+        }
+    }
+
+    record ProductsChanged(List<Long> productIds, long stamp) implements Serializable {
+    }
+}
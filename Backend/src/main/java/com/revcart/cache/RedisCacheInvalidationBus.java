@@ -0,0 +1,62 @@
+package com.revcart.cache;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Redis pub/sub implementation of the invalidation channel. Messages published by this node are
+ * ignored on receipt because the local tier was already updated before publishing.
+ */
+public class RedisCacheInvalidationBus implements CacheInvalidationBus, MessageListener {
+
+    public static final String CHANNEL = "revcart:cache:invalidation";
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisCacheInvalidationBus.class);
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisSerializer<Object> serializer;
+    private final List<Consumer<CacheInvalidationMessage>> listeners = new CopyOnWriteArrayList<>();
+
+    public RedisCacheInvalidationBus(RedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+        this.serializer = RedisSerializer.java();
+    }
+
+    @Override
+    public String nodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void publish(CacheInvalidationMessage message) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, message);
+        } catch (RuntimeException ex) {
+            // Peers fall back to their local TTL when the broadcast cannot be delivered
+            logger.warn("Failed to publish cache invalidation for cache {}", message.cacheName(), ex);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidationMessage> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Object payload = serializer.deserialize(message.getBody());
+        if (!(payload instanceof CacheInvalidationMessage invalidation) || nodeId.equals(invalidation.origin())) {
+            return;
+        }
+        listeners.forEach(listener -> listener.accept(invalidation));
+    }
+}
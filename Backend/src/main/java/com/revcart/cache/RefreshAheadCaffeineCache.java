@@ -0,0 +1,68 @@
+package com.revcart.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Policy;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+/**
+ * Caffeine cache that recomputes an entry shortly before it expires. Once an entry is older than
+ * the refresh-ahead age, the first synchronized caller reloads it while every other caller keeps
+ * getting the cached value, so hot keys never expire into a stampede of misses. Every write is
+ * reported to the {@link CacheDependencyTracker}; removals reach it through the cache's removal
+ * listener, which knows the value that was removed.
+ */
+public class RefreshAheadCaffeineCache extends CaffeineCache {
+
+    private final Duration refreshAhead;
+    private final CacheDependencyTracker dependencyTracker;
+    private final Set<Object> refreshing = ConcurrentHashMap.newKeySet();
+
+    public RefreshAheadCaffeineCache(
+            String name, Cache<Object, Object> cache, Duration refreshAhead, CacheDependencyTracker dependencyTracker) {
+        super(name, cache, true);
+        this.refreshAhead = refreshAhead;
+        this.dependencyTracker = dependencyTracker;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        if (isDueForRefresh(key) && refreshing.add(key)) {
+            try {
+                T value = valueLoader.call();
+                put(key, value);
+                return value;
+            } catch (Exception ex) {
+                throw new ValueRetrievalException(key, valueLoader, ex);
+            } finally {
+                refreshing.remove(key);
+            }
+        }
+        return super.get(key, () -> {
+            T value = valueLoader.call();
+            dependencyTracker.onPut(getName(), key, value);
+            return value;
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        super.put(key, value);
+        dependencyTracker.onPut(getName(), key, value);
+    }
+
+    public boolean isDueForRefresh(Object key) {
+        if (refreshAhead == null) {
+            return false;
+        }
+        Optional<Policy.FixedExpiration<Object, Object>> expiration = getNativeCache().policy().expireAfterWrite();
+        return expiration
+                .flatMap(policy -> policy.ageOf(key))
+                .map(age -> age.compareTo(refreshAhead) >= 0)
+                .orElse(false);
+    }
+}
@@ -0,0 +1,67 @@
+package com.revcart.cache;
+
+import com.revcart.cache.CacheDependencyTracker.CacheEntryRef;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+/**
+ * Product dependencies of the entries in the shared L2, kept in Redis next to them. The local
+ * {@link CacheDependencyTracker} only knows what this node holds in L1; entries that live on in L2 after
+ * every node dropped its copy are found here. Each product's set expires with the last entry added to
+ * it, and may list entries that are gone by now: evicting those is harmless.
+ */
+public class SharedDependencyIndex {
+
+    private static final String KEY_PREFIX = "revcart:cache:deps:";
+
+    private static final Logger logger = LoggerFactory.getLogger(SharedDependencyIndex.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    public SharedDependencyIndex(RedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    public void onPut(String cacheName, Object key, Object value, Duration timeToLive) {
+        Set<Long> productIds = CacheDependencyTracker.productIds(value);
+        if (productIds.isEmpty()) {
+            return;
+        }
+        CacheEntryRef entry = new CacheEntryRef(cacheName, key);
+        try {
+            for (Long productId : productIds) {
+                redisTemplate.opsForSet().add(KEY_PREFIX + productId, entry);
+                if (timeToLive != null) {
+                    redisTemplate.expire(KEY_PREFIX + productId, timeToLive);
+                }
+            }
+        } catch (RuntimeException ex) {
+            // The entry still expires with its TTL; only the early eviction is lost
+            logger.warn("Failed to record dependencies of {} in cache {}", key, cacheName, ex);
+        }
+    }
+
+    public Set<CacheEntryRef> entriesFor(Collection<Long> productIds) {
+        Set<CacheEntryRef> entries = new HashSet<>();
+        try {
+            for (Long productId : productIds) {
+                Set<Object> members = redisTemplate.opsForSet().members(KEY_PREFIX + productId);
+                if (members != null) {
+                    members.forEach(member -> {
+                        if (member instanceof CacheEntryRef entry) {
+                            entries.add(entry);
+                        }
+                    });
+                }
+            }
+        } catch (RuntimeException ex) {
+            logger.warn("Failed to read dependencies of products {}", productIds, ex);
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,133 @@
+package com.revcart.cache;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import org.springframework.cache.Cache;
+
+/**
+ * Cache with a node-local L1 in front of a shared L2. Reads fall through L1 to L2 before invoking
+ * the loader; writes and evictions go to both tiers and are broadcast so every other node drops
+ * its L1 copy and re-reads the shared value. Filling a miss is not broadcast: peers hold nothing newer.
+ */
+public class TwoLevelCache implements Cache {
+
+    private final Cache local;
+    private final Cache shared;
+    private final CacheInvalidationBus invalidationBus;
+    private final SharedDependencyIndex dependencyIndex;
+    private final Duration timeToLive;
+
+    public TwoLevelCache(
+            Cache local,
+            Cache shared,
+            CacheInvalidationBus invalidationBus,
+            SharedDependencyIndex dependencyIndex,
+            Duration timeToLive) {
+        this.local = local;
+        this.shared = shared;
+        this.invalidationBus = invalidationBus;
+        this.dependencyIndex = dependencyIndex;
+        this.timeToLive = timeToLive;
+    }
+
+    @Override
+    public String getName() {
+        return local.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper value = local.get(key);
+        if (value != null) {
+            return value;
+        }
+        value = shared.get(key);
+        if (value != null) {
+            local.put(key, value.get());
+        }
+        return value;
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper value = get(key);
+        if (value == null) {
+            return null;
+        }
+        Object stored = value.get();
+        if (stored != null && type != null && !type.isInstance(stored)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + stored);
+        }
+        return type != null ? type.cast(stored) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        // A refresh-ahead reload must not be answered from L2: its copy is about as old as the local one
+        boolean refreshing = local instanceof RefreshAheadCaffeineCache refreshAhead
+                && refreshAhead.isDueForRefresh(key);
+        return local.get(key, () -> {
+            ValueWrapper sharedValue = refreshing ? null : shared.get(key);
+            if (sharedValue != null) {
+                return (T) sharedValue.get();
+            }
+            T value = valueLoader.call();
+            putShared(key, value);
+            return value;
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        ValueWrapper previous = shared.get(key);
+        putShared(key, value);
+        local.put(key, value);
+        if (previous != null && !Objects.equals(previous.get(), value)) {
+            broadcast(key);
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        shared.evict(key);
+        local.evict(key);
+        broadcast(key);
+    }
+
+    @Override
+    public void clear() {
+        shared.clear();
+        local.clear();
+        broadcast(null);
+    }
+
+    public Cache getLocal() {
+        return local;
+    }
+
+    void evictLocal(Object key) {
+        if (key == null) {
+            local.clear();
+        } else {
+            local.evict(key);
+        }
+    }
+
+    private void putShared(Object key, Object value) {
+        shared.put(key, value);
+        if (dependencyIndex != null) {
+            dependencyIndex.onPut(getName(), key, value, timeToLive);
+        }
+    }
+
+    private void broadcast(Object key) {
+        invalidationBus.publish(new CacheInvalidationMessage(invalidationBus.nodeId(), getName(), key));
+    }
+}
@@ -0,0 +1,61 @@
+package com.revcart.cache;
+
+import java.util.Map;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+/**
+ * Builds a {@link TwoLevelCache} per name: the bounded Caffeine cache from the policy as L1 and a
+ * Redis cache with the same time-to-live as L2. Invalidations received from other nodes are applied
+ * to L1 only, since L2 is shared and already up to date.
+ */
+public class TwoLevelCacheManager extends PolicyCacheManager {
+
+    private static final String KEY_PREFIX = "revcart:cache:";
+
+    private final RedisConnectionFactory connectionFactory;
+    private final CacheInvalidationBus invalidationBus;
+    private final SharedDependencyIndex dependencyIndex;
+
+    public TwoLevelCacheManager(
+            Map<String, CachePolicy> policies,
+            CachePolicy defaultPolicy,
+            CacheDependencyTracker dependencyTracker,
+            RedisConnectionFactory connectionFactory,
+            CacheInvalidationBus invalidationBus,
+            SharedDependencyIndex dependencyIndex) {
+        super(policies, defaultPolicy, dependencyTracker);
+        this.connectionFactory = connectionFactory;
+        this.invalidationBus = invalidationBus;
+        this.dependencyIndex = dependencyIndex;
+        invalidationBus.subscribe(this::onInvalidation);
+    }
+
+    @Override
+    protected Cache createCache(String name, CachePolicy policy) {
+        return new TwoLevelCache(super.createCache(name, policy), createSharedCache(name, policy), invalidationBus,
+                dependencyIndex, policy.getTimeToLive());
+    }
+
+    protected Cache createSharedCache(String name, CachePolicy policy) {
+        RedisCacheConfiguration configuration = RedisCacheConfiguration.defaultCacheConfig()
+                .prefixCacheNameWith(KEY_PREFIX);
+        if (policy.getTimeToLive() != null) {
+            configuration = configuration.entryTtl(policy.getTimeToLive());
+        }
+        RedisCacheManager sharedManager = RedisCacheManager.builder(connectionFactory)
+                .withInitialCacheConfigurations(Map.of(name, configuration))
+                .build();
+        sharedManager.initializeCaches();
+        return sharedManager.getCache(name);
+    }
+
+    private void onInvalidation(CacheInvalidationMessage message) {
+        Cache cache = lookupCache(message.cacheName());
+        if (cache instanceof TwoLevelCache twoLevelCache) {
+            twoLevelCache.evictLocal(message.key());
+        }
+    }
+}
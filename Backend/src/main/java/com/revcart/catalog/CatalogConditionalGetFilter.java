@@ -0,0 +1,108 @@
+package com.revcart.catalog;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Conditional GET for the public catalog reads. The ETag and Last-Modified come from
+ * {@link CatalogVersion}, so a matching {@code If-None-Match} is answered with 304 before the request
+ * reaches a controller: no repository call and no serialization. Anonymous responses are marked
+ * public so browsers and CDNs can keep them; authenticated ones stay private. Anything but a 2xx or
+ * 304 is marked {@code no-store}, so a shared cache never holds on to an error.
+ */
+@Component
+public class CatalogConditionalGetFilter extends OncePerRequestFilter {
+
+    private static final Pattern PRODUCT_PATH = Pattern.compile("/api/products/(\\d{1,18})");
+    private static final Pattern LISTING_PATH = Pattern.compile("/api/(products|products/browse|categories)/?");
+
+    private final CatalogVersion catalogVersion;
+    private final CacheControl publicCacheControl;
+
+    public CatalogConditionalGetFilter(
+            CatalogVersion catalogVersion,
+            @Value("${revcart.http.catalog.max-age-seconds:0}") long maxAgeSeconds,
+            @Value("${revcart.http.catalog.shared-max-age-seconds:30}") long sharedMaxAgeSeconds) {
+        this.catalogVersion = catalogVersion;
+        this.publicCacheControl = CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS)
+                .sMaxAge(sharedMaxAgeSeconds, TimeUnit.SECONDS)
+                .cachePublic()
+                .mustRevalidate();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !("GET".equals(method) || "HEAD".equals(method)) || stampFor(request) < 0;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long stamp = stampFor(request);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, request.getHeader(HttpHeaders.AUTHORIZATION) == null
+                ? publicCacheControl.getHeaderValue()
+                : CacheControl.noCache().cachePrivate().getHeaderValue());
+        if (new ServletWebRequest(request, response).checkNotModified("W/\"" + stamp + "\"", stamp)) {
+            return;
+        }
+        chain.doFilter(request, new StatusAwareResponse(response));
+    }
+
+    private long stampFor(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (LISTING_PATH.matcher(path).matches()) {
+            return catalogVersion.current();
+        }
+        Matcher product = PRODUCT_PATH.matcher(path);
+        return product.matches() ? catalogVersion.of(Long.valueOf(product.group(1))) : -1;
+    }
+
+    private static boolean cacheable(int status) {
+        return (status >= 200 && status < 300) || status == HttpServletResponse.SC_NOT_MODIFIED;
+    }
+
+    private static final class StatusAwareResponse extends HttpServletResponseWrapper {
+
+        private StatusAwareResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public void setStatus(int status) {
+            super.setStatus(status);
+            noStoreUnless(status);
+        }
+
+        @Override
+        public void sendError(int status) throws IOException {
+            noStoreUnless(status);
+            super.sendError(status);
+        }
+
+        @Override
+        public void sendError(int status, String message) throws IOException {
+            noStoreUnless(status);
+            super.sendError(status, message);
+        }
+
+        private void noStoreUnless(int status) {
+            if (!cacheable(status) && !isCommitted()) {
+                setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+            }
+        }
+    }
+}
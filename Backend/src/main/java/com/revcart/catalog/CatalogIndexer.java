@@ -0,0 +1,173 @@
+package com.revcart.catalog;
+
+import com.revcart.cache.CacheInvalidationBus;
+import com.revcart.cache.CacheInvalidationMessage;
+import com.revcart.entity.Product;
+import com.revcart.repository.ProductRepository;
+import com.revcart.util.TransactionCallbacks;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Fans catalog changes out to every {@link ProductIndex}. Changes are applied after the surrounding
+ * transaction commits, so a rolled-back write never reaches the in-memory indexes, and are then
+ * broadcast so peers apply them to their own indexes. A changed product travels as its id; peers read
+ * it back from the primary.
+ */
+@Component
+public class CatalogIndexer {
+
+    private static final String INDEX_MESSAGE = "catalog-index";
+
+    private final List<ProductIndex> indexes;
+    private final ProductPopularity popularity;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate primaryRead;
+    private final CacheInvalidationBus invalidationBus;
+
+    public CatalogIndexer(
+            List<ProductIndex> indexes,
+            ProductPopularity popularity,
+            ProductRepository productRepository,
+            PlatformTransactionManager transactionManager,
+            ObjectProvider<CacheInvalidationBus> invalidationBus) {
+        this.indexes = indexes;
+        this.popularity = popularity;
+        this.productRepository = productRepository;
+        // Not read-only: the change may not have reached a replica yet
+        this.primaryRead = new TransactionTemplate(transactionManager);
+        this.invalidationBus = invalidationBus.getIfAvailable();
+        if (this.invalidationBus != null) {
+            this.invalidationBus.subscribe(this::onMessage);
+        }
+    }
+
+    public void rebuild(Collection<Product> products) {
+        indexes.forEach(index -> index.rebuild(products));
+    }
+
+    /**
+     * Rebuilds every index from the active products in the database, on this node and on every peer. For
+     * bulk changes too large to send product by product.
+     */
+    public void catalogReloaded() {
+        CatalogReloaded change = new CatalogReloaded();
+        TransactionCallbacks.afterCommit(() -> {
+            apply(change);
+            broadcast(change);
+        });
+    }
+
+    public void productChanged(Product product) {
+        TransactionCallbacks.afterCommit(() -> {
+            indexes.forEach(index -> index.index(product));
+            broadcast(new ProductChanged(product.getId()));
+        });
+    }
+
+    public void productRemoved(Long productId) {
+        ProductRemoved change = new ProductRemoved(productId);
+        TransactionCallbacks.afterCommit(() -> {
+            apply(change);
+            broadcast(change);
+        });
+    }
+
+    public void stockAdjusted(Map<Long, Integer> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        StockAdjusted change = new StockAdjusted(Map.copyOf(deltas));
+        TransactionCallbacks.afterCommit(() -> {
+            apply(change);
+            broadcast(change);
+        });
+    }
+
+    /**
+     * Records units sold (negative for cancellations) so popularity-weighted indexes can re-rank.
+     * {@code soldAt} is when the order was placed, also for cancellations.
+     */
+    public void salesRecorded(Map<Long, Integer> units, Instant soldAt) {
+        if (units.isEmpty()) {
+            return;
+        }
+        SalesRecorded change = new SalesRecorded(Map.copyOf(units), soldAt);
+        TransactionCallbacks.afterCommit(() -> {
+            apply(change);
+            broadcast(change);
+        });
+    }
+
+    /**
+     * Records the products of one order together, with weight 1 when it is placed and -1 when it is
+     * cancelled.
+     */
+    public void basketRecorded(Long orderId, Collection<Long> productIds, int weight) {
+        BasketRecorded change = new BasketRecorded(orderId, List.copyOf(productIds), weight);
+        TransactionCallbacks.afterCommit(() -> {
+            apply(change);
+            broadcast(change);
+        });
+    }
+
+    private void apply(Serializable change) {
+        if (change instanceof ProductChanged changed) {
+            // Indexed inside the transaction: the indexes read the product's category and inventory
+            primaryRead.executeWithoutResult(status -> productRepository.findWithDetailsById(changed.productId())
+                    .ifPresentOrElse(product -> indexes.forEach(index -> index.index(product)),
+                            () -> indexes.forEach(index -> index.remove(changed.productId()))));
+        } else if (change instanceof CatalogReloaded) {
+            primaryRead.executeWithoutResult(status -> rebuild(productRepository.findAllActiveWithDetails()));
+        } else if (change instanceof ProductRemoved removed) {
+            indexes.forEach(index -> index.remove(removed.productId()));
+        } else if (change instanceof StockAdjusted adjusted) {
+            adjusted.deltas().forEach((productId, delta) ->
+                    indexes.forEach(index -> index.stockAdjusted(productId, delta)));
+        } else if (change instanceof SalesRecorded sales) {
+            sales.units().forEach((productId, quantity) -> {
+                popularity.record(productId, quantity);
+                indexes.forEach(index -> index.salesRecorded(productId, quantity, sales.soldAt()));
+            });
+        } else if (change instanceof BasketRecorded basket) {
+            indexes.forEach(index -> index.basketRecorded(basket.orderId(), basket.productIds(), basket.weight()));
+        }
+    }
+
+    private void broadcast(Serializable change) {
+        if (invalidationBus != null) {
+            invalidationBus.publish(new CacheInvalidationMessage(invalidationBus.nodeId(), INDEX_MESSAGE, change));
+        }
+    }
+
+    private void onMessage(CacheInvalidationMessage message) {
+        if (INDEX_MESSAGE.equals(message.cacheName()) && message.key() instanceof Serializable change) {
+            apply(change);
+        }
+    }
+
+    record ProductChanged(Long productId) implements Serializable {
+    }
+
+    record ProductRemoved(Long productId) implements Serializable {
+    }
+
+    record CatalogReloaded() implements Serializable {
+    }
+
+    record StockAdjusted(Map<Long, Integer> deltas) implements Serializable {
+    }
+
+    record SalesRecorded(Map<Long, Integer> units, Instant soldAt) implements Serializable {
+    }
+
+    record BasketRecorded(Long orderId, List<Long> productIds, int weight) implements Serializable {
+    }
+}
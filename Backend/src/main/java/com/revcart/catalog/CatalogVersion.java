@@ -0,0 +1,110 @@
+package com.revcart.catalog;
+
+import com.revcart.repository.CategoryRepository;
+import com.revcart.repository.InventoryRepository;
+import com.revcart.repository.ProductRepository;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Version stamps for conditional catalog reads. A stamp is the epoch millis of the change that
+ * produced it, bumped to stay strictly increasing, so it serves both as the ETag and as the
+ * Last-Modified time. Single-product changes only move the stamp of that product; listings follow
+ * the newest stamp of all. Stamps are seeded from the newest {@code updatedAt} in the catalog tables
+ * so every node starts from the same value; after that, peers adopt the stamp of each change as
+ * broadcast by its origin instead of minting their own.
+ */
+@Component
+public class CatalogVersion {
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final InventoryRepository inventoryRepository;
+    private final AtomicLong latest = new AtomicLong();
+    private final Map<Long, Long> productStamps = new ConcurrentHashMap<>();
+    private volatile long catalogStamp;
+
+    public CatalogVersion(
+            ProductRepository productRepository,
+            CategoryRepository categoryRepository,
+            InventoryRepository inventoryRepository) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.inventoryRepository = inventoryRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        long seed = Stream.of(productRepository.findLatestUpdate(), categoryRepository.findLatestUpdate(),
+                        inventoryRepository.findLatestUpdate())
+                .filter(Objects::nonNull)
+                .mapToLong(Instant::toEpochMilli)
+                .max()
+                .orElse(0L);
+        catalogStamp = latest.accumulateAndGet(seed, Math::max);
+    }
+
+    /**
+     * Stamp covering every catalog listing.
+     */
+    public long current() {
+        return latest.get();
+    }
+
+    /**
+     * Stamp of a single product: its own last change or the last catalog-wide change, whichever is newer.
+     */
+    public long of(Long productId) {
+        return Math.max(catalogStamp, productStamps.getOrDefault(productId, 0L));
+    }
+
+    /**
+     * Stamps a local change to the given products and returns the stamp.
+     */
+    public long productsChanged(Collection<Long> productIds) {
+        long stamp = next();
+        productIds.forEach(id -> productStamps.put(id, stamp));
+        return stamp;
+    }
+
+    /**
+     * Stamps a local catalog-wide change and returns the stamp.
+     */
+    public synchronized long catalogChanged() {
+        long stamp = next();
+        catalogStamp = stamp;
+        productStamps.clear();
+        return stamp;
+    }
+
+    /**
+     * Applies a peer's product change with the stamp the peer gave it.
+     */
+    public void productsChanged(Collection<Long> productIds, long stamp) {
+        latest.accumulateAndGet(stamp, Math::max);
+        productIds.forEach(id -> productStamps.merge(id, stamp, Math::max));
+    }
+
+    /**
+     * Applies a peer's catalog-wide change with the stamp the peer gave it.
+     */
+    public synchronized void catalogChanged(long stamp) {
+        latest.accumulateAndGet(stamp, Math::max);
+        if (stamp > catalogStamp) {
+            catalogStamp = stamp;
+            productStamps.values().removeIf(productStamp -> productStamp <= stamp);
+        }
+    }
+
+    private long next() {
+        return latest.updateAndGet(previous -> Math.max(previous + 1, System.currentTimeMillis()));
+    }
+}
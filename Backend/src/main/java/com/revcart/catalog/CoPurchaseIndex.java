@@ -0,0 +1,220 @@
+package com.revcart.catalog;
+
+import com.revcart.entity.Product;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * "Frequently bought together" as a sparse co-occurrence matrix: for every product, how many orders
+ * also contained each other product. Rows are {@link LongIntMap}s updated as orders are placed or
+ * cancelled. Each product's best neighbours are precomputed into a small array, refreshed in the
+ * background for rows that changed, so a lookup never walks a row.
+ */
+@Component
+public class CoPurchaseIndex implements ProductIndex {
+
+    public static final int MAX_NEIGHBORS = 20;
+
+    // Pairs grow quadratically with basket size; very large (usually B2B) orders add little signal
+    private static final int MAX_BASKET = 50;
+
+    private final Map<Long, LongIntMap> rows = new HashMap<>();
+    private final Map<Long, Neighbor[]> top = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final Set<Long> active = ConcurrentHashMap.newKeySet();
+    private final List<PendingBasket> pending = new ArrayList<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long backfillCutoff = -1;
+
+    @Override
+    public void rebuild(Collection<Product> products) {
+        active.clear();
+        products.stream().filter(Product::isActive).forEach(product -> active.add(product.getId()));
+    }
+
+    @Override
+    public void index(Product product) {
+        if (product.isActive()) {
+            active.add(product.getId());
+        } else {
+            active.remove(product.getId());
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        active.remove(productId);
+    }
+
+    @Override
+    public void basketRecorded(Long orderId, Collection<Long> productIds, int weight) {
+        lock.writeLock().lock();
+        try {
+            if (backfillCutoff >= 0 && orderId != null && orderId > backfillCutoff) {
+                // Not covered by the running backfill; replayed onto its result when it finishes
+                pending.add(new PendingBasket(productIds, weight));
+            }
+            addBasket(rows, productIds, weight);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        dirty.addAll(productIds);
+    }
+
+    /**
+     * Starts rebuilding the matrix from historical orders with an id up to {@code cutoffOrderId}. Orders
+     * recorded meanwhile are kept and applied on top of the rebuilt matrix by {@link Backfill#finish()}.
+     */
+    public Backfill startBackfill(long cutoffOrderId) {
+        lock.writeLock().lock();
+        try {
+            backfillCutoff = cutoffOrderId;
+            pending.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return new Backfill();
+    }
+
+    @Scheduled(fixedDelayString = "${revcart.catalog.recommendations.refresh-ms:10000}")
+    public void refresh() {
+        List<Long> changed = new ArrayList<>(dirty);
+        dirty.removeAll(changed);
+        lock.readLock().lock();
+        try {
+            for (Long productId : changed) {
+                LongIntMap row = rows.get(productId);
+                if (row == null) {
+                    top.remove(productId);
+                } else {
+                    top.put(productId, rank(row));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Products most often bought together with {@code productId}, best first.
+     */
+    public List<Long> neighbors(Long productId, int limit) {
+        Neighbor[] neighbors = top.getOrDefault(productId, new Neighbor[0]);
+        List<Long> ids = new ArrayList<>();
+        for (Neighbor neighbor : neighbors) {
+            if (ids.size() >= limit) {
+                break;
+            }
+            if (active.contains(neighbor.productId())) {
+                ids.add(neighbor.productId());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Recommendations for a whole basket: the precomputed neighbours of every item, scored by summed
+     * co-occurrence and excluding the basket itself. Cost depends on the basket size, not the matrix.
+     */
+    public List<Long> forBasket(Collection<Long> productIds, int limit) {
+        Set<Long> basket = new HashSet<>(productIds);
+        Map<Long, Long> scores = new HashMap<>();
+        for (Long productId : basket) {
+            for (Neighbor neighbor : top.getOrDefault(productId, new Neighbor[0])) {
+                if (!basket.contains(neighbor.productId()) && active.contains(neighbor.productId())) {
+                    scores.merge(neighbor.productId(), (long) neighbor.count(), Long::sum);
+                }
+            }
+        }
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(Math.max(limit, 0))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private static void addBasket(Map<Long, LongIntMap> target, Collection<Long> productIds, int weight) {
+        List<Long> items = new ArrayList<>(new LinkedHashSet<>(productIds));
+        if (items.size() < 2 || items.size() > MAX_BASKET) {
+            return;
+        }
+        for (Long item : items) {
+            LongIntMap row = target.computeIfAbsent(item, id -> new LongIntMap());
+            for (Long other : items) {
+                if (!other.equals(item)) {
+                    row.addTo(other, weight);
+                }
+            }
+            if (row.size() == 0) {
+                target.remove(item);
+            }
+        }
+    }
+
+    private static Neighbor[] rank(LongIntMap row) {
+        List<Neighbor> neighbors = new ArrayList<>(row.size());
+        row.forEach((productId, count) -> neighbors.add(new Neighbor(productId, count)));
+        neighbors.sort((left, right) -> left.count() != right.count()
+                ? Integer.compare(right.count(), left.count())
+                : Long.compare(left.productId(), right.productId()));
+        return neighbors.subList(0, Math.min(MAX_NEIGHBORS, neighbors.size())).toArray(new Neighbor[0]);
+    }
+
+    /**
+     * Collects historical baskets into a fresh matrix that replaces the live one on {@link #finish()}.
+     */
+    public final class Backfill {
+
+        private final Map<Long, LongIntMap> result = new HashMap<>();
+
+        private Backfill() {
+        }
+
+        public void add(Collection<Long> productIds) {
+            addBasket(result, productIds, 1);
+        }
+
+        public void finish() {
+            lock.writeLock().lock();
+            try {
+                pending.forEach(basket -> addBasket(result, basket.productIds(), basket.weight()));
+                pending.clear();
+                backfillCutoff = -1;
+                dirty.addAll(rows.keySet());
+                rows.clear();
+                rows.putAll(result);
+                dirty.addAll(rows.keySet());
+            } finally {
+                lock.writeLock().unlock();
+            }
+            refresh();
+        }
+
+        public void abort() {
+            lock.writeLock().lock();
+            try {
+                pending.clear();
+                backfillCutoff = -1;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private record Neighbor(long productId, int count) {
+    }
+
+    private record PendingBasket(Collection<Long> productIds, int weight) {
+    }
+}
@@ -0,0 +1,260 @@
+package com.revcart.catalog;
+
+import com.revcart.entity.Product;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bitmap index for faceted browsing. Every active product gets a dense ordinal and every facet value
+ * a {@link BitSet} of the ordinals carrying it. A query ANDs the facets and ORs the values selected
+ * within one facet; the count for a value is computed against all selections except its own facet,
+ * so the client can show how many results each alternative would give.
+ */
+@Component
+public class ProductFacetIndex implements ProductIndex {
+
+    public static final String CATEGORY = "category";
+    public static final String BRAND = "brand";
+    public static final String PRICE = "price";
+    public static final String TAG = "tag";
+    public static final String IN_STOCK = "inStock";
+
+    private static final List<String> FACETS = List.of(CATEGORY, BRAND, PRICE, TAG, IN_STOCK);
+    private static final int[] PRICE_BOUNDS = {50, 100, 250, 500};
+
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final List<Long> productIds = new ArrayList<>();
+    private final List<Integer> freeOrdinals = new ArrayList<>();
+    private final Map<Integer, Map<String, String>> valuesByOrdinal = new HashMap<>();
+    private final Map<Integer, Integer> quantities = new HashMap<>();
+    private final Map<String, Map<String, BitSet>> bitmaps = new HashMap<>();
+    private final Map<String, String> categoryLabels = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void rebuild(Collection<Product> products) {
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            productIds.clear();
+            freeOrdinals.clear();
+            valuesByOrdinal.clear();
+            quantities.clear();
+            bitmaps.clear();
+            categoryLabels.clear();
+            live.clear();
+            products.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            removeOrdinal(product.getId());
+            add(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeOrdinal(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void stockAdjusted(Long productId, int delta) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(productId);
+            if (ordinal == null) {
+                return;
+            }
+            int quantity = Math.max(0, quantities.getOrDefault(ordinal, 0) + delta);
+            quantities.put(ordinal, quantity);
+            setValue(ordinal, IN_STOCK, String.valueOf(quantity > 0));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the matching product ids (newest first) together with the count of every facet value.
+     */
+    public FacetResult query(Map<String, Set<String>> selections) {
+        lock.readLock().lock();
+        try {
+            Map<String, BitSet> selected = new HashMap<>();
+            for (String facet : FACETS) {
+                Set<String> values = selections.get(facet);
+                if (values != null && !values.isEmpty()) {
+                    selected.put(facet, union(facet, values));
+                }
+            }
+
+            BitSet matches = intersectExcept(selected, null);
+            List<Long> ids = new ArrayList<>(matches.cardinality());
+            for (int ordinal = matches.nextSetBit(0); ordinal >= 0; ordinal = matches.nextSetBit(ordinal + 1)) {
+                ids.add(productIds.get(ordinal));
+            }
+            ids.sort(Comparator.reverseOrder());
+
+            Map<String, List<FacetCount>> counts = new LinkedHashMap<>();
+            for (String facet : FACETS) {
+                BitSet base = intersectExcept(selected, facet);
+                List<FacetCount> facetCounts = new ArrayList<>();
+                for (Map.Entry<String, BitSet> value : bitmaps.getOrDefault(facet, Map.of()).entrySet()) {
+                    BitSet hits = (BitSet) value.getValue().clone();
+                    hits.and(base);
+                    int count = hits.cardinality();
+                    boolean isSelected = selections.getOrDefault(facet, Set.of()).contains(value.getKey());
+                    if (count > 0 || isSelected) {
+                        facetCounts.add(new FacetCount(value.getKey(), label(facet, value.getKey()), count, isSelected));
+                    }
+                }
+                facetCounts.sort(Comparator.comparingInt(FacetCount::count).reversed()
+                        .thenComparing(FacetCount::value));
+                counts.put(facet, facetCounts);
+            }
+            return new FacetResult(ids, counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static String priceBucket(BigDecimal price) {
+        if (price == null) {
+            return null;
+        }
+        int lower = 0;
+        for (int bound : PRICE_BOUNDS) {
+            if (price.compareTo(BigDecimal.valueOf(bound)) < 0) {
+                return lower + "-" + bound;
+            }
+            lower = bound;
+        }
+        return lower + "+";
+    }
+
+    private void add(Product product) {
+        if (product.getId() == null || !product.isActive()) {
+            return;
+        }
+        int ordinal = freeOrdinals.isEmpty() ? productIds.size() : freeOrdinals.remove(freeOrdinals.size() - 1);
+        if (ordinal == productIds.size()) {
+            productIds.add(product.getId());
+        } else {
+            productIds.set(ordinal, product.getId());
+        }
+        ordinals.put(product.getId(), ordinal);
+        live.set(ordinal);
+
+        int quantity = product.getInventory() != null && product.getInventory().getAvailableQuantity() != null
+                ? product.getInventory().getAvailableQuantity()
+                : 0;
+        quantities.put(ordinal, quantity);
+        if (product.getCategory() != null) {
+            String categoryId = String.valueOf(product.getCategory().getId());
+            categoryLabels.put(categoryId, product.getCategory().getName());
+            setValue(ordinal, CATEGORY, categoryId);
+        }
+        setValue(ordinal, BRAND, product.getBrand());
+        setValue(ordinal, PRICE, priceBucket(product.getPrice()));
+        setValue(ordinal, TAG, product.getTag() != null ? product.getTag().name() : null);
+        setValue(ordinal, IN_STOCK, String.valueOf(quantity > 0));
+    }
+
+    private void removeOrdinal(Long productId) {
+        Integer ordinal = ordinals.remove(productId);
+        if (ordinal == null) {
+            return;
+        }
+        Map<String, String> values = valuesByOrdinal.remove(ordinal);
+        if (values != null) {
+            values.forEach((facet, value) -> clearBit(facet, value, ordinal));
+        }
+        quantities.remove(ordinal);
+        live.clear(ordinal);
+        productIds.set(ordinal, null);
+        freeOrdinals.add(ordinal);
+    }
+
+    private void setValue(int ordinal, String facet, String value) {
+        Map<String, String> values = valuesByOrdinal.computeIfAbsent(ordinal, key -> new HashMap<>());
+        String previous = values.get(facet);
+        if (previous != null) {
+            clearBit(facet, previous, ordinal);
+        }
+        if (value == null || value.isBlank()) {
+            values.remove(facet);
+            return;
+        }
+        values.put(facet, value);
+        bitmaps.computeIfAbsent(facet, key -> new HashMap<>())
+                .computeIfAbsent(value, key -> new BitSet())
+                .set(ordinal);
+    }
+
+    private void clearBit(String facet, String value, int ordinal) {
+        Map<String, BitSet> facetBitmaps = bitmaps.get(facet);
+        BitSet bits = facetBitmaps != null ? facetBitmaps.get(value) : null;
+        if (bits != null) {
+            bits.clear(ordinal);
+            if (bits.isEmpty()) {
+                facetBitmaps.remove(value);
+            }
+        }
+    }
+
+    private BitSet union(String facet, Set<String> values) {
+        BitSet result = new BitSet();
+        Map<String, BitSet> facetBitmaps = bitmaps.getOrDefault(facet, Map.of());
+        for (String value : values) {
+            BitSet bits = facetBitmaps.get(value);
+            if (bits != null) {
+                result.or(bits);
+            }
+        }
+        return result;
+    }
+
+    private BitSet intersectExcept(Map<String, BitSet> selected, String excludedFacet) {
+        BitSet result = (BitSet) live.clone();
+        selected.forEach((facet, bits) -> {
+            if (!facet.equals(excludedFacet)) {
+                result.and(bits);
+            }
+        });
+        return result;
+    }
+
+    private String label(String facet, String value) {
+        return CATEGORY.equals(facet) ? categoryLabels.getOrDefault(value, value) : value;
+    }
+
+    public record FacetCount(String value, String label, int count, boolean selected) {
+    }
+
+    public record FacetResult(List<Long> productIds, Map<String, List<FacetCount>> facets) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.revcart.catalog;
+
+import com.revcart.entity.Product;
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * An in-memory view of the catalog kept current by {@link CatalogIndexer}.
+ */
+public interface ProductIndex {
+
+    void rebuild(Collection<Product> products);
+
+    void index(Product product);
+
+    void remove(Long productId);
+
+    default void stockAdjusted(Long productId, int delta) {
+    }
+
+    default void salesRecorded(Long productId, int units, Instant soldAt) {
+    }
+
+    default void basketRecorded(Long orderId, Collection<Long> productIds, int weight) {
+    }
+}
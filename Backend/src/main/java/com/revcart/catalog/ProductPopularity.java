@@ -0,0 +1,30 @@
+package com.revcart.catalog;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.stereotype.Component;
+
+/**
+ * All-time units sold per product, loaded once at startup and then maintained from checkouts and
+ * cancellations. Used to weight suggestions and search results by popularity.
+ */
+@Component
+public class ProductPopularity {
+
+    private final Map<Long, LongAdder> unitsSold = new ConcurrentHashMap<>();
+
+    public void load(Map<Long, Long> totals) {
+        unitsSold.clear();
+        totals.forEach((productId, units) -> unitsSold.computeIfAbsent(productId, id -> new LongAdder()).add(units));
+    }
+
+    public void record(Long productId, int units) {
+        unitsSold.computeIfAbsent(productId, id -> new LongAdder()).add(units);
+    }
+
+    public long unitsSold(Long productId) {
+        LongAdder units = unitsSold.get(productId);
+        return units != null ? Math.max(0, units.sum()) : 0;
+    }
+}
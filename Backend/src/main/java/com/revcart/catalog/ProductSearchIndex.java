@@ -0,0 +1,348 @@
+package com.revcart.catalog;
+
+import com.revcart.entity.Product;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tokenized inverted index over the searchable product fields (name, description, brand and SKU).
+ * Every term maps to a posting list of product id to field weight; a query intersects the posting
+ * lists of its terms, smallest first, and ranks the survivors by summed weight. The last query term
+ * is treated as a prefix so search-as-you-type keeps matching partial words.
+ *
+ * <p>For typo tolerance the words of product names are additionally indexed by their padded trigrams.
+ * A fuzzy query looks up the trigrams of each term, keeps vocabulary words sharing enough of them and
+ * verifies those with a bounded edit distance, so only a handful of words are ever compared.
+ */
+@Component
+public class ProductSearchIndex implements ProductIndex {
+
+    private static final int NAME_WEIGHT = 8;
+    private static final int BRAND_WEIGHT = 4;
+    private static final int SKU_WEIGHT = 4;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int PREFIX_PENALTY = 2;
+    private static final int GRAM_SIZE = 3;
+    private static final int FULL_SIMILARITY = 100;
+
+    private final NavigableMap<String, Map<Long, Integer>> postings = new ConcurrentSkipListMap<>();
+    private final Map<Long, Map<String, Integer>> documents = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> nameTerms = new HashMap<>();
+    private final Map<String, Integer> vocabulary = new HashMap<>();
+    private final Map<String, Set<String>> grams = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ProductPopularity popularity;
+
+    public ProductSearchIndex(ProductPopularity popularity) {
+        this.popularity = popularity;
+    }
+
+    @Override
+    public void rebuild(Collection<Product> products) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            nameTerms.clear();
+            vocabulary.clear();
+            grams.clear();
+            products.forEach(this::addDocument);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(product.getId());
+            addDocument(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    /**
+     * Returns the ids of all indexed products matching every term of the query, best match first.
+     */
+    public List<Long> search(String query) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            List<Map<Long, Integer>> lists = new ArrayList<>(terms.size());
+            for (int i = 0; i < terms.size(); i++) {
+                boolean last = i == terms.size() - 1;
+                Map<Long, Integer> list = last ? prefixPostings(terms.get(i)) : postings.get(terms.get(i));
+                if (list == null || list.isEmpty()) {
+                    return List.of();
+                }
+                lists.add(list);
+            }
+            return rank(intersect(lists));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Typo-tolerant variant of {@link #search(String)}: every query term also matches name words within
+     * a small edit distance. Results are ranked by similarity-weighted score, then by units sold.
+     */
+    public List<Long> fuzzySearch(String query) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            List<Map<Long, Integer>> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Map<Long, Integer> list = fuzzyPostings(term);
+                if (list.isEmpty()) {
+                    return List.of();
+                }
+                lists.add(list);
+            }
+            Map<Long, Integer> scores = intersect(lists);
+            List<Long> ids = new ArrayList<>(scores.keySet());
+            ids.sort(Comparator.<Long>comparingInt(scores::get).reversed()
+                    .thenComparing(Comparator.<Long>comparingLong(popularity::unitsSold).reversed())
+                    .thenComparing(Comparator.naturalOrder()));
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private Map<Long, Integer> prefixPostings(String prefix) {
+        Map<Long, Integer> exact = postings.get(prefix);
+        Map<Long, Integer> merged = exact != null ? new HashMap<>(exact) : new HashMap<>();
+        for (Map.Entry<String, Map<Long, Integer>> entry
+                : postings.subMap(prefix, false, prefix + Character.MAX_VALUE, false).entrySet()) {
+            entry.getValue().forEach((id, weight) ->
+                    merged.merge(id, Math.max(1, weight / PREFIX_PENALTY), Math::max));
+        }
+        return merged;
+    }
+
+    private Map<Long, Integer> fuzzyPostings(String term) {
+        Map<Long, Integer> merged = new HashMap<>();
+        Map<Long, Integer> exact = postings.get(term);
+        if (exact != null) {
+            exact.forEach((id, weight) -> merged.put(id, weight * FULL_SIMILARITY));
+        }
+        int maxEdits = maxEdits(term);
+        if (maxEdits == 0) {
+            return merged;
+        }
+        Set<String> queryGrams = grams(term);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String gram : queryGrams) {
+            for (String candidate : grams.getOrDefault(gram, Set.of())) {
+                shared.merge(candidate, 1, Integer::sum);
+            }
+        }
+        // Each edit can break at most GRAM_SIZE trigrams, so fewer shared ones rule a word out
+        int minShared = Math.max(1, queryGrams.size() - GRAM_SIZE * maxEdits);
+        for (Map.Entry<String, Integer> candidate : shared.entrySet()) {
+            String word = candidate.getKey();
+            if (candidate.getValue() < minShared || word.equals(term)
+                    || Math.abs(word.length() - term.length()) > maxEdits) {
+                continue;
+            }
+            int distance = editDistance(term, word, maxEdits);
+            if (distance > maxEdits) {
+                continue;
+            }
+            int longest = Math.max(term.length(), word.length());
+            int similarity = FULL_SIMILARITY * (longest - distance) / longest;
+            postings.getOrDefault(word, Map.of()).forEach((id, weight) ->
+                    merged.merge(id, weight * similarity, Math::max));
+        }
+        return merged;
+    }
+
+    private static int maxEdits(String term) {
+        if (term.length() <= 3) {
+            return 0;
+        }
+        return term.length() <= 6 ? 1 : 2;
+    }
+
+    private static Set<String> grams(String term) {
+        String padded = "$" + term + "$";
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= padded.length(); i++) {
+            result.add(padded.substring(i, i + GRAM_SIZE));
+        }
+        return result;
+    }
+
+    /**
+     * Levenshtein distance that gives up once every alignment exceeds {@code limit}, returning limit + 1.
+     */
+    static int editDistance(String left, String right, int limit) {
+        int[] previous = new int[right.length() + 1];
+        int[] current = new int[right.length() + 1];
+        for (int j = 0; j <= right.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= left.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= right.length(); j++) {
+                int cost = left.charAt(i - 1) == right.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[right.length()], limit + 1);
+    }
+
+    private Map<Long, Integer> intersect(List<Map<Long, Integer>> lists) {
+        lists.sort(Comparator.comparingInt(Map::size));
+        Map<Long, Integer> result = new HashMap<>();
+        Map<Long, Integer> smallest = lists.get(0);
+        for (Map.Entry<Long, Integer> candidate : smallest.entrySet()) {
+            int score = candidate.getValue();
+            boolean matched = true;
+            for (int i = 1; i < lists.size(); i++) {
+                Integer weight = lists.get(i).get(candidate.getKey());
+                if (weight == null) {
+                    matched = false;
+                    break;
+                }
+                score += weight;
+            }
+            if (matched) {
+                result.put(candidate.getKey(), score);
+            }
+        }
+        return result;
+    }
+
+    private List<Long> rank(Map<Long, Integer> scores) {
+        List<Map.Entry<Long, Integer>> entries = new ArrayList<>(scores.entrySet());
+        entries.sort(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+        List<Long> ids = new ArrayList<>(entries.size());
+        entries.forEach(entry -> ids.add(entry.getKey()));
+        return ids;
+    }
+
+    private void addDocument(Product product) {
+        if (product.getId() == null || !product.isActive()) {
+            return;
+        }
+        Map<String, Integer> terms = new HashMap<>();
+        addField(terms, product.getName(), NAME_WEIGHT);
+        addField(terms, product.getBrand(), BRAND_WEIGHT);
+        addField(terms, product.getSku(), SKU_WEIGHT);
+        addField(terms, product.getDescription(), DESCRIPTION_WEIGHT);
+        if (terms.isEmpty()) {
+            return;
+        }
+        documents.put(product.getId(), terms);
+        terms.forEach((term, weight) ->
+                postings.computeIfAbsent(term, key -> new ConcurrentHashMap<>()).put(product.getId(), weight));
+
+        Set<String> words = new HashSet<>(tokenize(product.getName()));
+        nameTerms.put(product.getId(), words);
+        for (String word : words) {
+            if (vocabulary.merge(word, 1, Integer::sum) == 1) {
+                grams(word).forEach(gram -> grams.computeIfAbsent(gram, key -> new HashSet<>()).add(word));
+            }
+        }
+    }
+
+    private void removeDocument(Long productId) {
+        Map<String, Integer> terms = documents.remove(productId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms.keySet()) {
+            Map<Long, Integer> list = postings.get(term);
+            if (list != null) {
+                list.remove(productId);
+                if (list.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        for (String word : nameTerms.getOrDefault(productId, Set.of())) {
+            if (vocabulary.merge(word, -1, Integer::sum) <= 0) {
+                vocabulary.remove(word);
+                removeGrams(word);
+            }
+        }
+        nameTerms.remove(productId);
+    }
+
+    private void removeGrams(String word) {
+        for (String gram : grams(word)) {
+            Set<String> words = grams.get(gram);
+            if (words != null) {
+                words.remove(word);
+                if (words.isEmpty()) {
+                    grams.remove(gram);
+                }
+            }
+        }
+    }
+
+    private void addField(Map<String, Integer> terms, String value, int weight) {
+        for (String token : tokenize(value)) {
+            terms.merge(token, weight, Integer::sum);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.revcart.catalog;
+
+import com.revcart.entity.Product;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Prefix typeahead over product and category names. Every word of a name is inserted into a trie
+ * and each node stores its best suggestions precomputed, so a lookup is a walk down the prefix and
+ * costs O(prefix length) regardless of catalog size. The trie is immutable: changes mark the index
+ * dirty and a fresh snapshot is built off the request path.
+ */
+@Component
+public class ProductSuggestionIndex implements ProductIndex {
+
+    public static final int MAX_SUGGESTIONS = 10;
+
+    private final ProductPopularity popularity;
+    private final Map<Long, Product> products = new ConcurrentHashMap<>();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private volatile Node root = new Node(new char[0], new Node[0], new Suggestion[0]);
+
+    public ProductSuggestionIndex(ProductPopularity popularity) {
+        this.popularity = popularity;
+    }
+
+    @Override
+    public void rebuild(Collection<Product> catalog) {
+        products.clear();
+        catalog.stream().filter(Product::isActive).forEach(product -> products.put(product.getId(), product));
+        root = build();
+        dirty.set(false);
+    }
+
+    @Override
+    public void index(Product product) {
+        if (product.isActive()) {
+            products.put(product.getId(), product);
+        } else {
+            products.remove(product.getId());
+        }
+        dirty.set(true);
+    }
+
+    @Override
+    public void remove(Long productId) {
+        if (products.remove(productId) != null) {
+            dirty.set(true);
+        }
+    }
+
+    @Override
+    public void salesRecorded(Long productId, int units, Instant soldAt) {
+        if (products.containsKey(productId)) {
+            dirty.set(true);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${revcart.catalog.suggestions.refresh-ms:30000}")
+    public void refresh() {
+        if (dirty.compareAndSet(true, false)) {
+            root = build();
+        }
+    }
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+        return Arrays.asList(node.top).subList(0, Math.min(Math.max(limit, 0), node.top.length));
+    }
+
+    private Node build() {
+        Map<Long, Suggestion> categories = new HashMap<>();
+        MutableNode mutableRoot = new MutableNode();
+        for (Product product : products.values()) {
+            long weight = popularity.unitsSold(product.getId()) + 1;
+            insert(mutableRoot, new Suggestion(product.getName(), Suggestion.PRODUCT, product.getId(), weight));
+            if (product.getCategory() != null) {
+                categories.merge(product.getCategory().getId(),
+                        new Suggestion(product.getCategory().getName(), Suggestion.CATEGORY,
+                                product.getCategory().getId(), weight),
+                        (left, right) -> new Suggestion(left.text(), left.type(), left.id(), left.weight() + right.weight()));
+            }
+        }
+        categories.values().forEach(category -> insert(mutableRoot, category));
+        return mutableRoot.freeze();
+    }
+
+    private void insert(MutableNode root, Suggestion suggestion) {
+        if (suggestion.text() == null) {
+            return;
+        }
+        String text = normalize(suggestion.text());
+        int start = 0;
+        // Index every word start so "tom" also finds "Cherry Tomatoes"
+        while (start < text.length()) {
+            MutableNode node = root;
+            for (int i = start; i < text.length(); i++) {
+                node = node.children.computeIfAbsent(text.charAt(i), c -> new MutableNode());
+                node.suggestions.add(suggestion);
+            }
+            int nextSpace = text.indexOf(' ', start);
+            start = nextSpace < 0 ? text.length() : nextSpace + 1;
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+    }
+
+    private static final Comparator<Suggestion> RANKING = Comparator.comparingLong(Suggestion::weight).reversed()
+            .thenComparing(Suggestion::text);
+
+    private static final class MutableNode {
+        private final TreeMap<Character, MutableNode> children = new TreeMap<>();
+        private final Set<Suggestion> suggestions = new LinkedHashSet<>();
+
+        private Node freeze() {
+            char[] keys = new char[children.size()];
+            Node[] frozen = new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, MutableNode> child : children.entrySet()) {
+                keys[i] = child.getKey();
+                frozen[i] = child.getValue().freeze();
+                i++;
+            }
+            List<Suggestion> ranked = new ArrayList<>(suggestions);
+            ranked.sort(RANKING);
+            Suggestion[] top = ranked.subList(0, Math.min(MAX_SUGGESTIONS, ranked.size())).toArray(new Suggestion[0]);
+            return new Node(keys, frozen, top);
+        }
+    }
+
+    private record Node(char[] keys, Node[] children, Suggestion[] top) {
+
+        Node child(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index >= 0 ? children[index] : null;
+        }
+    }
+
+    public record Suggestion(String text, String type, Long id, long weight) {
+        public static final String PRODUCT = "PRODUCT";
+        public static final String CATEGORY = "CATEGORY";
+    }
+}
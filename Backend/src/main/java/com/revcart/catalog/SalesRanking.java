@@ -0,0 +1,269 @@
+package com.revcart.catalog;
+
+import com.revcart.dto.projection.ProductSaleRow;
+import com.revcart.entity.Product;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Best sellers over a sliding window, maintained from checkouts and cancellations. Sales are kept in
+ * hourly buckets whose totals are added up per product; an hour that falls out of the window is
+ * subtracted again. Active products are ranked in ordered sets (overall and per category) that are
+ * updated on every change, so the top of any list is read without touching the database.
+ */
+@Component
+public class SalesRanking implements ProductIndex {
+
+    private static final long BUCKET_MILLIS = Duration.ofHours(1).toMillis();
+    private static final Comparator<Ranked> ORDER = Comparator.comparingLong(Ranked::units).reversed()
+            .thenComparingLong(Ranked::productId);
+
+    private final int bucketCount;
+    private final long[] bucketHours;
+    private final List<Map<Long, Long>> buckets;
+    private final Map<Long, Long> totals = new HashMap<>();
+    private final Map<Long, Long> categories = new HashMap<>();
+    private final NavigableSet<Ranked> overall = new TreeSet<>(ORDER);
+    private final Map<Long, NavigableSet<Ranked>> byCategory = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean loaded;
+
+    public SalesRanking(@Value("${revcart.catalog.best-sellers.window-hours:168}") int windowHours) {
+        this.bucketCount = Math.max(1, windowHours);
+        this.bucketHours = new long[bucketCount];
+        this.buckets = new ArrayList<>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            buckets.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * Start of the window; sales before it do not count.
+     */
+    public Instant windowStart() {
+        return Instant.ofEpochMilli((currentHour() - bucketCount + 1) * BUCKET_MILLIS);
+    }
+
+    /**
+     * Replaces all counters with the given sales, typically the non-cancelled order lines since
+     * {@link #windowStart()}.
+     */
+    public void load(Iterator<ProductSaleRow> sales) {
+        lock.writeLock().lock();
+        try {
+            buckets.forEach(Map::clear);
+            totals.clear();
+            long now = currentHour();
+            while (sales.hasNext()) {
+                ProductSaleRow sale = sales.next();
+                if (sale.orderedAt() != null && sale.quantity() != null) {
+                    add(sale.productId(), sale.quantity(), hourOf(sale.orderedAt()), now);
+                }
+            }
+            rerank();
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    @Override
+    public void rebuild(Collection<Product> products) {
+        lock.writeLock().lock();
+        try {
+            categories.clear();
+            products.stream()
+                    .filter(product -> product.getId() != null && product.isActive())
+                    .forEach(product -> categories.put(product.getId(), categoryOf(product)));
+            rerank();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            unrank(product.getId());
+            if (product.isActive()) {
+                categories.put(product.getId(), categoryOf(product));
+                rank(product.getId());
+            } else {
+                categories.remove(product.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            unrank(productId);
+            categories.remove(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void salesRecorded(Long productId, int units, Instant soldAt) {
+        lock.writeLock().lock();
+        try {
+            unrank(productId);
+            add(productId, units, hourOf(soldAt), currentHour());
+            rank(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops the hours that have left the window.
+     */
+    @Scheduled(fixedDelayString = "${revcart.catalog.best-sellers.advance-ms:60000}")
+    public void advance() {
+        lock.writeLock().lock();
+        try {
+            long oldest = currentHour() - bucketCount + 1;
+            for (int slot = 0; slot < bucketCount; slot++) {
+                if (bucketHours[slot] < oldest && !buckets.get(slot).isEmpty()) {
+                    expire(slot);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the best-selling active products in the window, overall when {@code categoryId} is null.
+     */
+    public List<Long> top(Long categoryId, int limit) {
+        lock.readLock().lock();
+        try {
+            NavigableSet<Ranked> ranked = categoryId == null ? overall : byCategory.get(categoryId);
+            List<Long> ids = new ArrayList<>();
+            if (ranked != null) {
+                for (Iterator<Ranked> it = ranked.iterator(); it.hasNext() && ids.size() < limit; ) {
+                    ids.add(it.next().productId());
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long unitsInWindow(Long productId) {
+        lock.readLock().lock();
+        try {
+            return Math.max(0, totals.getOrDefault(productId, 0L));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(Long productId, int units, long hour, long now) {
+        // Future timestamps count as now; sales older than the window, or their cancellations, are ignored
+        hour = Math.min(hour, now);
+        if (hour <= now - bucketCount) {
+            return;
+        }
+        int slot = (int) Math.floorMod(hour, (long) bucketCount);
+        if (bucketHours[slot] != hour) {
+            expire(slot);
+            bucketHours[slot] = hour;
+        }
+        buckets.get(slot).merge(productId, (long) units, Long::sum);
+        totals.merge(productId, (long) units, Long::sum);
+    }
+
+    private void expire(int slot) {
+        Map<Long, Long> bucket = buckets.get(slot);
+        bucket.forEach((productId, units) -> {
+            unrank(productId);
+            if (totals.merge(productId, -units, Long::sum) == 0) {
+                totals.remove(productId);
+            }
+            rank(productId);
+        });
+        bucket.clear();
+    }
+
+    private void rerank() {
+        overall.clear();
+        byCategory.clear();
+        categories.keySet().forEach(this::rank);
+    }
+
+    private void rank(Long productId) {
+        long units = totals.getOrDefault(productId, 0L);
+        if (units <= 0 || !categories.containsKey(productId)) {
+            return;
+        }
+        Ranked ranked = new Ranked(productId, units);
+        overall.add(ranked);
+        Long categoryId = categories.get(productId);
+        if (categoryId != null) {
+            byCategory.computeIfAbsent(categoryId, id -> new TreeSet<>(ORDER)).add(ranked);
+        }
+    }
+
+    private void unrank(Long productId) {
+        long units = totals.getOrDefault(productId, 0L);
+        if (units <= 0 || !categories.containsKey(productId)) {
+            return;
+        }
+        Ranked ranked = new Ranked(productId, units);
+        overall.remove(ranked);
+        Long categoryId = categories.get(productId);
+        NavigableSet<Ranked> category = categoryId != null ? byCategory.get(categoryId) : null;
+        if (category != null) {
+            category.remove(ranked);
+            if (category.isEmpty()) {
+                byCategory.remove(categoryId);
+            }
+        }
+    }
+
+    private static Long categoryOf(Product product) {
+        return product.getCategory() != null ? product.getCategory().getId() : null;
+    }
+
+    private static long hourOf(Instant instant) {
+        return Math.floorDiv(instant.toEpochMilli(), BUCKET_MILLIS);
+    }
+
+    private long currentHour() {
+        return hourOf(now());
+    }
+
+    // Package-private so tests can move the window without waiting for the clock
+    Instant now() {
+        return Instant.now();
+    }
+
+    private record Ranked(long productId, long units) {
+    }
+}
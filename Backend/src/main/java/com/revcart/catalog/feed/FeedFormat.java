@@ -0,0 +1,37 @@
+package com.revcart.catalog.feed;
+
+import com.revcart.exception.BadRequestException;
+import java.util.Locale;
+
+/**
+ * Line-oriented formats accepted by catalog imports and produced by exports.
+ */
+public enum FeedFormat {
+    CSV("text/csv"),
+    NDJSON("application/x-ndjson");
+
+    private final String contentType;
+
+    FeedFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public static FeedFormat fromContentType(String contentType) {
+        if (contentType != null && contentType.toLowerCase(Locale.ROOT).contains("ndjson")) {
+            return NDJSON;
+        }
+        return CSV;
+    }
+
+    public static FeedFormat fromName(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Unsupported format: " + name);
+        }
+    }
+}
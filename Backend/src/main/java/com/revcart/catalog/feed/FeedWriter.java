@@ -0,0 +1,76 @@
+package com.revcart.catalog.feed;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes records as CSV (one column per record component, with a header line) or NDJSON, one row at a
+ * time through a fixed-size buffer.
+ */
+public final class FeedWriter<T extends Record> implements Flushable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Writer writer;
+    private final FeedFormat format;
+    private final RecordComponent[] components;
+    private final ObjectMapper objectMapper;
+    private boolean headerWritten;
+
+    public FeedWriter(OutputStream out, FeedFormat format, Class<T> type, ObjectMapper objectMapper) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        this.format = format;
+        this.components = type.getRecordComponents();
+        this.objectMapper = objectMapper;
+    }
+
+    public void write(T row) throws IOException {
+        if (format == FeedFormat.NDJSON) {
+            writer.write(objectMapper.writeValueAsString(row));
+            writer.write('\n');
+            return;
+        }
+        if (!headerWritten) {
+            for (int i = 0; i < components.length; i++) {
+                writeCell(i, components[i].getName());
+            }
+            writer.write('\n');
+            headerWritten = true;
+        }
+        for (int i = 0; i < components.length; i++) {
+            Object value;
+            try {
+                value = components[i].getAccessor().invoke(row);
+            } catch (ReflectiveOperationException ex) {
+                throw new IllegalStateException("Cannot read " + components[i].getName(), ex);
+            }
+            writeCell(i, value != null ? value.toString() : "");
+        }
+        writer.write('\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    private void writeCell(int index, String value) throws IOException {
+        if (index > 0) {
+            writer.write(',');
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
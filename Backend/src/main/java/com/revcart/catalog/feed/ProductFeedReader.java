@@ -0,0 +1,166 @@
+package com.revcart.catalog.feed;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads a catalog feed one record at a time, so memory use does not depend on the file size. CSV
+ * files need a header line; NDJSON files hold one JSON object per line. Field names are normalized
+ * (lower case, without {@code _} and {@code -}), so {@code image_url} and {@code imageUrl} are the same.
+ */
+public final class ProductFeedReader implements Closeable {
+
+    private final BufferedReader reader;
+    private final FeedFormat format;
+    private final ObjectMapper objectMapper;
+    private List<String> header;
+    private long lineNumber;
+    private long recordLine;
+
+    public ProductFeedReader(Path file, FeedFormat format, ObjectMapper objectMapper) throws IOException {
+        this.reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Returns the next record, or {@code null} at the end of the feed. A malformed record throws
+     * {@link IllegalArgumentException}; the reader stays usable, so the caller can reject it and go on.
+     */
+    public Map<String, String> next() throws IOException {
+        String text;
+        do {
+            text = readRecord();
+            if (text == null) {
+                return null;
+            }
+        } while (text.isBlank());
+        if (format == FeedFormat.NDJSON) {
+            return jsonRecord(text);
+        }
+        if (header == null) {
+            header = new ArrayList<>();
+            for (String column : splitCsv(text.startsWith("\uFEFF") ? text.substring(1) : text)) {
+                header.add(normalize(column));
+            }
+            return next();
+        }
+        List<String> values = splitCsv(text);
+        if (values.size() > header.size()) {
+            throw new IllegalArgumentException("Expected " + header.size() + " columns but found " + values.size());
+        }
+        Map<String, String> record = new HashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            record.put(header.get(i), values.get(i).isEmpty() ? null : values.get(i));
+        }
+        return record;
+    }
+
+    /** Line on which the last returned (or rejected) record started. */
+    public long lineNumber() {
+        return recordLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private String readRecord() throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        lineNumber++;
+        recordLine = lineNumber;
+        if (format == FeedFormat.NDJSON) {
+            return line;
+        }
+        // A quoted CSV field may contain line breaks; keep reading until the quotes balance
+        StringBuilder record = new StringBuilder(line);
+        while (countQuotes(record) % 2 != 0) {
+            String continuation = reader.readLine();
+            if (continuation == null) {
+                throw new IllegalArgumentException("Unterminated quoted field");
+            }
+            lineNumber++;
+            record.append('\n').append(continuation);
+        }
+        return record.toString();
+    }
+
+    private Map<String, String> jsonRecord(String text) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(text);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Invalid JSON: " + ex.getOriginalMessage());
+        }
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+        Map<String, String> record = new HashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            JsonNode value = field.getValue();
+            record.put(normalize(field.getKey()), value.isNull() ? null : value.asText());
+        }
+        return record;
+    }
+
+    static List<String> splitCsv(String text) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString().trim());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString().trim());
+        return values;
+    }
+
+    private static int countQuotes(CharSequence text) {
+        int count = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '"') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static String normalize(String field) {
+        return field.trim().toLowerCase(Locale.ROOT).replace("_", "").replace("-", "");
+    }
+}
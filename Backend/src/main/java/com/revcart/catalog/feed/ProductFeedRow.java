@@ -0,0 +1,19 @@
+package com.revcart.catalog.feed;
+
+import java.math.BigDecimal;
+
+/**
+ * One validated line of a supplier catalog feed, keyed by SKU.
+ */
+public record ProductFeedRow(
+        String sku,
+        String name,
+        String description,
+        BigDecimal price,
+        BigDecimal discount,
+        String imageUrl,
+        String brand,
+        boolean active,
+        Long categoryId,
+        int quantity) {
+}
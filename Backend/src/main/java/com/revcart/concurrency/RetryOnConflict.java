@@ -0,0 +1,29 @@
+package com.revcart.concurrency;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Re-runs a transactional method, in a new transaction each time, when it fails on an optimistic
+ * version conflict or loses a deadlock. Applied by {@link RetryOnConflictAspect}; has no effect when the method joins a
+ * transaction that is already running, since only the outermost caller can start over.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+
+    int maxAttempts() default 3;
+
+    /**
+     * Upper bound of the random delay before the first retry; it doubles with every further retry.
+     */
+    long backoffMillis() default 20;
+
+    /**
+     * Entities whose version conflicts are not retried but passed on to the caller, for writes that
+     * would silently overwrite the concurrent change if re-applied to a fresh copy.
+     */
+    Class<?>[] noRetryFor() default {};
+}
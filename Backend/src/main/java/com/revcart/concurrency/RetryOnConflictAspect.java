@@ -0,0 +1,108 @@
+package com.revcart.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Retries {@link RetryOnConflict} methods with full-jitter exponential backoff. Ordered ahead of the
+ * transaction interceptor so every attempt runs in a fresh transaction with a fresh persistence context.
+ *
+ * <p>Exports {@code revcart.optimistic.calls} per method and {@code revcart.optimistic.conflicts} per
+ * method, entity and outcome ({@code retried} or {@code exhausted}); their ratio is the conflict rate.
+ * Lost deadlocks and lock timeouts are retried the same way and counted under entity {@code lock}.
+ * Conflicts on a {@link RetryOnConflict#noRetryFor()} entity are counted as {@code rejected}.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 100)
+public class RetryOnConflictAspect {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetryOnConflictAspect.class);
+    private static final long MAX_BACKOFF_MILLIS = 1000;
+
+    private final MeterRegistry meterRegistry;
+
+    public RetryOnConflictAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("@annotation(retryOnConflict)")
+    public Object retry(ProceedingJoinPoint joinPoint, RetryOnConflict retryOnConflict) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        String method = joinPoint.getSignature().getDeclaringType().getSimpleName() + "."
+                + joinPoint.getSignature().getName();
+        meterRegistry.counter("revcart.optimistic.calls", "method", method).increment();
+        int attempt = 1;
+        while (true) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException | PessimisticLockingFailureException ex) {
+                String entity = entityOf(ex);
+                if (excluded(retryOnConflict, ex)) {
+                    conflicts(method, entity, "rejected").increment();
+                    throw ex;
+                }
+                boolean exhausted = attempt >= retryOnConflict.maxAttempts();
+                conflicts(method, entity, exhausted ? "exhausted" : "retried").increment();
+                if (exhausted) {
+                    logger.warn("{} still conflicting after {} attempts", method, attempt);
+                    throw ex;
+                }
+                pause(retryOnConflict.backoffMillis(), attempt);
+                attempt++;
+            }
+        }
+    }
+
+    private Counter conflicts(String method, String entity, String outcome) {
+        return meterRegistry.counter("revcart.optimistic.conflicts",
+                "method", method, "entity", entity, "outcome", outcome);
+    }
+
+    private static boolean excluded(RetryOnConflict retryOnConflict, ConcurrencyFailureException ex) {
+        if (ex instanceof ObjectOptimisticLockingFailureException objectFailure) {
+            for (Class<?> entity : retryOnConflict.noRetryFor()) {
+                if (entity.getName().equals(objectFailure.getPersistentClassName())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String entityOf(ConcurrencyFailureException ex) {
+        if (ex instanceof ObjectOptimisticLockingFailureException objectFailure
+                && objectFailure.getPersistentClassName() != null) {
+            String className = objectFailure.getPersistentClassName();
+            return className.substring(className.lastIndexOf('.') + 1);
+        }
+        return ex instanceof PessimisticLockingFailureException ? "lock" : "unknown";
+    }
+
+    // Conflicting writers back off by different random amounts, so they do not collide again in lockstep
+    private static void pause(long backoffMillis, int attempt) {
+        long ceiling = Math.min(MAX_BACKOFF_MILLIS, backoffMillis << Math.min(attempt - 1, 10));
+        long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        if (delay > 0) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(delay));
+        }
+    }
+}
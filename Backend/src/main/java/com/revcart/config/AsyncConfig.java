@@ -0,0 +1,59 @@
+package com.revcart.config;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    // Imports are I/O heavy and hold a connection per chunk, so they run one at a time with a short queue
+    @Bean
+    public ThreadPoolTaskExecutor productImportExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(4);
+        executor.setThreadNamePrefix("product-import-");
+        return executor;
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor recommendationExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("recommendations-");
+        return executor;
+    }
+
+    // Each checkout holds a database connection while it runs, so the pool stays below the connection pool
+    @Bean
+    public ThreadPoolTaskExecutor checkoutExecutor(
+            @Value("${revcart.checkout.async.pool-size:8}") int poolSize,
+            @Value("${revcart.checkout.async.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("checkout-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    // One drain at a time plus one pending; further wake-ups are dropped because the pending drain covers them
+    @Bean
+    public ThreadPoolTaskExecutor outboxExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        executor.setThreadNamePrefix("outbox-relay-");
+        return executor;
+    }
+}
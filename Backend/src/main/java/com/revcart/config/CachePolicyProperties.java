@@ -0,0 +1,21 @@
+package com.revcart.config;
+
+import com.revcart.cache.CachePolicy;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "revcart.cache")
+public class CachePolicyProperties {
+
+    private CachePolicy defaults = new CachePolicy(1_000, Duration.ofMinutes(10), null, null);
+
+    private Map<String, CachePolicy> policies = new LinkedHashMap<>(Map.of(
+            "products", new CachePolicy(5_000, Duration.ofMinutes(10), Duration.ofMinutes(3), Duration.ofMinutes(8)),
+            "featuredProducts", new CachePolicy(16, Duration.ofMinutes(15), null, Duration.ofMinutes(12))));
+}
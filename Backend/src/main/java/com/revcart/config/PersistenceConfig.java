@@ -0,0 +1,78 @@
+package com.revcart.config;
+
+import com.revcart.datasource.ReplicaRoutingDataSource;
+import com.revcart.monitoring.QueryCounter;
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+@Configuration
+public class PersistenceConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer statementInspectorCustomizer(QueryCounter queryCounter) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, queryCounter);
+    }
+
+    /**
+     * Read/write splitting, only active when {@code revcart.datasource.routing.enabled=true}. The
+     * application DataSource acquires connections lazily, so by the time the first statement runs a
+     * {@code readOnly} transaction has already marked its connection read-only and it is taken from
+     * the replicas; every other connection comes from the primary. Replica URLs are plain JDBC URLs.
+     */
+    @Configuration
+    @ConditionalOnProperty(name = "revcart.datasource.routing.enabled", havingValue = "true")
+    @EnableConfigurationProperties(ReplicaDataSourceProperties.class)
+    static class RoutingDataSourceConfig {
+
+        @Bean
+        @ConfigurationProperties("spring.datasource.hikari")
+        public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+            return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        }
+
+        @Bean
+        public ReplicaRoutingDataSource replicaDataSource(
+                DataSourceProperties primaryProperties,
+                ReplicaDataSourceProperties replicaProperties,
+                @Qualifier("primaryDataSource") DataSource primaryDataSource) {
+            List<DataSource> replicas = new ArrayList<>();
+            for (ReplicaDataSourceProperties.Replica replica : replicaProperties.getReplicas()) {
+                HikariDataSource dataSource = DataSourceBuilder.create()
+                        .type(HikariDataSource.class)
+                        .url(replica.getUrl())
+                        .username(replica.getUsername() != null ? replica.getUsername() : primaryProperties.determineUsername())
+                        .password(replica.getPassword() != null ? replica.getPassword() : primaryProperties.determinePassword())
+                        .build();
+                dataSource.setPoolName("replica-" + replicas.size());
+                dataSource.setReadOnly(true);
+                dataSource.setMaximumPoolSize(replicaProperties.getReplicaPoolSize());
+                replicas.add(dataSource);
+            }
+            return new ReplicaRoutingDataSource(replicas, primaryDataSource);
+        }
+
+        @Bean
+        @Primary
+        public DataSource dataSource(
+                @Qualifier("primaryDataSource") DataSource primaryDataSource,
+                ReplicaRoutingDataSource replicaDataSource) {
+            LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+            dataSource.setReadOnlyDataSource(replicaDataSource);
+            return dataSource;
+        }
+    }
+}
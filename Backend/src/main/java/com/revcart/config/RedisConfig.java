@@ -1,25 +1,115 @@
 package com.revcart.config;
 
+import com.revcart.cache.CacheDependencyTracker;
+import com.revcart.cache.CacheInvalidationBus;
+import com.revcart.cache.PolicyCacheManager;
+import com.revcart.cache.RedisCacheInvalidationBus;
+import com.revcart.cache.SharedDependencyIndex;
+import com.revcart.cache.TwoLevelCache;
+import com.revcart.cache.TwoLevelCacheManager;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.cache.interceptor.SimpleKeyGenerator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(CachePolicyProperties.class)
 public class RedisConfig {
 
     @Bean
-    public CacheManager cacheManager() {
-        // Use simple in-memory cache by default to avoid Redis requirement in dev
-        return new org.springframework.cache.concurrent.ConcurrentMapCacheManager();
+    public CacheManager cacheManager(
+            CachePolicyProperties properties,
+            CacheDependencyTracker dependencyTracker,
+            ObjectProvider<RedisConnectionFactory> connectionFactory,
+            ObjectProvider<CacheInvalidationBus> invalidationBus,
+            ObjectProvider<SharedDependencyIndex> dependencyIndex) {
+        CacheInvalidationBus bus = invalidationBus.getIfAvailable();
+        if (bus == null) {
+            // Bounded in-memory caches with per-cache size, TTL and refresh-ahead; stats are exported via actuator
+            return new PolicyCacheManager(properties.getPolicies(), properties.getDefaults(), dependencyTracker);
+        }
+        return new TwoLevelCacheManager(properties.getPolicies(), properties.getDefaults(), dependencyTracker,
+                connectionFactory.getObject(), bus, dependencyIndex.getObject());
+    }
+
+    @Bean
+    public CacheDependencyTracker cacheDependencyTracker() {
+        return new CacheDependencyTracker();
+    }
+
+    @Bean
+    public CacheMeterBinderProvider<TwoLevelCache> twoLevelCacheMeterBinderProvider() {
+        return (cache, tags) -> new CaffeineCacheMetrics<>(
+                ((CaffeineCache) cache.getLocal()).getNativeCache(), cache.getName(), tags);
     }
 
     @Bean
     public SimpleKeyGenerator keyGenerator() {
         return new SimpleKeyGenerator();
     }
-}
 
+    /**
+     * Shared L2 tier. Only active when {@code revcart.cache.l2.enabled=true}, so local development keeps
+     * running without a Redis server; connection settings come from the standard spring.data.redis.* keys.
+     */
+    @Configuration
+    @ConditionalOnProperty(name = "revcart.cache.l2.enabled", havingValue = "true")
+    @EnableConfigurationProperties(RedisProperties.class)
+    static class SharedCacheConfig {
+
+        @Bean
+        public LettuceConnectionFactory redisConnectionFactory(RedisProperties redisProperties) {
+            RedisStandaloneConfiguration configuration =
+                    new RedisStandaloneConfiguration(redisProperties.getHost(), redisProperties.getPort());
+            configuration.setDatabase(redisProperties.getDatabase());
+            if (redisProperties.getPassword() != null) {
+                configuration.setPassword(redisProperties.getPassword());
+            }
+            return new LettuceConnectionFactory(configuration);
+        }
+
+        @Bean
+        public RedisTemplate<String, Object> cacheInvalidationTemplate(RedisConnectionFactory connectionFactory) {
+            RedisTemplate<String, Object> template = new RedisTemplate<>();
+            template.setConnectionFactory(connectionFactory);
+            template.setKeySerializer(RedisSerializer.string());
+            template.setValueSerializer(RedisSerializer.java());
+            return template;
+        }
+
+        @Bean
+        public RedisCacheInvalidationBus cacheInvalidationBus(RedisTemplate<String, Object> cacheInvalidationTemplate) {
+            return new RedisCacheInvalidationBus(cacheInvalidationTemplate);
+        }
+
+        @Bean
+        public SharedDependencyIndex sharedDependencyIndex(RedisTemplate<String, Object> cacheInvalidationTemplate) {
+            return new SharedDependencyIndex(cacheInvalidationTemplate);
+        }
+
+        @Bean
+        public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+                RedisConnectionFactory connectionFactory, RedisCacheInvalidationBus cacheInvalidationBus) {
+            RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+            container.setConnectionFactory(connectionFactory);
+            container.addMessageListener(cacheInvalidationBus, new ChannelTopic(RedisCacheInvalidationBus.CHANNEL));
+            return container;
+        }
+    }
+}
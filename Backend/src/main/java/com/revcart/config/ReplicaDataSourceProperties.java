@@ -0,0 +1,29 @@
+package com.revcart.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Read replicas for {@code revcart.datasource.routing.enabled=true}. Username and password default to
+ * the primary's ({@code spring.datasource.*}).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "revcart.datasource")
+public class ReplicaDataSourceProperties {
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    private int replicaPoolSize = 10;
+
+    @Getter
+    @Setter
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
@@ -27,7 +27,11 @@ public class AdminController {
     @GetMapping
     public PagedResponse<UserDto> listUsers(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor) {
+        if (cursor != null) {
+            return userService.listAllUsersAfter(cursor, Math.min(Math.max(size, 1), PagedResponse.MAX_SEEK_SIZE));
+        }
         Pageable pageable = PageRequest.of(page, size);
         return userService.listAllUsers(pageable);
     }
@@ -31,18 +31,11 @@ public class AdminDashboardController {
     public ApiResponse<DashboardStats> getStats() {
         long totalOrders = orderRepository.count();
 
-        // Calculate total revenue more efficiently
-        BigDecimal totalRevenue = orderRepository.findAll().stream()
-                .filter(order -> order.getTotalAmount() != null)
-                .map(order -> order.getTotalAmount())
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal totalRevenue = orderRepository.sumTotalAmount();
 
         long totalProducts = productRepository.count();
 
-        // Count active users more efficiently
-        long activeUsers = userRepository.findAll().stream()
-                .filter(user -> user.isActive())
-                .count();
+        long activeUsers = userRepository.countByActiveTrue();
 
         DashboardStats stats = new DashboardStats();
         stats.setTotalOrders(totalOrders);
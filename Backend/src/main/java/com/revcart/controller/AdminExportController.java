@@ -0,0 +1,56 @@
+package com.revcart.controller;
+
+import com.revcart.catalog.feed.FeedFormat;
+import com.revcart.service.ExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin/export")
+public class AdminExportController {
+
+    private final ExportService exportService;
+
+    public AdminExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @GetMapping("/products")
+    public void exportProducts(
+            @RequestParam(defaultValue = "csv") String format, HttpServletResponse response) throws IOException {
+        FeedFormat feedFormat = FeedFormat.fromName(format);
+        prepareDownload(response, feedFormat, "products");
+        exportService.exportProducts(feedFormat, response.getOutputStream());
+    }
+
+    /**
+     * Orders created in {@code [from, to)} (UTC dates); both bounds are optional.
+     */
+    @GetMapping("/orders")
+    public void exportOrders(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            HttpServletResponse response) throws IOException {
+        FeedFormat feedFormat = FeedFormat.fromName(format);
+        Instant start = from != null ? from.atStartOfDay(ZoneOffset.UTC).toInstant() : Instant.EPOCH;
+        Instant end = to != null ? to.atStartOfDay(ZoneOffset.UTC).toInstant() : Instant.now();
+        prepareDownload(response, feedFormat, "orders");
+        exportService.exportOrders(feedFormat, start, end, response.getOutputStream());
+    }
+
+    private void prepareDownload(HttpServletResponse response, FeedFormat format, String name) {
+        response.setContentType(format.contentType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + name + "." + format.name().toLowerCase() + "\"");
+    }
+}
@@ -5,6 +5,7 @@ import com.revcart.dto.OrderDto;
 import com.revcart.dto.PagedResponse;
 import com.revcart.dto.request.OrderStatusUpdateRequest;
 import com.revcart.enums.OrderStatus;
+import com.revcart.monitoring.QueryBudget;
 import com.revcart.service.OrderService;
 import jakarta.validation.Valid;
 import java.util.List;
@@ -39,6 +40,7 @@ public class DeliveryController {
     }
 
     @GetMapping("/orders/assigned")
+    @QueryBudget(6)
     public ApiResponse<List<OrderDto>> getAssignedOrders() {
         List<OrderDto> orders = orderService.getAssignedOrders();
         return ApiResponse.<List<OrderDto>>builder()
@@ -49,6 +51,7 @@ public class DeliveryController {
     }
 
     @GetMapping("/orders/in-transit")
+    @QueryBudget(6)
     public ApiResponse<List<OrderDto>> getInTransitOrders() {
         List<OrderDto> orders = orderService.getInTransitOrders();
         return ApiResponse.<List<OrderDto>>builder()
@@ -59,6 +62,7 @@ public class DeliveryController {
     }
 
     @GetMapping("/orders/pending")
+    @QueryBudget(4)
     public ApiResponse<List<OrderDto>> getPendingOrders() {
         List<OrderDto> orders = orderService.getPendingOrders();
         return ApiResponse.<List<OrderDto>>builder()
@@ -69,6 +73,7 @@ public class DeliveryController {
     }
 
     @GetMapping("/orders")
+    @QueryBudget(6)
     public PagedResponse<OrderDto> myDeliveries(
             @RequestParam OrderStatus status,
             @RequestParam(defaultValue = "0") int page,
@@ -1,20 +1,26 @@
 package com.revcart.controller;
 
 import com.revcart.dto.ApiResponse;
+import com.revcart.dto.CheckoutStatusDto;
 import com.revcart.dto.OrderDto;
 import com.revcart.dto.PagedResponse;
 import com.revcart.dto.request.CheckoutRequest;
 import com.revcart.dto.request.DeliveryAssignmentRequest;
 import com.revcart.dto.request.OrderStatusUpdateRequest;
+import com.revcart.idempotency.IdempotencyStore;
+import com.revcart.monitoring.QueryBudget;
+import com.revcart.service.AsyncCheckoutService;
 import com.revcart.service.OrderService;
 import com.revcart.service.PaymentService;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -26,18 +32,47 @@ public class OrderController {
 
     private final OrderService orderService;
     private final PaymentService paymentService;
+    private final AsyncCheckoutService asyncCheckoutService;
+    private final IdempotencyStore idempotencyStore;
 
-    public OrderController(OrderService orderService, PaymentService paymentService) {
+    public OrderController(
+            OrderService orderService,
+            PaymentService paymentService,
+            AsyncCheckoutService asyncCheckoutService,
+            IdempotencyStore idempotencyStore) {
         this.orderService = orderService;
         this.paymentService = paymentService;
+        this.asyncCheckoutService = asyncCheckoutService;
+        this.idempotencyStore = idempotencyStore;
     }
 
     @PostMapping("/orders/checkout")
-    public OrderDto checkout(@Valid @RequestBody CheckoutRequest request) {
-        return orderService.checkout(request);
+    public OrderDto checkout(
+            @Valid @RequestBody CheckoutRequest request,
+            @RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute("checkout", idempotencyKey, request, () -> orderService.checkout(request));
+    }
+
+    /**
+     * Queues the checkout and answers 202 with a handle; the outcome is pushed on /topic/orders/{userId}
+     * and can be polled at /api/orders/checkout/{checkoutId}.
+     */
+    @PostMapping("/orders/checkout/async")
+    public ResponseEntity<CheckoutStatusDto> checkoutAsync(
+            @Valid @RequestBody CheckoutRequest request,
+            @RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        CheckoutStatusDto checkout = idempotencyStore.execute("checkout-async", idempotencyKey, request,
+                () -> asyncCheckoutService.submit(request));
+        return ResponseEntity.accepted().body(checkout);
+    }
+
+    @GetMapping("/orders/checkout/{checkoutId}")
+    public CheckoutStatusDto checkoutStatus(@PathVariable String checkoutId) {
+        return asyncCheckoutService.status(checkoutId);
     }
 
     @GetMapping("/orders")
+    @QueryBudget(8)
     public PagedResponse<OrderDto> myOrders(
             @RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size) {
         Pageable pageable = PageRequest.of(page, size);
@@ -45,13 +80,20 @@ public class OrderController {
     }
 
     @GetMapping("/orders/{id}")
+    @QueryBudget(4)
     public OrderDto getOrder(@PathVariable Long id) {
         return orderService.getOrder(id);
     }
 
     @GetMapping("/admin/orders")
+    @QueryBudget(8)
     public PagedResponse<OrderDto> allOrders(
-            @RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
+        if (cursor != null) {
+            return orderService.allOrdersAfter(cursor, Math.min(Math.max(size, 1), PagedResponse.MAX_SEEK_SIZE));
+        }
         return orderService.allOrders(PageRequest.of(page, size));
     }
 
@@ -72,13 +114,20 @@ public class OrderController {
     }
 
     @PostMapping("/orders/{orderId}/razorpay")
-    public Map<String, Object> createRazorpayOrder(@PathVariable Long orderId) {
-        return paymentService.createRazorpayOrder(orderId);
+    public Map<String, Object> createRazorpayOrder(
+            @PathVariable Long orderId,
+            @RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute("razorpay-order", idempotencyKey, orderId,
+                () -> paymentService.createRazorpayOrder(orderId));
     }
 
     @PostMapping("/orders/{orderId}/verify-payment")
-    public ApiResponse<OrderDto> verifyPayment(@PathVariable Long orderId, @RequestBody Map<String, String> paymentData) {
-        OrderDto order = paymentService.verifyRazorpayPayment(orderId, paymentData);
+    public ApiResponse<OrderDto> verifyPayment(
+            @PathVariable Long orderId,
+            @RequestBody Map<String, String> paymentData,
+            @RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        OrderDto order = idempotencyStore.execute("verify-payment:" + orderId, idempotencyKey, paymentData,
+                () -> paymentService.verifyRazorpayPayment(orderId, paymentData));
         return ApiResponse.<OrderDto>builder().success(true).data(order).message("Payment verified").build();
     }
 }
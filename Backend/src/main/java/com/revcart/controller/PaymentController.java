@@ -3,12 +3,14 @@ package com.revcart.controller;
 import com.revcart.dto.ApiResponse;
 import com.revcart.dto.PaymentDto;
 import com.revcart.dto.request.PaymentCaptureRequest;
+import com.revcart.idempotency.IdempotencyStore;
 import com.revcart.service.PaymentService;
 import jakarta.validation.Valid;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -17,9 +19,11 @@ import org.springframework.web.bind.annotation.RestController;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final IdempotencyStore idempotencyStore;
 
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(PaymentService paymentService, IdempotencyStore idempotencyStore) {
         this.paymentService = paymentService;
+        this.idempotencyStore = idempotencyStore;
     }
 
     @GetMapping("/{orderId}/initiate")
@@ -28,8 +32,11 @@ public class PaymentController {
     }
 
     @PostMapping("/capture")
-    public ApiResponse<PaymentDto> capture(@Valid @RequestBody PaymentCaptureRequest request) {
-        PaymentDto dto = paymentService.capturePayment(request);
+    public ApiResponse<PaymentDto> capture(
+            @Valid @RequestBody PaymentCaptureRequest request,
+            @RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        PaymentDto dto = idempotencyStore.execute("capture", idempotencyKey, request,
+                () -> paymentService.capturePayment(request));
         return ApiResponse.<PaymentDto>builder().success(true).data(dto).message("Payment captured").build();
     }
 }
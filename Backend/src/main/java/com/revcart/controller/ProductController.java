@@ -1,19 +1,37 @@
 package com.revcart.controller;
 
+import com.revcart.catalog.ProductFacetIndex;
+import com.revcart.catalog.ProductSuggestionIndex;
+import com.revcart.catalog.feed.FeedFormat;
 import com.revcart.dto.ApiResponse;
 import com.revcart.dto.PagedResponse;
+import com.revcart.dto.ProductBrowseResponse;
 import com.revcart.dto.ProductDto;
+import com.revcart.dto.ProductImportStatusDto;
+import com.revcart.dto.SuggestionDto;
 import com.revcart.dto.request.ProductRequest;
+import com.revcart.exception.BadRequestException;
+import com.revcart.monitoring.QueryBudget;
+import com.revcart.service.HotStockService;
+import com.revcart.service.ProductImportService;
 import com.revcart.service.ProductService;
 import jakarta.validation.Valid;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -22,22 +40,88 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/api")
 public class ProductController {
 
+    private static final int MAX_BEST_SELLERS = 50;
+
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final HotStockService hotStockService;
 
-    public ProductController(ProductService productService) {
+    public ProductController(
+            ProductService productService,
+            ProductImportService productImportService,
+            HotStockService hotStockService) {
         this.productService = productService;
+        this.productImportService = productImportService;
+        this.hotStockService = hotStockService;
     }
 
     @GetMapping("/products")
+    @QueryBudget(2)
     public PagedResponse<ProductDto> list(
             @RequestParam(required = false) String keyword,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "12") int size) {
+            @RequestParam(defaultValue = "12") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean fuzzy) {
+        if (cursor != null) {
+            // Cursor mode (pass an empty cursor for the first page) pages by creation time without counting
+            if (keyword != null && !keyword.isBlank()) {
+                throw new BadRequestException("Cursor pagination is not supported for keyword search");
+            }
+            return productService.listAfter(cursor, Math.min(Math.max(size, 1), PagedResponse.MAX_SEEK_SIZE));
+        }
         Pageable pageable = PageRequest.of(page, size);
+        if (fuzzy && keyword != null && !keyword.isBlank()) {
+            return productService.fuzzySearch(keyword, pageable);
+        }
         return productService.list(keyword, pageable);
     }
 
+    @GetMapping("/products/browse")
+    @QueryBudget(1)
+    public ProductBrowseResponse browse(
+            @RequestParam(required = false) Set<String> category,
+            @RequestParam(required = false) Set<String> brand,
+            @RequestParam(required = false) Set<String> price,
+            @RequestParam(required = false) Set<String> tag,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "12") int size) {
+        Map<String, Set<String>> facets = new HashMap<>();
+        putFacet(facets, ProductFacetIndex.CATEGORY, category);
+        putFacet(facets, ProductFacetIndex.BRAND, brand);
+        putFacet(facets, ProductFacetIndex.PRICE, price);
+        putFacet(facets, ProductFacetIndex.TAG, tag);
+        putFacet(facets, ProductFacetIndex.IN_STOCK, inStock != null ? Set.of(inStock.toString()) : null);
+        return productService.browse(facets, PageRequest.of(page, size));
+    }
+
+    @GetMapping("/products/suggest")
+    public List<SuggestionDto> suggest(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "8") int limit) {
+        return productService.suggest(query, Math.min(limit, ProductSuggestionIndex.MAX_SUGGESTIONS));
+    }
+
+    @GetMapping("/products/featured")
+    @QueryBudget(2)
+    public List<ProductDto> featured() {
+        return productService.getFeatured();
+    }
+
+    /**
+     * Best sellers over the recent sales window, overall or within one category.
+     */
+    @GetMapping("/products/best-sellers")
+    @QueryBudget(1)
+    public List<ProductDto> bestSellers(
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(defaultValue = "12") int limit) {
+        return productService.getBestSellers(categoryId, Math.min(Math.max(limit, 0), MAX_BEST_SELLERS));
+    }
+
     @GetMapping("/products/{id}")
+    @QueryBudget(1)
     public ProductDto get(@PathVariable Long id) {
         return productService.get(id);
     }
@@ -47,6 +131,23 @@ public class ProductController {
         return productService.create(request);
     }
 
+    /**
+     * Streams a CSV (text/csv, with header) or NDJSON (application/x-ndjson) catalog feed and starts an
+     * asynchronous upsert by SKU on this node. Poll the returned job for progress; without the shared
+     * cache tier only this node knows the job.
+     */
+    @PostMapping(value = "/admin/products/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ProductImportStatusDto> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream feed) {
+        ProductImportStatusDto job = productImportService.start(feed, FeedFormat.fromContentType(contentType));
+        return ResponseEntity.accepted().body(job);
+    }
+
+    @GetMapping("/admin/products/import/{jobId}")
+    public ProductImportStatusDto importStatus(@PathVariable String jobId) {
+        return productImportService.status(jobId);
+    }
+
     @PutMapping("/admin/products/{id}")
     public ProductDto update(@PathVariable Long id, @Valid @RequestBody ProductRequest request) {
         return productService.update(id, request);
@@ -57,5 +158,26 @@ public class ProductController {
         productService.delete(id);
         return ApiResponse.<String>builder().success(true).message("Product archived").build();
     }
+
+    /**
+     * Splits the stock of a product expecting a checkout rush over {@code shards} counters.
+     */
+    @PutMapping("/admin/products/{id}/hot-stock")
+    public ApiResponse<String> enableHotStock(@PathVariable Long id, @RequestParam(defaultValue = "16") int shards) {
+        hotStockService.enable(id, shards);
+        return ApiResponse.<String>builder().success(true).message("Hot stock enabled").build();
+    }
+
+    @DeleteMapping("/admin/products/{id}/hot-stock")
+    public ApiResponse<String> disableHotStock(@PathVariable Long id) {
+        hotStockService.disable(id);
+        return ApiResponse.<String>builder().success(true).message("Hot stock disabled").build();
+    }
+
+    private void putFacet(Map<String, Set<String>> facets, String facet, Set<String> values) {
+        if (values != null && !values.isEmpty()) {
+            facets.put(facet, values);
+        }
+    }
 }
 
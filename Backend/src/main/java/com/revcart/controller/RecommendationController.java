@@ -0,0 +1,58 @@
+package com.revcart.controller;
+
+import com.revcart.catalog.CoPurchaseIndex;
+import com.revcart.dto.ApiResponse;
+import com.revcart.dto.ProductDto;
+import com.revcart.monitoring.QueryBudget;
+import com.revcart.service.RecommendationService;
+import java.util.List;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api")
+public class RecommendationController {
+
+    private final RecommendationService recommendationService;
+
+    public RecommendationController(RecommendationService recommendationService) {
+        this.recommendationService = recommendationService;
+    }
+
+    @GetMapping("/products/{id}/recommendations")
+    @QueryBudget(1)
+    public List<ProductDto> forProduct(@PathVariable Long id, @RequestParam(defaultValue = "8") int limit) {
+        return recommendationService.forProduct(id, clamp(limit));
+    }
+
+    /**
+     * Recommendations for a basket given as product ids, e.g. a guest cart kept by the client.
+     */
+    @GetMapping("/products/recommendations")
+    @QueryBudget(1)
+    public List<ProductDto> forProducts(
+            @RequestParam List<Long> productIds, @RequestParam(defaultValue = "8") int limit) {
+        return recommendationService.forProducts(productIds, clamp(limit));
+    }
+
+    @GetMapping("/cart/recommendations")
+    public List<ProductDto> forMyCart(@RequestParam(defaultValue = "8") int limit) {
+        return recommendationService.forMyCart(clamp(limit));
+    }
+
+    @PostMapping("/admin/recommendations/backfill")
+    public ResponseEntity<ApiResponse<String>> backfill() {
+        recommendationService.startBackfill();
+        return ResponseEntity.accepted()
+                .body(ApiResponse.<String>builder().success(true).message("Recommendation backfill started").build());
+    }
+
+    private int clamp(int limit) {
+        return Math.min(Math.max(limit, 0), CoPurchaseIndex.MAX_NEIGHBORS);
+    }
+}
@@ -1,11 +1,12 @@
 package com.revcart.dto;
 
+import java.io.Serializable;
 import lombok.Builder;
 import lombok.Data;
 
 @Data
 @Builder
-public class AddressDto {
+public class AddressDto implements Serializable {
     private Long id;
     private String line1;
     private String line2;
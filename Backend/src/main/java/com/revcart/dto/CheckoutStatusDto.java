@@ -0,0 +1,21 @@
+package com.revcart.dto;
+
+import com.revcart.dto.projection.StockShortage;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class CheckoutStatusDto implements Serializable {
+    private String checkoutId;
+    // QUEUED, RUNNING, COMPLETED or FAILED
+    private String status;
+    private OrderDto order;
+    private String message;
+    private List<StockShortage> shortages;
+    private Instant submittedAt;
+    private Instant finishedAt;
+}
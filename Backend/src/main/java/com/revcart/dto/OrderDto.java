@@ -2,6 +2,7 @@ package com.revcart.dto;
 
 import com.revcart.enums.OrderStatus;
 import com.revcart.enums.PaymentStatus;
+import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
@@ -10,7 +11,7 @@ import lombok.Data;
 
 @Data
 @Builder
-public class OrderDto {
+public class OrderDto implements Serializable {
     private Long id;
     private String orderNumber;
     private OrderStatus status;
@@ -1,12 +1,13 @@
 package com.revcart.dto;
 
+import java.io.Serializable;
 import java.math.BigDecimal;
 import lombok.Builder;
 import lombok.Data;
 
 @Data
 @Builder
-public class OrderItemDto {
+public class OrderItemDto implements Serializable {
     private Long productId;
     private String productName;
     private String productImageUrl;
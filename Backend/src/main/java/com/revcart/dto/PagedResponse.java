@@ -1,16 +1,42 @@
 package com.revcart.dto;
 
+import java.io.Serializable;
 import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.Builder;
 import lombok.Data;
 
 @Data
 @Builder
-public class PagedResponse<T> {
+public class PagedResponse<T> implements Serializable {
+
+    // Largest page a cursor request may ask for; the seek query fetches one row more
+    public static final int MAX_SEEK_SIZE = 100;
+
     private List<T> content;
     private long totalElements;
     private int totalPages;
     private int page;
     private int size;
+    // Set only in cursor mode, where totals are not counted
+    private String nextCursor;
+    private boolean hasNext;
+
+    /**
+     * Builds a cursor page from a seek query that fetched {@code size + 1} rows; the extra row only
+     * signals that another page exists.
+     */
+    public static <E, T> PagedResponse<T> ofSeek(
+            List<E> rows, int size, Function<E, T> mapper, Function<E, PageCursor> position) {
+        boolean hasNext = rows.size() > size;
+        List<E> pageRows = hasNext ? rows.subList(0, size) : rows;
+        return PagedResponse.<T>builder()
+                .content(pageRows.stream().map(mapper).collect(Collectors.toList()))
+                .size(size)
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? position.apply(pageRows.get(pageRows.size() - 1)).encode() : null)
+                .build();
+    }
 }
 
@@ -2,6 +2,7 @@ package com.revcart.dto;
 
 import com.revcart.enums.PaymentMethod;
 import com.revcart.enums.PaymentStatus;
+import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.Instant;
 import lombok.Builder;
@@ -9,7 +10,7 @@ import lombok.Data;
 
 @Data
 @Builder
-public class PaymentDto {
+public class PaymentDto implements Serializable {
     private Long id;
     private PaymentMethod method;
     private PaymentStatus status;
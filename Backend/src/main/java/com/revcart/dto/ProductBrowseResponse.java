@@ -0,0 +1,14 @@
+package com.revcart.dto;
+
+import com.revcart.catalog.ProductFacetIndex;
+import java.util.List;
+import java.util.Map;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ProductBrowseResponse {
+    private PagedResponse<ProductDto> products;
+    private Map<String, List<ProductFacetIndex.FacetCount>> facets;
+}
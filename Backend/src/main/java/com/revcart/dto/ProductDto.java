@@ -1,12 +1,13 @@
 package com.revcart.dto;
 
+import java.io.Serializable;
 import java.math.BigDecimal;
 import lombok.Builder;
 import lombok.Data;
 
 @Data
 @Builder
-public class ProductDto {
+public class ProductDto implements Serializable {
     private Long id;
     private String name;
     private String description;
@@ -0,0 +1,23 @@
+package com.revcart.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ProductImportStatusDto implements Serializable {
+    private String jobId;
+    private String status;
+    private String format;
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsRejected;
+    // Capped at revcart.import.max-errors; rowsRejected keeps the full count
+    private List<String> errors;
+    private String message;
+    private Instant startedAt;
+    private Instant finishedAt;
+}
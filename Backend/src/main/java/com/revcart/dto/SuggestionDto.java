@@ -0,0 +1,12 @@
+package com.revcart.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class SuggestionDto {
+    private String text;
+    private String type;
+    private Long id;
+}
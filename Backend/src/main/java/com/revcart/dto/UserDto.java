@@ -1,13 +1,14 @@
 package com.revcart.dto;
 
 import com.revcart.enums.UserRole;
+import java.io.Serializable;
 import java.util.List;
 import lombok.Builder;
 import lombok.Data;
 
 @Data
 @Builder
-public class UserDto {
+public class UserDto implements Serializable {
     private Long id;
     private String fullName;
     private String email;
@@ -0,0 +1,13 @@
+package com.revcart.dto.projection;
+
+public record AddressRow(
+        Long userId,
+        Long id,
+        String line1,
+        String line2,
+        String city,
+        String state,
+        String postalCode,
+        String country,
+        boolean primaryAddress) {
+}
@@ -0,0 +1,6 @@
+package com.revcart.dto.projection;
+
+import java.time.Instant;
+
+public record HoldRow(Long orderId, Instant expiresAt) {
+}
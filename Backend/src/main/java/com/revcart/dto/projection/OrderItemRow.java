@@ -0,0 +1,13 @@
+package com.revcart.dto.projection;
+
+import java.math.BigDecimal;
+
+public record OrderItemRow(
+        Long orderId,
+        Long productId,
+        String productName,
+        String productImageUrl,
+        Integer quantity,
+        BigDecimal unitPrice,
+        BigDecimal subtotal) {
+}
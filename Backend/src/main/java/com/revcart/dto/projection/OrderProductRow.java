@@ -0,0 +1,4 @@
+package com.revcart.dto.projection;
+
+public record OrderProductRow(Long orderId, Long productId) {
+}
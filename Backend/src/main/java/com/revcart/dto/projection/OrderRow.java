@@ -0,0 +1,42 @@
+package com.revcart.dto.projection;
+
+import com.revcart.enums.OrderStatus;
+import com.revcart.enums.PaymentMethod;
+import com.revcart.enums.PaymentStatus;
+import com.revcart.enums.UserRole;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * One order grid row: the order header with its customer, delivery agent, shipping address and payment
+ * flattened in. Associations are left-joined, so their columns may be null.
+ */
+public record OrderRow(
+        Long id,
+        OrderStatus status,
+        PaymentStatus paymentStatus,
+        BigDecimal totalAmount,
+        Instant createdAt,
+        Instant updatedAt,
+        Long userId,
+        String userFullName,
+        String userEmail,
+        String userPhone,
+        UserRole userRole,
+        Boolean userEmailVerified,
+        String deliveryAgentName,
+        Long addressId,
+        String addressLine1,
+        String addressLine2,
+        String addressCity,
+        String addressState,
+        String addressPostalCode,
+        String addressCountry,
+        Boolean addressPrimary,
+        Long paymentId,
+        PaymentMethod paymentMethod,
+        PaymentStatus paymentRecordStatus,
+        BigDecimal paymentAmount,
+        String providerPaymentId,
+        Instant paidAt) {
+}
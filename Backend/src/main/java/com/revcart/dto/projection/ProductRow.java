@@ -0,0 +1,24 @@
+package com.revcart.dto.projection;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * The columns a product listing needs, selected directly by JPQL constructor expressions so list
+ * endpoints never hydrate managed entities.
+ */
+public record ProductRow(
+        Long id,
+        String name,
+        String description,
+        BigDecimal price,
+        BigDecimal discount,
+        String imageUrl,
+        boolean active,
+        String sku,
+        String brand,
+        Long categoryId,
+        String categoryName,
+        Integer availableQuantity,
+        Instant createdAt) {
+}
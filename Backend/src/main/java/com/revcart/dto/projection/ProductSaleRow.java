@@ -0,0 +1,6 @@
+package com.revcart.dto.projection;
+
+import java.time.Instant;
+
+public record ProductSaleRow(Long productId, Instant orderedAt, Integer quantity) {
+}
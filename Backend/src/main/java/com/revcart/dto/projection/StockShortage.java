@@ -0,0 +1,6 @@
+package com.revcart.dto.projection;
+
+import java.io.Serializable;
+
+public record StockShortage(Long productId, int requested, int available) implements Serializable {
+}
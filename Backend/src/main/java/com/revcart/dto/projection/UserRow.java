@@ -0,0 +1,14 @@
+package com.revcart.dto.projection;
+
+import com.revcart.enums.UserRole;
+import java.time.Instant;
+
+public record UserRow(
+        Long id,
+        String fullName,
+        String email,
+        String phone,
+        UserRole role,
+        boolean emailVerified,
+        Instant createdAt) {
+}
@@ -1,6 +1,7 @@
 package com.revcart.entity;
 
 import com.revcart.entity.base.AuditableEntity;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -8,8 +9,10 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 @Getter
 @Setter
@@ -25,8 +28,21 @@ public class Inventory extends AuditableEntity {
 
     private Integer reservedQuantity;
 
+    /**
+     * Number of {@link InventoryShard} counters holding this product's stock, 0 when the stock lives in this
+     * row. While sharded, the quantities here are an aggregate refreshed periodically for reads.
+     */
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int shardCount;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
     @OneToOne
-    @JoinColumn(name = "product_id")
+    @JoinColumn(name = "product_id", unique = true)
     private Product product;
 }
 
@@ -0,0 +1,39 @@
+package com.revcart.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * One of the sub-counters holding the stock of a hot product (see {@link Inventory#getShardCount()}).
+ * Maintained with JDBC by {@link com.revcart.repository.InventoryRepositoryCustomImpl}.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "inventory_shards", uniqueConstraints = @UniqueConstraint(
+        name = "uk_inventory_shards_product_shard", columnNames = {"product_id", "shard"}))
+public class InventoryShard {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private int shard;
+
+    @Column(nullable = false)
+    private int availableQuantity;
+
+    @Column(nullable = false)
+    private int reservedQuantity;
+}
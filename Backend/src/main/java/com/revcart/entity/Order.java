@@ -4,30 +4,53 @@ import com.revcart.entity.base.AuditableEntity;
 import com.revcart.enums.OrderStatus;
 import com.revcart.enums.PaymentStatus;
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 @Getter
 @Setter
 @Entity
-@Table(name = "orders")
+@NamedEntityGraph(name = Order.WITH_DETAILS, attributeNodes = {
+        @NamedAttributeNode("user"),
+        @NamedAttributeNode("deliveryAgent"),
+        @NamedAttributeNode("shippingAddress"),
+        @NamedAttributeNode("payment"),
+        @NamedAttributeNode(value = "items", subgraph = "items")
+}, subgraphs = @NamedSubgraph(name = "items", attributeNodes = @NamedAttributeNode("product")))
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_orders_hold_expires_at", columnList = "hold_expires_at")
+})
 public class Order extends AuditableEntity {
 
+    /**
+     * Everything {@link com.revcart.mapper.OrderMapper} reads. It fetches the items collection, so it must
+     * not be combined with SQL pagination; page the ids first and load the page by id.
+     */
+    public static final String WITH_DETAILS = "Order.withDetails";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -56,6 +79,17 @@ public class Order extends AuditableEntity {
 
     private Instant cancelledAt;
 
+    /**
+     * Set while the order's stock sits in reserved inventory waiting for payment; cleared once the hold is
+     * committed or released.
+     */
+    private Instant holdExpiresAt;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<OrderItem> items = new ArrayList<>();
 
@@ -0,0 +1,56 @@
+package com.revcart.entity;
+
+import com.revcart.entity.base.AuditableEntity;
+import com.revcart.enums.OrderStatus;
+import com.revcart.enums.OutboxEventType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Side effect of an order change that lives outside MySQL (a tracking log or a pushed notification).
+ * It is written in the transaction that changed the order and delivered by
+ * {@link com.revcart.outbox.OutboxRelay} once that transaction has committed.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "idx_outbox_events_order_id_id", columnList = "order_id, id"),
+        @Index(name = "idx_outbox_events_next_attempt_at", columnList = "next_attempt_at")
+})
+public class OutboxEvent extends AuditableEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboxEventType type;
+
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus orderStatus;
+
+    @Column(length = 1000)
+    private String message;
+
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+}
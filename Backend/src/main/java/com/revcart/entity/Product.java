@@ -8,21 +8,36 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import java.math.BigDecimal;
 import java.util.Set;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 @Getter
 @Setter
 @Entity
-@Table(name = "products")
+@NamedEntityGraph(name = Product.WITH_DETAILS, attributeNodes = {
+        @NamedAttributeNode("category"),
+        @NamedAttributeNode("inventory")
+})
+@Table(
+        name = "products",
+        indexes = @Index(name = "idx_products_created_at_id", columnList = "created_at, id"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_products_sku", columnNames = "sku"))
 public class Product extends AuditableEntity {
 
+    /** Everything {@link com.revcart.mapper.ProductMapper} reads, loaded in the same statement. */
+    public static final String WITH_DETAILS = "Product.withDetails";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -48,6 +63,11 @@ public class Product extends AuditableEntity {
     @Enumerated(EnumType.STRING)
     private ProductTag tag;
 
+    /** Set when {@link #tag} was assigned by the best-seller refresh, which may then take it away again. */
+    @ColumnDefault("false")
+    @Column(nullable = false)
+    private boolean autoTagged;
+
     @ManyToOne
     @JoinColumn(name = "category_id")
     private Category category;
@@ -11,6 +11,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
@@ -20,10 +21,11 @@ import java.util.List;
 import java.util.Set;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 
 @Getter
 @Setter
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = "idx_users_created_at_id", columnList = "created_at, id"))
 @jakarta.persistence.Entity
 public class User extends AuditableEntity {
 
@@ -52,12 +54,15 @@ public class User extends AuditableEntity {
 
     private String avatarUrl;
 
+    // Order and user pages map many users at once; load their collections in batches, not one query each
+    @BatchSize(size = 50)
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Address> addresses = new ArrayList<>();
 
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Order> orders = new ArrayList<>();
 
+    @BatchSize(size = 50)
     @ElementCollection(fetch = FetchType.EAGER)
     @Column(name = "authority")
     private Set<String> authorities = new HashSet<>();
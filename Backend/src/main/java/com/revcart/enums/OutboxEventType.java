@@ -0,0 +1,7 @@
+package com.revcart.enums;
+
+public enum OutboxEventType {
+    TRACKING_LOG,
+    ORDER_UPDATE,
+    PAYMENT_CONFIRMATION
+}
@@ -0,0 +1,18 @@
+package com.revcart.exception;
+
+import com.revcart.dto.projection.StockShortage;
+import java.util.List;
+
+public class InsufficientStockException extends BadRequestException {
+
+    private final List<StockShortage> shortages;
+
+    public InsufficientStockException(List<StockShortage> shortages) {
+        super("Insufficient stock");
+        this.shortages = List.copyOf(shortages);
+    }
+
+    public List<StockShortage> getShortages() {
+        return shortages;
+    }
+}
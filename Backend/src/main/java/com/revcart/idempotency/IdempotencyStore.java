@@ -0,0 +1,176 @@
+package com.revcart.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.revcart.exception.BadRequestException;
+import com.revcart.exception.IdempotencyConflictException;
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deduplicates requests carrying an {@code Idempotency-Key} header. The first request with a key runs
+ * and its result is kept for the TTL; duplicates arriving while it runs wait for that result, later ones
+ * get it replayed without running again. Keys are scoped per user and per operation, and a key reused
+ * with a different request body is rejected. Failed executions are forgotten so the client can retry.
+ * With the shared cache tier enabled the records live in Redis, so a retry landing on another node is
+ * deduplicated too; duplicates there poll for the result instead of waiting on it in memory. A claim
+ * there is only leased for a few times the wait, so a node dying mid-request does not hold the key for
+ * the whole TTL.
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final String KEY_PREFIX = "revcart:idempotency:";
+    private static final long POLL_MILLIS = 50;
+    private static final int LEASE_WAITS = 4;
+
+    private final Cache<String, Execution> executions;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final ObjectMapper fingerprintMapper;
+    private final Duration ttl;
+    private final Duration lease;
+    private final long waitMillis;
+
+    public IdempotencyStore(
+            ObjectProvider<RedisTemplate<String, Object>> redisTemplate,
+            ObjectMapper objectMapper,
+            @Value("${revcart.idempotency.ttl:PT24H}") Duration ttl,
+            @Value("${revcart.idempotency.max-entries:100000}") long maxEntries,
+            @Value("${revcart.idempotency.wait-ms:30000}") long waitMillis) {
+        this.executions = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxEntries)
+                .build();
+        this.redisTemplate = redisTemplate.getIfAvailable();
+        // Sorted map keys keep the fingerprint of a request the same on every node
+        this.fingerprintMapper = objectMapper.copy().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+        this.ttl = ttl;
+        this.lease = Duration.ofMillis(waitMillis * LEASE_WAITS);
+        this.waitMillis = waitMillis;
+    }
+
+    /**
+     * Runs {@code action} once per key; without a key it simply runs it.
+     */
+    public <T> T execute(String scope, String key, Object request, Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException(HEADER + " must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        String cacheKey = principal() + '\n' + scope + '\n' + key;
+        int fingerprint = fingerprint(request);
+        if (redisTemplate != null) {
+            return executeShared(KEY_PREFIX + cacheKey, fingerprint, action);
+        }
+        Execution execution = new Execution(fingerprint, new CompletableFuture<>());
+        Execution existing = executions.asMap().putIfAbsent(cacheKey, execution);
+        if (existing != null) {
+            return awaitResult(existing, execution.fingerprint());
+        }
+        try {
+            T result = action.get();
+            execution.result().complete(result);
+            return result;
+        } catch (RuntimeException | Error ex) {
+            executions.asMap().remove(cacheKey, execution);
+            execution.result().completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T executeShared(String recordKey, int fingerprint, Supplier<T> action) {
+        long deadline = System.currentTimeMillis() + waitMillis;
+        while (true) {
+            SharedExecution claim = new SharedExecution(fingerprint, false, null);
+            if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(recordKey, claim, lease))) {
+                T result;
+                try {
+                    result = action.get();
+                } catch (RuntimeException | Error ex) {
+                    redisTemplate.delete(recordKey);
+                    throw ex;
+                }
+                redisTemplate.opsForValue().set(recordKey, new SharedExecution(fingerprint, true, result), ttl);
+                return result;
+            }
+            // A record that vanished belonged to a failed execution or an expired lease: claim the key again
+            if (redisTemplate.opsForValue().get(recordKey) instanceof SharedExecution existing) {
+                if (existing.fingerprint() != fingerprint) {
+                    throw new IdempotencyConflictException(HEADER + " was already used for a different request");
+                }
+                if (existing.completed()) {
+                    return (T) existing.result();
+                }
+                if (System.currentTimeMillis() >= deadline) {
+                    throw new IdempotencyConflictException("A request with this " + HEADER + " is still in progress");
+                }
+                try {
+                    Thread.sleep(POLL_MILLIS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IdempotencyConflictException("A request with this " + HEADER + " is still in progress");
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T awaitResult(Execution existing, int fingerprint) {
+        if (existing.fingerprint() != fingerprint) {
+            throw new IdempotencyConflictException(HEADER + " was already used for a different request");
+        }
+        try {
+            return (T) existing.result().get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            throw new IdempotencyConflictException("A request with this " + HEADER + " is still in progress");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException("A request with this " + HEADER + " is still in progress");
+        } catch (ExecutionException ex) {
+            // The duplicate gets the same outcome as the request it duplicated
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    private int fingerprint(Object request) {
+        try {
+            return fingerprintMapper.writeValueAsString(request).hashCode();
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot fingerprint request", ex);
+        }
+    }
+
+    private static String principal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "anonymous";
+    }
+
+    private record Execution(int fingerprint, CompletableFuture<Object> result) {
+    }
+
+    private record SharedExecution(int fingerprint, boolean completed, Object result) implements Serializable {
+    }
+}
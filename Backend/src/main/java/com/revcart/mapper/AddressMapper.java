@@ -1,6 +1,7 @@
 package com.revcart.mapper;
 
 import com.revcart.dto.AddressDto;
+import com.revcart.dto.projection.AddressRow;
 import com.revcart.entity.Address;
 
 public final class AddressMapper {
@@ -23,5 +24,17 @@ public final class AddressMapper {
                 .primaryAddress(address.isPrimaryAddress())
                 .build();
     }
-}
 
+    public static AddressDto toDto(AddressRow row) {
+        return AddressDto.builder()
+                .id(row.id())
+                .line1(row.line1())
+                .line2(row.line2())
+                .city(row.city())
+                .state(row.state())
+                .postalCode(row.postalCode())
+                .country(row.country())
+                .primaryAddress(row.primaryAddress())
+                .build();
+    }
+}
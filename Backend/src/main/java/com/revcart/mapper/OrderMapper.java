@@ -1,11 +1,17 @@
 package com.revcart.mapper;
 
+import com.revcart.dto.AddressDto;
 import com.revcart.dto.OrderDto;
 import com.revcart.dto.OrderItemDto;
 import com.revcart.dto.PaymentDto;
+import com.revcart.dto.UserDto;
+import com.revcart.dto.projection.AddressRow;
+import com.revcart.dto.projection.OrderItemRow;
+import com.revcart.dto.projection.OrderRow;
 import com.revcart.entity.Order;
 import com.revcart.entity.OrderItem;
 import com.revcart.entity.Payment;
+import java.util.List;
 import java.util.stream.Collectors;
 
 public final class OrderMapper {
@@ -33,6 +39,62 @@ public final class OrderMapper {
                 .build();
     }
 
+    /**
+     * Maps a projected order row; {@code items} and {@code userAddresses} come from the per-page
+     * follow-up queries.
+     */
+    public static OrderDto toDto(OrderRow row, List<OrderItemRow> items, List<AddressRow> userAddresses) {
+        return OrderDto.builder()
+                .id(row.id())
+                .orderNumber("ORD-" + String.format("%06d", row.id()))
+                .status(row.status())
+                .paymentStatus(row.paymentStatus())
+                .totalAmount(row.totalAmount())
+                .createdAt(row.createdAt())
+                .updatedAt(row.updatedAt())
+                .shippingAddress(row.addressId() != null ? AddressDto.builder()
+                        .id(row.addressId())
+                        .line1(row.addressLine1())
+                        .line2(row.addressLine2())
+                        .city(row.addressCity())
+                        .state(row.addressState())
+                        .postalCode(row.addressPostalCode())
+                        .country(row.addressCountry())
+                        .primaryAddress(Boolean.TRUE.equals(row.addressPrimary()))
+                        .build() : null)
+                .items(items.stream().map(OrderMapper::mapItem).collect(Collectors.toList()))
+                .payment(row.paymentId() != null ? PaymentDto.builder()
+                        .id(row.paymentId())
+                        .method(row.paymentMethod())
+                        .status(row.paymentRecordStatus())
+                        .amount(row.paymentAmount())
+                        .providerPaymentId(row.providerPaymentId())
+                        .paidAt(row.paidAt())
+                        .build() : null)
+                .deliveryAgentName(row.deliveryAgentName())
+                .user(row.userId() != null ? UserDto.builder()
+                        .id(row.userId())
+                        .fullName(row.userFullName())
+                        .email(row.userEmail())
+                        .phone(row.userPhone())
+                        .role(row.userRole())
+                        .emailVerified(Boolean.TRUE.equals(row.userEmailVerified()))
+                        .addresses(userAddresses.stream().map(AddressMapper::toDto).collect(Collectors.toList()))
+                        .build() : null)
+                .build();
+    }
+
+    private static OrderItemDto mapItem(OrderItemRow item) {
+        return OrderItemDto.builder()
+                .productId(item.productId())
+                .productName(item.productName())
+                .productImageUrl(item.productImageUrl())
+                .quantity(item.quantity())
+                .unitPrice(item.unitPrice())
+                .subtotal(item.subtotal())
+                .build();
+    }
+
     private static OrderItemDto mapItem(OrderItem item) {
         return OrderItemDto.builder()
                 .productId(item.getProduct().getId())
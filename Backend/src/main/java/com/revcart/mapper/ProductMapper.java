@@ -1,6 +1,7 @@
 package com.revcart.mapper;
 
 import com.revcart.dto.ProductDto;
+import com.revcart.dto.projection.ProductRow;
 import com.revcart.entity.Product;
 
 public final class ProductMapper {
@@ -27,5 +28,21 @@ public final class ProductMapper {
                 .availableQuantity(product.getInventory() != null ? product.getInventory().getAvailableQuantity() : 0)
                 .build();
     }
-}
 
+    public static ProductDto toDto(ProductRow row) {
+        return ProductDto.builder()
+                .id(row.id())
+                .name(row.name())
+                .description(row.description())
+                .price(row.price())
+                .discount(row.discount())
+                .imageUrl(row.imageUrl())
+                .active(row.active())
+                .sku(row.sku())
+                .brand(row.brand())
+                .categoryName(row.categoryName())
+                .categoryId(row.categoryId())
+                .availableQuantity(row.availableQuantity() != null ? row.availableQuantity() : 0)
+                .build();
+    }
+}
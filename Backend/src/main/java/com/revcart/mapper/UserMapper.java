@@ -2,7 +2,10 @@ package com.revcart.mapper;
 
 import com.revcart.dto.AddressDto;
 import com.revcart.dto.UserDto;
+import com.revcart.dto.projection.AddressRow;
+import com.revcart.dto.projection.UserRow;
 import com.revcart.entity.User;
+import java.util.List;
 import java.util.stream.Collectors;
 
 public final class UserMapper {
@@ -25,6 +28,18 @@ public final class UserMapper {
                 .build();
     }
 
+    public static UserDto toDto(UserRow row, List<AddressRow> addresses) {
+        return UserDto.builder()
+                .id(row.id())
+                .fullName(row.fullName())
+                .email(row.email())
+                .phone(row.phone())
+                .role(row.role())
+                .emailVerified(row.emailVerified())
+                .addresses(addresses.stream().map(AddressMapper::toDto).collect(Collectors.toList()))
+                .build();
+    }
+
     public static AddressDto toDto(com.revcart.entity.Address address) {
         return AddressMapper.toDto(address);
     }
@@ -0,0 +1,17 @@
+package com.revcart.monitoring;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maximum number of SQL statements a controller method may issue while serving one request.
+ * Enforced by the endpoint query budget tests; {@link QueryBudgetAdvice} logs overruns in production.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+    int value();
+}
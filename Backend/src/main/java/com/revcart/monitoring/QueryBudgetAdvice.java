@@ -0,0 +1,57 @@
+package com.revcart.monitoring;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Compares the statements issued by a {@link QueryBudget} endpoint with its budget just before the body
+ * is written and logs an overrun. Budgets are enforced by the endpoint query budget tests, not here. The
+ * count is returned in the {@code X-Query-Count} header only when
+ * {@code revcart.query-budget.expose-header=true} (intended for test and staging profiles).
+ */
+@RestControllerAdvice
+public class QueryBudgetAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryBudgetAdvice.class);
+
+    private final QueryCounter queryCounter;
+    private final boolean exposeHeader;
+
+    public QueryBudgetAdvice(
+            QueryCounter queryCounter,
+            @Value("${revcart.query-budget.expose-header:false}") boolean exposeHeader) {
+        this.queryCounter = queryCounter;
+        this.exposeHeader = exposeHeader;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return returnType.hasMethodAnnotation(QueryBudget.class);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType,
+            ServerHttpRequest request, ServerHttpResponse response) {
+        int budget = returnType.getMethodAnnotation(QueryBudget.class).value();
+        int used = queryCounter.current();
+        if (exposeHeader) {
+            response.getHeaders().set(QUERY_COUNT_HEADER, String.valueOf(used));
+        }
+        if (used > budget) {
+            logger.warn("{} {} issued {} SQL statements, budget is {}",
+                    request.getMethod(), request.getURI().getPath(), used, budget);
+        }
+        return body;
+    }
+}
@@ -0,0 +1,173 @@
+package com.revcart.monitoring;
+
+import com.revcart.util.TransactionCallbacks;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Times the stages of the {@link TimedStages} operation running on the current thread. Each
+ * {@link #stage(String)} call ends the running stage and starts the next one; the flush and commit of
+ * the operation's transaction are timed as stage {@code commit}.
+ *
+ * <p>Exports {@code revcart.operation} per operation, payment method and outcome, and
+ * {@code revcart.operation.stage} per stage as well, both with percentile histograms. Only the stage
+ * running when an operation fails carries the failure as its outcome. With
+ * {@code revcart.monitoring.server-timing=true} the timings are also returned to the caller, see
+ * {@link ServerTimingAdvice}.
+ */
+@Component
+public class StageTimer {
+
+    static final String SERVER_TIMING_ATTRIBUTE = StageTimer.class.getName() + ".serverTiming";
+
+    private static final String OPERATION_METRIC = "revcart.operation";
+    private static final String STAGE_METRIC = "revcart.operation.stage";
+    private static final String SUCCESS = "success";
+    private static final String NONE = "none";
+    private static final Duration MIN_EXPECTED = Duration.ofMillis(1);
+    private static final Duration MAX_EXPECTED = Duration.ofSeconds(30);
+
+    private final MeterRegistry meterRegistry;
+    private final boolean serverTiming;
+    private final ThreadLocal<Run> current = new ThreadLocal<>();
+
+    public StageTimer(
+            MeterRegistry meterRegistry,
+            @Value("${revcart.monitoring.server-timing:false}") boolean serverTiming) {
+        this.meterRegistry = meterRegistry;
+        this.serverTiming = serverTiming;
+    }
+
+    /**
+     * Starts the named stage of the running operation, ending the previous one. Does nothing outside an
+     * operation.
+     */
+    public void stage(String name) {
+        Run run = current.get();
+        if (run == null) {
+            return;
+        }
+        run.lap(name, System.nanoTime());
+        if (!run.commitTracked) {
+            run.commitTracked = TransactionCallbacks.beforeCommit(() -> {
+                if (current.get() == run) {
+                    run.lap("commit", System.nanoTime());
+                }
+            });
+        }
+    }
+
+    public void paymentMethod(Object method) {
+        Run run = current.get();
+        if (run != null && method != null) {
+            run.paymentMethod = method.toString();
+        }
+    }
+
+    /**
+     * Records a stage of work done outside any operation, such as a background delivery.
+     */
+    public void record(String operation, String stage, long nanos, Throwable failure) {
+        timer(STAGE_METRIC, Tags.of("operation", operation, "stage", stage, "payment_method", NONE,
+                "outcome", outcomeOf(failure))).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    Run begin(String operation) {
+        if (current.get() != null) {
+            return null;
+        }
+        Run run = new Run(operation, System.nanoTime());
+        current.set(run);
+        return run;
+    }
+
+    void end(Run run, Throwable failure) {
+        long now = System.nanoTime();
+        current.remove();
+        run.lap(null, now);
+        String outcome = outcomeOf(failure);
+        List<String> timings = serverTiming ? new ArrayList<>() : null;
+        int last = run.laps.size() - 1;
+        for (int i = 0; i <= last; i++) {
+            Lap lap = run.laps.get(i);
+            timer(STAGE_METRIC, Tags.of("operation", run.operation, "stage", lap.stage(),
+                    "payment_method", run.paymentMethod, "outcome", i == last ? outcome : SUCCESS))
+                    .record(lap.nanos(), TimeUnit.NANOSECONDS);
+            if (timings != null) {
+                timings.add(serverTiming(run.operation + "." + lap.stage(), lap.nanos()));
+            }
+        }
+        long total = now - run.started;
+        timer(OPERATION_METRIC, Tags.of("operation", run.operation, "payment_method", run.paymentMethod,
+                "outcome", outcome)).record(total, TimeUnit.NANOSECONDS);
+        if (timings != null) {
+            timings.add(serverTiming(run.operation, total));
+            publish(String.join(", ", timings));
+        }
+    }
+
+    private Timer timer(String name, Tags tags) {
+        return Timer.builder(name)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MIN_EXPECTED)
+                .maximumExpectedValue(MAX_EXPECTED)
+                .register(meterRegistry);
+    }
+
+    private static String outcomeOf(Throwable failure) {
+        return failure == null ? SUCCESS : failure.getClass().getSimpleName();
+    }
+
+    private static String serverTiming(String name, long nanos) {
+        return String.format(Locale.ROOT, "%s;dur=%.2f", name, nanos / 1_000_000.0);
+    }
+
+    // Collected on the request, so several operations served by one request share its header
+    private static void publish(String timings) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return;
+        }
+        Object earlier = attributes.getAttribute(SERVER_TIMING_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        attributes.setAttribute(SERVER_TIMING_ATTRIBUTE, earlier != null ? earlier + ", " + timings : timings,
+                RequestAttributes.SCOPE_REQUEST);
+    }
+
+    static final class Run {
+
+        private final String operation;
+        private final long started;
+        private final List<Lap> laps = new ArrayList<>();
+        private String paymentMethod = NONE;
+        private String stage;
+        private long stageStarted;
+        private boolean commitTracked;
+
+        private Run(String operation, long started) {
+            this.operation = operation;
+            this.started = started;
+        }
+
+        private void lap(String next, long now) {
+            if (stage != null) {
+                laps.add(new Lap(stage, now - stageStarted));
+            }
+            stage = next;
+            stageStarted = now;
+        }
+    }
+
+    private record Lap(String stage, long nanos) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.revcart.monitoring;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Times a service method as the named operation, split into the stages it marks with
+ * {@link StageTimer#stage(String)}. Applied by {@link TimedStagesAspect}; a call made while another
+ * operation is running on the thread is timed as part of it.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface TimedStages {
+
+    String value();
+}
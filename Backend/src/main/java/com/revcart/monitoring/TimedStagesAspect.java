@@ -0,0 +1,41 @@
+package com.revcart.monitoring;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ordered inside the conflict retry, so each attempt is timed on its own, and outside the transaction
+ * interceptor, so the commit is part of the operation.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 200)
+public class TimedStagesAspect {
+
+    private final StageTimer stageTimer;
+
+    public TimedStagesAspect(StageTimer stageTimer) {
+        this.stageTimer = stageTimer;
+    }
+
+    @Around("@annotation(timedStages)")
+    public Object time(ProceedingJoinPoint joinPoint, TimedStages timedStages) throws Throwable {
+        StageTimer.Run run = stageTimer.begin(timedStages.value());
+        if (run == null) {
+            return joinPoint.proceed();
+        }
+        Throwable failure = null;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable ex) {
+            failure = ex;
+            throw ex;
+        } finally {
+            stageTimer.end(run, failure);
+        }
+    }
+}
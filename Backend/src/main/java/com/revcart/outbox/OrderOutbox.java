@@ -0,0 +1,71 @@
+package com.revcart.outbox;
+
+import com.revcart.entity.OutboxEvent;
+import com.revcart.enums.OrderStatus;
+import com.revcart.enums.OutboxEventType;
+import com.revcart.repository.OutboxEventRepository;
+import com.revcart.util.TransactionCallbacks;
+import java.time.Instant;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Records order side effects in the outbox table. Must be called inside the transaction that changes the
+ * order, so the effects are published exactly when the change commits and never after a rollback.
+ */
+@Component
+@Transactional(propagation = Propagation.MANDATORY)
+public class OrderOutbox {
+
+    private static final int MAX_MESSAGE_LENGTH = 1000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxRelay outboxRelay;
+
+    public OrderOutbox(OutboxEventRepository outboxEventRepository, OutboxRelay outboxRelay) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxRelay = outboxRelay;
+    }
+
+    public void trackingLog(Long orderId, OrderStatus status, String note) {
+        OutboxEvent event = event(orderId, OutboxEventType.TRACKING_LOG);
+        event.setOrderStatus(status);
+        event.setMessage(truncate(note));
+        save(event);
+    }
+
+    public void orderUpdate(Long orderId, Long userId, String message) {
+        OutboxEvent event = event(orderId, OutboxEventType.ORDER_UPDATE);
+        event.setUserId(userId);
+        event.setMessage(truncate(message));
+        save(event);
+    }
+
+    public void paymentConfirmation(Long orderId, Long userId, String message) {
+        OutboxEvent event = event(orderId, OutboxEventType.PAYMENT_CONFIRMATION);
+        event.setUserId(userId);
+        event.setMessage(truncate(message));
+        save(event);
+    }
+
+    private static OutboxEvent event(Long orderId, OutboxEventType type) {
+        OutboxEvent event = new OutboxEvent();
+        event.setOrderId(orderId);
+        event.setType(type);
+        event.setNextAttemptAt(Instant.now());
+        return event;
+    }
+
+    private static String truncate(String message) {
+        return message != null && message.length() > MAX_MESSAGE_LENGTH
+                ? message.substring(0, MAX_MESSAGE_LENGTH)
+                : message;
+    }
+
+    private void save(OutboxEvent event) {
+        outboxEventRepository.save(event);
+        // Deliver right after commit instead of waiting for the next poll
+        TransactionCallbacks.afterCommit(outboxRelay::wake);
+    }
+}
@@ -0,0 +1,141 @@
+package com.revcart.outbox;
+
+import com.revcart.document.DeliveryTrackingLog;
+import com.revcart.entity.OutboxEvent;
+import com.revcart.monitoring.StageTimer;
+import com.revcart.repository.OutboxEventRepository;
+import com.revcart.repository.mongo.DeliveryTrackingLogRepository;
+import com.revcart.service.NotificationService;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Delivers outbox events to MongoDB and the WebSocket broker in batches. Each round takes the oldest
+ * pending event of every order, so events of one order go out in the order they were written while
+ * different orders proceed independently. A failed event is retried with exponential backoff and holds
+ * back the later events of its order. Delivery is at least once.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+    private static final int ALERT_ATTEMPTS = 10;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final DeliveryTrackingLogRepository deliveryTrackingLogRepository;
+    private final NotificationService notificationService;
+    private final ThreadPoolTaskExecutor outboxExecutor;
+    private final StageTimer stageTimer;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+
+    public OutboxRelay(
+            OutboxEventRepository outboxEventRepository,
+            DeliveryTrackingLogRepository deliveryTrackingLogRepository,
+            NotificationService notificationService,
+            @Qualifier("outboxExecutor") ThreadPoolTaskExecutor outboxExecutor,
+            StageTimer stageTimer,
+            PlatformTransactionManager transactionManager,
+            @Value("${revcart.outbox.batch-size:100}") int batchSize,
+            @Value("${revcart.outbox.initial-backoff:PT1S}") Duration initialBackoff,
+            @Value("${revcart.outbox.max-backoff:PT5M}") Duration maxBackoff) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.deliveryTrackingLogRepository = deliveryTrackingLogRepository;
+        this.notificationService = notificationService;
+        this.outboxExecutor = outboxExecutor;
+        this.stageTimer = stageTimer;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    /**
+     * Schedules a drain; a no-op when one is already waiting to run.
+     */
+    public void wake() {
+        outboxExecutor.execute(this::drain);
+    }
+
+    // Picks up retries and events committed by other instances
+    @Scheduled(fixedDelayString = "${revcart.outbox.poll-ms:1000}")
+    public void poll() {
+        wake();
+    }
+
+    private void drain() {
+        try {
+            Integer delivered;
+            do {
+                delivered = transactionTemplate.execute(status -> deliverBatch());
+            } while (delivered != null && delivered > 0);
+        } catch (RuntimeException ex) {
+            logger.warn("Outbox drain failed", ex);
+        }
+    }
+
+    private int deliverBatch() {
+        Instant now = Instant.now();
+        List<OutboxEvent> events = outboxEventRepository.lockDueHeads(now, PageRequest.of(0, batchSize));
+        List<Long> delivered = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            String stage = event.getType().name().toLowerCase(Locale.ROOT);
+            long started = System.nanoTime();
+            try {
+                deliver(event);
+                stageTimer.record("outbox_delivery", stage, System.nanoTime() - started, null);
+                delivered.add(event.getId());
+            } catch (RuntimeException ex) {
+                stageTimer.record("outbox_delivery", stage, System.nanoTime() - started, ex);
+                int attempts = event.getAttempts() + 1;
+                event.setAttempts(attempts);
+                event.setNextAttemptAt(now.plus(backoff(attempts)));
+                if (attempts >= ALERT_ATTEMPTS) {
+                    logger.error("Outbox event {} of order {} failed {} times", event.getId(), event.getOrderId(),
+                            attempts, ex);
+                } else {
+                    logger.warn("Outbox event {} of order {} failed, retrying", event.getId(), event.getOrderId(), ex);
+                }
+            }
+        }
+        if (!delivered.isEmpty()) {
+            outboxEventRepository.deleteAllByIdInBatch(delivered);
+        }
+        return delivered.size();
+    }
+
+    private void deliver(OutboxEvent event) {
+        switch (event.getType()) {
+            case TRACKING_LOG -> {
+                DeliveryTrackingLog log = new DeliveryTrackingLog();
+                log.setOrderId(event.getOrderId());
+                log.setStatus(event.getOrderStatus());
+                log.setNote(event.getMessage());
+                log.setTimestamp(event.getCreatedAt() != null ? event.getCreatedAt() : Instant.now());
+                deliveryTrackingLogRepository.save(log);
+            }
+            case ORDER_UPDATE -> notificationService.pushOrderUpdate(event.getUserId(), event.getMessage());
+            case PAYMENT_CONFIRMATION -> notificationService.pushPaymentConfirmation(event.getUserId(), event.getMessage());
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+}
@@ -1,11 +1,23 @@
 package com.revcart.repository;
 
+import com.revcart.dto.projection.AddressRow;
 import com.revcart.entity.Address;
 import com.revcart.entity.User;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface AddressRepository extends JpaRepository<Address, Long> {
     List<Address> findByUser(User user);
-}
 
+    @Query("""
+        SELECT new com.revcart.dto.projection.AddressRow(
+            a.user.id, a.id, a.line1, a.line2, a.city, a.state, a.postalCode, a.country, a.primaryAddress)
+        FROM Address a
+        WHERE a.user.id IN :userIds
+        ORDER BY a.id
+    """)
+    List<AddressRow> findRowsByUserIdIn(@Param("userIds") Collection<Long> userIds);
+}
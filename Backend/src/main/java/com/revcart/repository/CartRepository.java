@@ -12,8 +12,9 @@ import org.springframework.data.repository.query.Param;
 public interface CartRepository extends JpaRepository<Cart, Long> {
     Optional<Cart> findByUser(User user);
 
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    // Bumps the version on commit even when only the items change, so concurrent cart writes always conflict
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
     @Query("SELECT c FROM Cart c WHERE c.user = :user")
-    Optional<Cart> findByUserWithLock(@Param("user") User user);
+    Optional<Cart> findForWriteByUser(@Param("user") User user);
 }
 
@@ -1,11 +1,15 @@
 package com.revcart.repository;
 
 import com.revcart.entity.Category;
+import java.time.Instant;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
     Optional<Category> findBySlug(String slug);
     boolean existsByNameIgnoreCase(String name);
-}
 
+    @Query("SELECT MAX(c.updatedAt) FROM Category c")
+    Instant findLatestUpdate();
+}
@@ -2,10 +2,14 @@ package com.revcart.repository;
 
 import com.revcart.entity.Inventory;
 import com.revcart.entity.Product;
+import java.time.Instant;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
-public interface InventoryRepository extends JpaRepository<Inventory, Long> {
+public interface InventoryRepository extends JpaRepository<Inventory, Long>, InventoryRepositoryCustom {
     Optional<Inventory> findByProduct(Product product);
-}
 
+    @Query("SELECT MAX(i.updatedAt) FROM Inventory i")
+    Instant findLatestUpdate();
+}
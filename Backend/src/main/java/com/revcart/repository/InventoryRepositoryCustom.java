@@ -0,0 +1,60 @@
+package com.revcart.repository;
+
+import com.revcart.dto.projection.StockShortage;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Multi-line stock operations keyed by product id, each line mapping to a quantity.
+ */
+public interface InventoryRepositoryCustom {
+
+    /**
+     * Takes every line out of available stock, or none. Returns the lines that are short, empty when
+     * the reservation went through.
+     */
+    List<StockShortage> reserveAll(Map<Long, Integer> quantities);
+
+    /**
+     * Like {@link #reserveAll(Map)}, but moves the quantities into reserved stock until the hold is
+     * committed or released.
+     */
+    List<StockShortage> holdAll(Map<Long, Integer> quantities);
+
+    /**
+     * Settles held quantities: they leave reserved stock for good.
+     */
+    void commitHolds(Map<Long, Integer> quantities);
+
+    /**
+     * Returns held quantities from reserved to available stock.
+     */
+    void releaseHolds(Map<Long, Integer> quantities);
+
+    /**
+     * Puts the quantities back into available stock. Returns the product ids that have no inventory row.
+     */
+    List<Long> restockAll(Map<Long, Integer> quantities);
+
+    /**
+     * Spreads the product's stock over {@code shards} counters, or re-spreads it when already sharded.
+     * Returns false when the product has no inventory row.
+     */
+    boolean shardStock(Long productId, int shards);
+
+    /**
+     * Folds the product's shards back into its inventory row. Does nothing when the product is not sharded.
+     */
+    void unshardStock(Long productId);
+
+    /**
+     * Replaces the available stock of a sharded product, keeping what its shards hold in reserve.
+     */
+    void resetShardedStock(Long productId, int availableQuantity);
+
+    /**
+     * Copies the shard totals of every sharded product into its inventory row. Returns the product ids
+     * whose totals changed.
+     */
+    List<Long> refreshShardTotals();
+}
@@ -0,0 +1,421 @@
+package com.revcart.repository;
+
+import com.revcart.dto.projection.StockShortage;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Multi-line stock changes in at most two statements whatever the cart size: the inventory rows are
+ * locked with one {@code SELECT ... FOR UPDATE} ordered by product id, which gives every checkout the
+ * same lock order and rules out deadlocks between them, then all lines are changed by a single
+ * {@code UPDATE} with a CASE per product. Nothing is written when any line is short.
+ * <p>
+ * Hot products keep their stock in {@code inventory_shards} instead, so that concurrent checkouts of
+ * the same product do not queue on one row: a change goes to a random shard with a guarded
+ * {@code UPDATE}, and only when that shard cannot cover it are all shards of the product locked and
+ * the stock spread evenly again. Their inventory row is then a read model, see
+ * {@link #refreshShardTotals()}.
+ */
+public class InventoryRepositoryCustomImpl implements InventoryRepositoryCustom {
+
+    private static final String FIND_SHARDED = """
+        SELECT product_id, shard_count FROM inventory
+        WHERE product_id IN (:productIds) AND shard_count > 0
+    """;
+
+    private static final String LOCK_ROWS = """
+        SELECT product_id, available_quantity, shard_count FROM inventory
+        WHERE product_id IN (:productIds)
+        ORDER BY product_id
+        FOR UPDATE
+    """;
+
+    private static final String LOCK_ROW = """
+        SELECT available_quantity, reserved_quantity, shard_count FROM inventory
+        WHERE product_id = :productId
+        FOR UPDATE
+    """;
+
+    private static final String SET_TOTALS = """
+        UPDATE inventory
+        SET available_quantity = :available, reserved_quantity = :reserved, shard_count = :shards,
+            version = version + 1, updated_at = :now
+        WHERE product_id = :productId
+    """;
+
+    private static final String SHARD_TOTALS = """
+        SELECT i.product_id, i.available_quantity, i.reserved_quantity,
+            COALESCE(SUM(s.available_quantity), 0) AS shard_available,
+            COALESCE(SUM(s.reserved_quantity), 0) AS shard_reserved
+        FROM inventory i
+        JOIN inventory_shards s ON s.product_id = i.product_id
+        WHERE i.shard_count > 0
+        GROUP BY i.product_id, i.available_quantity, i.reserved_quantity
+    """;
+
+    private static final String REFRESH_TOTALS = """
+        UPDATE inventory
+        SET available_quantity = :available, reserved_quantity = :reserved, version = version + 1, updated_at = :now
+        WHERE product_id = :productId AND shard_count > 0
+    """;
+
+    private static final String LOCK_SHARDS = """
+        SELECT shard, available_quantity, reserved_quantity FROM inventory_shards
+        WHERE product_id = :productId
+        ORDER BY shard
+        FOR UPDATE
+    """;
+
+    private static final String ADJUST_SHARD = """
+        UPDATE inventory_shards
+        SET available_quantity = available_quantity + :available, reserved_quantity = reserved_quantity + :reserved
+        WHERE product_id = :productId AND shard = :shard
+          AND available_quantity + :available >= 0 AND reserved_quantity + :reserved >= 0
+    """;
+
+    private static final String SET_SHARD = """
+        UPDATE inventory_shards SET available_quantity = :available, reserved_quantity = :reserved
+        WHERE product_id = :productId AND shard = :shard
+    """;
+
+    private static final String INSERT_SHARD = """
+        INSERT INTO inventory_shards (product_id, shard, available_quantity, reserved_quantity)
+        VALUES (:productId, :shard, :available, :reserved)
+    """;
+
+    private static final String DELETE_SHARDS = "DELETE FROM inventory_shards WHERE product_id = :productId";
+
+    private static final String SHARD_AVAILABLE =
+            "SELECT COALESCE(SUM(available_quantity), 0) FROM inventory_shards WHERE product_id = :productId";
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public InventoryRepositoryCustomImpl(NamedParameterJdbcTemplate namedJdbcTemplate) {
+        this.namedJdbcTemplate = namedJdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public List<StockShortage> reserveAll(Map<Long, Integer> quantities) {
+        return apply(quantities, Change.RESERVE);
+    }
+
+    @Override
+    @Transactional
+    public List<StockShortage> holdAll(Map<Long, Integer> quantities) {
+        return apply(quantities, Change.HOLD);
+    }
+
+    @Override
+    @Transactional
+    public void commitHolds(Map<Long, Integer> quantities) {
+        apply(quantities, Change.COMMIT);
+    }
+
+    @Override
+    @Transactional
+    public void releaseHolds(Map<Long, Integer> quantities) {
+        apply(quantities, Change.RELEASE);
+    }
+
+    @Override
+    @Transactional
+    public List<Long> restockAll(Map<Long, Integer> quantities) {
+        return apply(quantities, Change.RESTOCK).stream().map(StockShortage::productId).toList();
+    }
+
+    @Override
+    @Transactional
+    public boolean shardStock(Long productId, int shards) {
+        StockRow row = lockRow(productId);
+        if (row == null) {
+            return false;
+        }
+        long available = row.available();
+        long reserved = row.reserved();
+        if (row.shardCount() > 0) {
+            ShardTotals totals = lockShards(productId);
+            if (!totals.shards().isEmpty()) {
+                available = totals.available();
+                reserved = totals.reserved();
+            }
+            namedJdbcTemplate.update(DELETE_SHARDS, new MapSqlParameterSource("productId", productId));
+        }
+        spread(productId, IntStream.range(0, shards).boxed().toList(), available, reserved, INSERT_SHARD);
+        setTotals(productId, available, reserved, shards);
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public void unshardStock(Long productId) {
+        StockRow row = lockRow(productId);
+        if (row == null || row.shardCount() == 0) {
+            return;
+        }
+        ShardTotals totals = lockShards(productId);
+        namedJdbcTemplate.update(DELETE_SHARDS, new MapSqlParameterSource("productId", productId));
+        if (totals.shards().isEmpty()) {
+            setTotals(productId, row.available(), row.reserved(), 0);
+        } else {
+            setTotals(productId, totals.available(), totals.reserved(), 0);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void resetShardedStock(Long productId, int availableQuantity) {
+        ShardTotals totals = lockShards(productId);
+        if (!totals.shards().isEmpty()) {
+            spread(productId, totals.shards(), availableQuantity, totals.reserved(), SET_SHARD);
+        }
+    }
+
+    @Override
+    @Transactional
+    public List<Long> refreshShardTotals() {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Long> changed = new ArrayList<>();
+        List<MapSqlParameterSource> updates = new ArrayList<>();
+        // Plain consistent read: the shards are summed without locking them against checkouts
+        namedJdbcTemplate.query(SHARD_TOTALS, (ResultSet rs) -> {
+            long available = rs.getLong("shard_available");
+            long reserved = rs.getLong("shard_reserved");
+            if (available != rs.getLong("available_quantity") || reserved != rs.getLong("reserved_quantity")) {
+                long productId = rs.getLong("product_id");
+                changed.add(productId);
+                updates.add(new MapSqlParameterSource("productId", productId)
+                        .addValue("available", available)
+                        .addValue("reserved", reserved)
+                        .addValue("now", now));
+            }
+        });
+        if (!updates.isEmpty()) {
+            namedJdbcTemplate.batchUpdate(REFRESH_TOTALS, updates.toArray(MapSqlParameterSource[]::new));
+        }
+        return changed;
+    }
+
+    private List<StockShortage> apply(Map<Long, Integer> quantities, Change change) {
+        if (quantities.isEmpty()) {
+            return List.of();
+        }
+        SortedMap<Long, Integer> lines = new TreeMap<>(quantities);
+        // Unlocked read, so that checkouts of a hot product never queue on its inventory row
+        Map<Long, Integer> sharded = new HashMap<>();
+        namedJdbcTemplate.query(FIND_SHARDED, new MapSqlParameterSource("productIds", lines.keySet()), (ResultSet rs) -> {
+            sharded.put(rs.getLong("product_id"), rs.getInt("shard_count"));
+        });
+        SortedMap<Long, Integer> rowLines = new TreeMap<>(lines);
+        rowLines.keySet().removeAll(sharded.keySet());
+
+        List<StockShortage> rejected = lockRows(rowLines, change, sharded);
+        if (change.takesStock() && !rejected.isEmpty()) {
+            return rejected;
+        }
+
+        Map<Long, Integer> applied = new TreeMap<>();
+        SortedMap<Long, Integer> unsharded = new TreeMap<>();
+        for (Map.Entry<Long, Integer> line : lines.entrySet()) {
+            Long productId = line.getKey();
+            int quantity = line.getValue();
+            if (!sharded.containsKey(productId)) {
+                continue;
+            }
+            switch (adjustShards(productId, sharded.get(productId), change.availableSign * quantity,
+                    change.reservedSign * quantity)) {
+                case APPLIED -> applied.put(productId, quantity);
+                case SHORT -> rejected.add(new StockShortage(productId, quantity, shardAvailable(productId)));
+                case NOT_SHARDED -> unsharded.put(productId, quantity);
+            }
+        }
+        if (!unsharded.isEmpty()) {
+            // Sharding was switched off between the unlocked read and the shard update
+            rejected.addAll(lockRows(unsharded, change, null));
+            rowLines.putAll(unsharded);
+        }
+
+        if (change.takesStock() && !rejected.isEmpty()) {
+            applied.forEach((productId, quantity) -> adjustShards(productId, sharded.get(productId),
+                    -change.availableSign * quantity, -change.reservedSign * quantity));
+            return rejected;
+        }
+        update(rowLines, change.assignment);
+        return rejected;
+    }
+
+    /**
+     * Locks the inventory rows of the lines and drops from them the lines that cannot go through their
+     * row: rows sharded in the meantime move to {@code sharded}, or are rejected when it is null. Returns
+     * the lines without a usable row and, when the change takes stock, the short ones.
+     */
+    private List<StockShortage> lockRows(SortedMap<Long, Integer> lines, Change change, Map<Long, Integer> sharded) {
+        List<StockShortage> rejected = new ArrayList<>();
+        if (lines.isEmpty()) {
+            return rejected;
+        }
+        Map<Long, Integer> available = new HashMap<>();
+        namedJdbcTemplate.query(LOCK_ROWS, new MapSqlParameterSource("productIds", lines.keySet()), (ResultSet rs) -> {
+            long productId = rs.getLong("product_id");
+            int shardCount = rs.getInt("shard_count");
+            if (shardCount == 0) {
+                available.put(productId, rs.getInt("available_quantity"));
+            } else if (sharded != null) {
+                sharded.put(productId, shardCount);
+            }
+        });
+
+        Iterator<Map.Entry<Long, Integer>> iterator = lines.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, Integer> line = iterator.next();
+            Integer inStock = available.get(line.getKey());
+            if (inStock == null) {
+                iterator.remove();
+                if (sharded == null || !sharded.containsKey(line.getKey())) {
+                    rejected.add(new StockShortage(line.getKey(), line.getValue(), 0));
+                }
+            } else if (change.takesStock() && inStock < line.getValue()) {
+                rejected.add(new StockShortage(line.getKey(), line.getValue(), inStock));
+            }
+        }
+        return rejected;
+    }
+
+    private ShardOutcome adjustShards(Long productId, int shardCount, int availableDelta, int reservedDelta) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource("productId", productId)
+                .addValue("shard", ThreadLocalRandom.current().nextInt(shardCount))
+                .addValue("available", availableDelta)
+                .addValue("reserved", reservedDelta);
+        if (namedJdbcTemplate.update(ADJUST_SHARD, parameters) == 1) {
+            return ShardOutcome.APPLIED;
+        }
+        // The picked shard cannot cover the change on its own: rebalance the product over all its shards
+        ShardTotals totals = lockShards(productId);
+        if (totals.shards().isEmpty()) {
+            return ShardOutcome.NOT_SHARDED;
+        }
+        long available = totals.available() + availableDelta;
+        if (available < 0) {
+            return ShardOutcome.SHORT;
+        }
+        spread(productId, totals.shards(), available, Math.max(totals.reserved() + reservedDelta, 0), SET_SHARD);
+        return ShardOutcome.APPLIED;
+    }
+
+    private int shardAvailable(Long productId) {
+        Integer available = namedJdbcTemplate.queryForObject(SHARD_AVAILABLE,
+                new MapSqlParameterSource("productId", productId), Integer.class);
+        return available != null ? available : 0;
+    }
+
+    private StockRow lockRow(Long productId) {
+        return namedJdbcTemplate.query(LOCK_ROW, new MapSqlParameterSource("productId", productId),
+                        (rs, rowNum) -> new StockRow(rs.getLong("available_quantity"), rs.getLong("reserved_quantity"),
+                                rs.getInt("shard_count")))
+                .stream()
+                .findFirst()
+                .orElse(null);
+    }
+
+    private ShardTotals lockShards(Long productId) {
+        List<Integer> shards = new ArrayList<>();
+        long[] totals = new long[2];
+        namedJdbcTemplate.query(LOCK_SHARDS, new MapSqlParameterSource("productId", productId), (ResultSet rs) -> {
+            shards.add(rs.getInt("shard"));
+            totals[0] += rs.getInt("available_quantity");
+            totals[1] += rs.getInt("reserved_quantity");
+        });
+        return new ShardTotals(shards, totals[0], totals[1]);
+    }
+
+    private void spread(Long productId, List<Integer> shards, long available, long reserved, String sql) {
+        int count = shards.size();
+        MapSqlParameterSource[] batch = new MapSqlParameterSource[count];
+        for (int i = 0; i < count; i++) {
+            batch[i] = new MapSqlParameterSource("productId", productId)
+                    .addValue("shard", shards.get(i))
+                    .addValue("available", share(available, count, i))
+                    .addValue("reserved", share(reserved, count, i));
+        }
+        namedJdbcTemplate.batchUpdate(sql, batch);
+    }
+
+    private static int share(long total, int count, int index) {
+        return (int) (total / count + (index < total % count ? 1 : 0));
+    }
+
+    private void setTotals(Long productId, long available, long reserved, int shards) {
+        namedJdbcTemplate.update(SET_TOTALS, new MapSqlParameterSource("productId", productId)
+                .addValue("available", available)
+                .addValue("reserved", reserved)
+                .addValue("shards", shards)
+                .addValue("now", Timestamp.from(Instant.now())));
+    }
+
+    private void update(SortedMap<Long, Integer> lines, String assignment) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        StringBuilder quantity = new StringBuilder("CASE product_id");
+        MapSqlParameterSource parameters = new MapSqlParameterSource("productIds", lines.keySet())
+                .addValue("now", Timestamp.from(Instant.now()));
+        int line = 0;
+        for (Map.Entry<Long, Integer> entry : lines.entrySet()) {
+            quantity.append(" WHEN :p").append(line).append(" THEN :q").append(line);
+            parameters.addValue("p" + line, entry.getKey()).addValue("q" + line, entry.getValue());
+            line++;
+        }
+        quantity.append(" END");
+        // Bumping the version makes JPA writers holding an older copy of these rows fail instead of overwrite
+        String sql = "UPDATE inventory SET " + assignment.formatted(quantity) + ", version = version + 1, updated_at = :now"
+                + " WHERE product_id IN (:productIds)";
+        namedJdbcTemplate.update(sql, parameters);
+    }
+
+    private enum Change {
+        RESERVE("available_quantity = available_quantity - %1$s", -1, 0),
+        HOLD("available_quantity = available_quantity - %1$s, reserved_quantity = COALESCE(reserved_quantity, 0) + %1$s",
+                -1, 1),
+        COMMIT("reserved_quantity = GREATEST(COALESCE(reserved_quantity, 0) - %1$s, 0)", 0, -1),
+        RELEASE("available_quantity = available_quantity + %1$s,"
+                + " reserved_quantity = GREATEST(COALESCE(reserved_quantity, 0) - %1$s, 0)", 1, -1),
+        RESTOCK("available_quantity = available_quantity + %1$s", 1, 0);
+
+        private final String assignment;
+        private final int availableSign;
+        private final int reservedSign;
+
+        Change(String assignment, int availableSign, int reservedSign) {
+            this.assignment = assignment;
+            this.availableSign = availableSign;
+            this.reservedSign = reservedSign;
+        }
+
+        boolean takesStock() {
+            return availableSign < 0;
+        }
+    }
+
+    private enum ShardOutcome {
+        APPLIED, SHORT, NOT_SHARDED
+    }
+
+    private record StockRow(long available, long reserved, int shardCount) {
+    }
+
+    private record ShardTotals(List<Integer> shards, long available, long reserved) {
+    }
+}
@@ -1,8 +1,53 @@
 package com.revcart.repository;
 
+import com.revcart.dto.projection.OrderItemRow;
+import com.revcart.dto.projection.OrderProductRow;
+import com.revcart.dto.projection.ProductSaleRow;
 import com.revcart.entity.OrderItem;
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
-}
 
+    @Query("""
+        SELECT oi.product.id AS productId, SUM(oi.quantity) AS quantity
+        FROM OrderItem oi
+        WHERE oi.order.status <> com.revcart.enums.OrderStatus.CANCELLED
+        GROUP BY oi.product.id
+    """)
+    List<ProductSalesTotal> sumQuantityByProduct();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = QueryHintValues.MYSQL_STREAMING_FETCH_SIZE))
+    @Query("""
+        SELECT new com.revcart.dto.projection.ProductSaleRow(oi.product.id, o.createdAt, oi.quantity)
+        FROM OrderItem oi JOIN oi.order o
+        WHERE o.status <> com.revcart.enums.OrderStatus.CANCELLED AND o.createdAt >= :since
+    """)
+    Stream<ProductSaleRow> streamSalesSince(@Param("since") Instant since);
+
+    @Query("""
+        SELECT new com.revcart.dto.projection.OrderItemRow(
+            oi.order.id, p.id, p.name, p.imageUrl, oi.quantity, oi.unitPrice, oi.subtotal)
+        FROM OrderItem oi JOIN oi.product p
+        WHERE oi.order.id IN :orderIds
+        ORDER BY oi.id
+    """)
+    List<OrderItemRow> findRowsByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = QueryHintValues.MYSQL_STREAMING_FETCH_SIZE))
+    @Query("""
+        SELECT new com.revcart.dto.projection.OrderProductRow(o.id, oi.product.id)
+        FROM OrderItem oi JOIN oi.order o
+        WHERE o.status <> com.revcart.enums.OrderStatus.CANCELLED AND o.id <= :maxOrderId
+        ORDER BY o.id
+    """)
+    Stream<OrderProductRow> streamOrderProductsUpTo(@Param("maxOrderId") long maxOrderId);
+}
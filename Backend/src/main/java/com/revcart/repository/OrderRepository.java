@@ -1,20 +1,89 @@
 package com.revcart.repository;
 
+import com.revcart.dto.projection.HoldRow;
+import com.revcart.dto.projection.OrderRow;
 import com.revcart.entity.Order;
 import com.revcart.entity.User;
 import com.revcart.enums.OrderStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
-    Page<Order> findByUser(User user, Pageable pageable);
+    @EntityGraph(Order.WITH_DETAILS)
     List<Order> findByDeliveryAgentAndStatus(User deliveryAgent, OrderStatus status);
 
+    @EntityGraph(Order.WITH_DETAILS)
+    Optional<Order> findWithDetailsById(Long id);
+
+    // Order grids select straight into OrderRow; items and customer addresses are loaded per page
+    String ORDER_ROW = """
+        SELECT new com.revcart.dto.projection.OrderRow(
+            o.id, o.status, o.paymentStatus, o.totalAmount, o.createdAt, o.updatedAt,
+            u.id, u.fullName, u.email, u.phone, u.role, u.emailVerified,
+            agent.fullName,
+            a.id, a.line1, a.line2, a.city, a.state, a.postalCode, a.country, a.primaryAddress,
+            pay.id, pay.method, pay.status, pay.amount, pay.providerPaymentId, pay.paidAt)
+        FROM Order o
+        LEFT JOIN o.user u
+        LEFT JOIN o.deliveryAgent agent
+        LEFT JOIN o.shippingAddress a
+        LEFT JOIN o.payment pay
+    """;
+
+    @Query(value = ORDER_ROW + "WHERE o.user = :user",
+            countQuery = "SELECT COUNT(o) FROM Order o WHERE o.user = :user")
+    Page<OrderRow> findRowsByUser(@Param("user") User user, Pageable pageable);
+
+    @Query(value = ORDER_ROW, countQuery = "SELECT COUNT(o) FROM Order o")
+    Page<OrderRow> findAllRows(Pageable pageable);
+
+    // Keyset pagination for the admin order list, newest first
+    @Query(ORDER_ROW + "ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderRow> findRowsNewestFirst(Pageable pageable);
+
+    @Query(ORDER_ROW + "WHERE o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id) ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderRow> findRowsBefore(@Param("createdAt") Instant createdAt, @Param("id") Long id, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = QueryHintValues.MYSQL_STREAMING_FETCH_SIZE))
+    @Query(ORDER_ROW + "WHERE o.createdAt >= :from AND o.createdAt < :to ORDER BY o.id")
+    Stream<OrderRow> streamRowsCreatedBetween(@Param("from") Instant from, @Param("to") Instant to);
+
+    // Payment settlement, cancellation and hold expiry lock the order so they cannot interleave
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findForUpdateById(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.items WHERE o.id IN :ids AND o.holdExpiresAt <= :now ORDER BY o.id")
+    List<Order> findHoldsExpiredForUpdate(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+
+    @Query("SELECT o.id FROM Order o WHERE o.holdExpiresAt <= :now ORDER BY o.holdExpiresAt")
+    List<Long> findIdsWithHoldExpiredBy(@Param("now") Instant now, Pageable pageable);
+
+    @Query("SELECT new com.revcart.dto.projection.HoldRow(o.id, o.holdExpiresAt) FROM Order o WHERE o.holdExpiresAt IS NOT NULL")
+    List<HoldRow> findActiveHolds();
+
+    @Query("SELECT COALESCE(SUM(o.totalAmount), 0) FROM Order o")
+    BigDecimal sumTotalAmount();
+
+    @Query("SELECT COALESCE(MAX(o.id), 0) FROM Order o")
+    long findMaxId();
+
     // Count orders assigned to a delivery agent (PACKED or OUT_FOR_DELIVERY)
     @Query("SELECT COUNT(o) FROM Order o WHERE o.deliveryAgent = :agent AND o.status IN (com.revcart.enums.OrderStatus.PACKED, com.revcart.enums.OrderStatus.OUT_FOR_DELIVERY)")
     long countAssignedOrders(@Param("agent") User agent);
@@ -32,14 +101,17 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     long countPendingOrders();
 
     // Get assigned orders for a delivery agent
+    @EntityGraph(Order.WITH_DETAILS)
     @Query("SELECT o FROM Order o WHERE o.deliveryAgent = :agent AND o.status IN (com.revcart.enums.OrderStatus.PACKED, com.revcart.enums.OrderStatus.OUT_FOR_DELIVERY) ORDER BY o.createdAt DESC")
     List<Order> findAssignedOrders(@Param("agent") User agent);
 
     // Get in transit orders for a delivery agent
+    @EntityGraph(Order.WITH_DETAILS)
     @Query("SELECT o FROM Order o WHERE o.deliveryAgent = :agent AND o.status = com.revcart.enums.OrderStatus.OUT_FOR_DELIVERY ORDER BY o.createdAt DESC")
     List<Order> findInTransitOrders(@Param("agent") User agent);
 
     // Get pending orders (no delivery agent assigned)
+    @EntityGraph(Order.WITH_DETAILS)
     @Query("SELECT o FROM Order o WHERE o.deliveryAgent IS NULL AND o.status IN (com.revcart.enums.OrderStatus.PLACED, com.revcart.enums.OrderStatus.PACKED) ORDER BY o.createdAt DESC")
     List<Order> findPendingOrders();
 }
@@ -0,0 +1,30 @@
+package com.revcart.repository;
+
+import com.revcart.entity.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * The oldest undelivered event of each order, if due. Later events of an order wait until the earlier
+     * ones are delivered, which keeps delivery in order per order; rows locked by another relay are skipped.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = QueryHintValues.SKIP_LOCKED))
+    @Query("""
+        SELECT e FROM OutboxEvent e
+        WHERE e.nextAttemptAt <= :now
+          AND NOT EXISTS (SELECT p.id FROM OutboxEvent p WHERE p.orderId = e.orderId AND p.id < e.id)
+        ORDER BY e.id
+    """)
+    List<OutboxEvent> lockDueHeads(@Param("now") Instant now, Pageable pageable);
+}
@@ -0,0 +1,114 @@
+package com.revcart.repository;
+
+import com.revcart.catalog.feed.ProductFeedRow;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.text.Normalizer;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Upserts products and their inventory by SKU with JDBC batches, bypassing the persistence context.
+ * Each call is one transaction of three statements regardless of the number of rows; the MySQL URL
+ * should set {@code rewriteBatchedStatements=true} so a batch travels as a single multi-row insert.
+ *
+ * <p>The SKU column compares case- and accent-insensitively, so a feed SKU can land on a product stored
+ * under a different spelling; ids are matched back to feed rows by {@link #skuKey(String)} for that reason.
+ */
+@Repository
+public class ProductBatchWriter {
+
+    private static final String UPSERT_PRODUCT = """
+        INSERT INTO products (sku, name, description, price, discount, image_url, brand, active, category_id,
+                              created_at, updated_at)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        ON DUPLICATE KEY UPDATE name = VALUES(name), description = VALUES(description), price = VALUES(price),
+            discount = VALUES(discount), image_url = VALUES(image_url), brand = VALUES(brand),
+            active = VALUES(active), category_id = VALUES(category_id), updated_at = VALUES(updated_at)
+    """;
+
+    private static final String UPSERT_INVENTORY = """
+        INSERT INTO inventory (product_id, available_quantity, reserved_quantity, shard_count, version, created_at,
+            updated_at)
+        VALUES (?, ?, 0, 0, 0, ?, ?)
+        ON DUPLICATE KEY UPDATE
+            available_quantity = CASE WHEN shard_count > 0 THEN available_quantity ELSE VALUES(available_quantity) END,
+            version = version + 1, updated_at = VALUES(updated_at)
+    """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public ProductBatchWriter(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+    }
+
+    /**
+     * Inserts or updates the given rows and returns the product id of every SKU. Rows must not contain
+     * two SKUs with the same {@link #skuKey(String)}.
+     */
+    @Transactional
+    public Map<String, Long> upsert(List<ProductFeedRow> rows) {
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(UPSERT_PRODUCT, rows, rows.size(), (ps, row) -> {
+            ps.setString(1, row.sku());
+            ps.setString(2, row.name());
+            ps.setString(3, row.description());
+            ps.setBigDecimal(4, row.price());
+            ps.setBigDecimal(5, row.discount());
+            ps.setString(6, row.imageUrl());
+            ps.setString(7, row.brand());
+            ps.setBoolean(8, row.active());
+            if (row.categoryId() != null) {
+                ps.setLong(9, row.categoryId());
+            } else {
+                ps.setNull(9, Types.BIGINT);
+            }
+            ps.setTimestamp(10, now);
+            ps.setTimestamp(11, now);
+        });
+
+        Map<String, Long> idsByKey = new HashMap<>();
+        namedJdbcTemplate.query("SELECT id, sku FROM products WHERE sku IN (:skus)",
+                Map.of("skus", rows.stream().map(ProductFeedRow::sku).collect(Collectors.toSet())),
+                rs -> {
+                    idsByKey.put(skuKey(rs.getString("sku")), rs.getLong("id"));
+                });
+        Map<String, Long> productIds = new HashMap<>();
+        for (ProductFeedRow row : rows) {
+            Long id = idsByKey.get(skuKey(row.sku()));
+            if (id == null) {
+                // The database matched the SKU to a spelling that differs by more than case and accents
+                throw new IllegalStateException("SKU " + row.sku() + " was stored under a different spelling");
+            }
+            productIds.put(row.sku(), id);
+        }
+
+        jdbcTemplate.batchUpdate(UPSERT_INVENTORY, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, productIds.get(row.sku()));
+            ps.setInt(2, row.quantity());
+            ps.setTimestamp(3, now);
+            ps.setTimestamp(4, now);
+        });
+        return productIds;
+    }
+
+    /**
+     * Case- and accent-free form of a SKU. Two SKUs with the same key are the same product to the
+     * database's default collation.
+     */
+    public static String skuKey(String sku) {
+        return Normalizer.normalize(sku, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,25 +1,92 @@
 package com.revcart.repository;
 
+import com.revcart.dto.projection.ProductRow;
 import com.revcart.entity.Product;
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
-    @Query("""
-        SELECT p FROM Product p
+    // Listings select straight into ProductRow so no entity is hydrated or dirty-checked
+    String PRODUCT_ROW = """
+        SELECT new com.revcart.dto.projection.ProductRow(
+            p.id, p.name, p.description, p.price, p.discount, p.imageUrl, p.active, p.sku, p.brand,
+            c.id, c.name, i.availableQuantity, p.createdAt)
+        FROM Product p LEFT JOIN p.category c LEFT JOIN p.inventory i
+    """;
+
+    @Query(value = PRODUCT_ROW + """
         WHERE (:keyword IS NULL OR lower(p.name) LIKE lower(concat('%', :keyword, '%')))
           AND p.active = true
+    """, countQuery = """
+        SELECT COUNT(p) FROM Product p
+        WHERE (:keyword IS NULL OR lower(p.name) LIKE lower(concat('%', :keyword, '%')))
+          AND p.active = true
+    """)
+    Page<ProductRow> searchActiveProducts(@Param("keyword") String keyword, Pageable pageable);
+
+    @Query(PRODUCT_ROW + "WHERE p.id IN :ids AND p.active = true")
+    List<ProductRow> findActiveRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(Product.WITH_DETAILS)
+    Optional<Product> findWithDetailsById(Long id);
+
+    @Query(PRODUCT_ROW + "WHERE p.active = true ORDER BY p.createdAt DESC, p.id DESC")
+    List<ProductRow> findActiveNewestFirst(Pageable pageable);
+
+    @Query(PRODUCT_ROW + """
+        WHERE p.active = true
+          AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id))
+        ORDER BY p.createdAt DESC, p.id DESC
+    """)
+    List<ProductRow> findActiveBefore(
+            @Param("createdAt") Instant createdAt, @Param("id") Long id, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = QueryHintValues.MYSQL_STREAMING_FETCH_SIZE))
+    @Query(PRODUCT_ROW + "ORDER BY p.id")
+    Stream<ProductRow> streamAllRows();
+
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category LEFT JOIN FETCH p.inventory WHERE p.active = true")
+    List<Product> findAllActiveWithDetails();
+
+    @EntityGraph(Product.WITH_DETAILS)
+    List<Product> findWithDetailsByIdIn(Collection<Long> ids);
+
+    @Query("SELECT p.id FROM Product p WHERE p.tag = :tag AND p.autoTagged = true")
+    List<Long> findIdsByAutoTag(@Param("tag") Product.ProductTag tag);
+
+    // Only untagged products are tagged automatically, so a manually assigned tag is never overwritten
+    @Modifying
+    @Query("""
+        UPDATE Product p SET p.tag = :tag, p.autoTagged = true
+        WHERE p.id IN :ids AND (p.tag IS NULL OR p.tag = com.revcart.entity.Product.ProductTag.NONE)
     """)
-    Page<Product> searchActiveProducts(@Param("keyword") String keyword, Pageable pageable);
+    int tagUntagged(@Param("ids") Collection<Long> ids, @Param("tag") Product.ProductTag tag);
 
-    List<Product> findTop12ByOrderByCreatedAtDesc();
+    // Tags set by hand are left alone
+    @Modifying
+    @Query("""
+        UPDATE Product p SET p.tag = NULL, p.autoTagged = false
+        WHERE p.id IN :ids AND p.tag = :tag AND p.autoTagged = true
+    """)
+    int clearAutoTag(@Param("ids") Collection<Long> ids, @Param("tag") Product.ProductTag tag);
 
     @Query("SELECT COUNT(p) FROM Product p WHERE p.category.id = :categoryId")
     long countByCategoryId(@Param("categoryId") Long categoryId);
-}
 
+    @Query("SELECT MAX(p.updatedAt) FROM Product p")
+    Instant findLatestUpdate();
+}
@@ -0,0 +1,6 @@
+package com.revcart.repository;
+
+public interface ProductSalesTotal {
+    Long getProductId();
+    Long getQuantity();
+}
@@ -0,0 +1,19 @@
+package com.revcart.repository;
+
+public final class QueryHintValues {
+
+    /**
+     * Fetch size that makes MySQL Connector/J stream a result set row by row instead of buffering it.
+     * The connection cannot run other statements until the stream is closed.
+     */
+    public static final String MYSQL_STREAMING_FETCH_SIZE = "-2147483648";
+
+    /**
+     * Lock timeout that Hibernate renders as {@code SKIP LOCKED}: rows locked by another transaction are
+     * left out of the result instead of waited for.
+     */
+    public static final String SKIP_LOCKED = "-2";
+
+    private QueryHintValues() {
+    }
+}
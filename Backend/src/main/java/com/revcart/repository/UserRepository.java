@@ -1,9 +1,13 @@
 package com.revcart.repository;
 
+import com.revcart.dto.projection.UserRow;
 import com.revcart.entity.User;
 import com.revcart.enums.UserRole;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -11,8 +15,24 @@ import org.springframework.data.repository.query.Param;
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+    long countByActiveTrue();
 
     @Query("SELECT u FROM User u WHERE u.role = :role AND u.active = true")
     List<User> findActiveByRole(@Param("role") UserRole role);
+
+    String USER_ROW = """
+        SELECT new com.revcart.dto.projection.UserRow(
+            u.id, u.fullName, u.email, u.phone, u.role, u.emailVerified, u.createdAt)
+        FROM User u
+    """;
+
+    @Query(value = USER_ROW, countQuery = "SELECT COUNT(u) FROM User u")
+    Page<UserRow> findAllRows(Pageable pageable);
+
+    @Query(USER_ROW + "ORDER BY u.createdAt DESC, u.id DESC")
+    List<UserRow> findRowsNewestFirst(Pageable pageable);
+
+    @Query(USER_ROW + "WHERE u.createdAt < :createdAt OR (u.createdAt = :createdAt AND u.id < :id) ORDER BY u.createdAt DESC, u.id DESC")
+    List<UserRow> findRowsBefore(@Param("createdAt") Instant createdAt, @Param("id") Long id, Pageable pageable);
 }
 
@@ -0,0 +1,9 @@
+package com.revcart.service;
+
+import com.revcart.dto.CheckoutStatusDto;
+import com.revcart.dto.request.CheckoutRequest;
+
+public interface AsyncCheckoutService {
+    CheckoutStatusDto submit(CheckoutRequest request);
+    CheckoutStatusDto status(String checkoutId);
+}
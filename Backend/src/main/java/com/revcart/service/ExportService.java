@@ -0,0 +1,11 @@
+package com.revcart.service;
+
+import com.revcart.catalog.feed.FeedFormat;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+
+public interface ExportService {
+    void exportProducts(FeedFormat format, OutputStream out) throws IOException;
+    void exportOrders(FeedFormat format, Instant from, Instant to, OutputStream out) throws IOException;
+}
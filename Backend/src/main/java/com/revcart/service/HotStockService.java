@@ -0,0 +1,6 @@
+package com.revcart.service;
+
+public interface HotStockService {
+    void enable(Long productId, int shards);
+    void disable(Long productId);
+}
@@ -11,8 +11,11 @@ import org.springframework.data.domain.Pageable;
 
 public interface OrderService {
     OrderDto checkout(CheckoutRequest request);
+    Long validateCheckout(CheckoutRequest request);
+    OrderDto placeOrder(Long userId, CheckoutRequest request);
     PagedResponse<OrderDto> myOrders(Pageable pageable);
     PagedResponse<OrderDto> allOrders(Pageable pageable);
+    PagedResponse<OrderDto> allOrdersAfter(String cursor, int size);
     OrderDto getOrder(Long orderId);
     OrderDto updateStatus(Long orderId, OrderStatusUpdateRequest request);
     OrderDto assignDeliveryAgent(Long orderId, Long agentId);
@@ -22,5 +25,7 @@ public interface OrderService {
     List<OrderDto> getAssignedOrders();
     List<OrderDto> getInTransitOrders();
     List<OrderDto> getPendingOrders();
+    void expireStockHolds();
+    void sweepExpiredStockHolds();
 }
 
@@ -0,0 +1,10 @@
+package com.revcart.service;
+
+import com.revcart.catalog.feed.FeedFormat;
+import com.revcart.dto.ProductImportStatusDto;
+import java.io.InputStream;
+
+public interface ProductImportService {
+    ProductImportStatusDto start(InputStream feed, FeedFormat format);
+    ProductImportStatusDto status(String jobId);
+}
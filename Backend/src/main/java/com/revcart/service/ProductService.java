@@ -1,9 +1,13 @@
 package com.revcart.service;
 
 import com.revcart.dto.PagedResponse;
+import com.revcart.dto.ProductBrowseResponse;
 import com.revcart.dto.ProductDto;
+import com.revcart.dto.SuggestionDto;
 import com.revcart.dto.request.ProductRequest;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.springframework.data.domain.Pageable;
 
 public interface ProductService {
@@ -12,6 +16,13 @@ public interface ProductService {
     void delete(Long id);
     ProductDto get(Long id);
     PagedResponse<ProductDto> list(String keyword, Pageable pageable);
+    PagedResponse<ProductDto> fuzzySearch(String keyword, Pageable pageable);
+    PagedResponse<ProductDto> listAfter(String cursor, int size);
+    ProductBrowseResponse browse(Map<String, Set<String>> facets, Pageable pageable);
+    List<SuggestionDto> suggest(String prefix, int limit);
     List<ProductDto> getFeatured();
+    List<ProductDto> getBestSellers(Long categoryId, int limit);
+    void refreshBestSellerTags();
+    void buildCatalogIndexes();
 }
 
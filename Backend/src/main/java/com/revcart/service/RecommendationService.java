@@ -0,0 +1,12 @@
+package com.revcart.service;
+
+import com.revcart.dto.ProductDto;
+import java.util.Collection;
+import java.util.List;
+
+public interface RecommendationService {
+    List<ProductDto> forProduct(Long productId, int limit);
+    List<ProductDto> forProducts(Collection<Long> productIds, int limit);
+    List<ProductDto> forMyCart(int limit);
+    void startBackfill();
+}
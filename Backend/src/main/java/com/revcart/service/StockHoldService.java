@@ -0,0 +1,20 @@
+package com.revcart.service;
+
+import com.revcart.entity.Order;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface StockHoldService {
+    Instant hold(Map<Long, Integer> quantities);
+    void track(Long orderId, Instant expiresAt);
+    /**
+     * Turns the order's held stock into sold stock. If the hold expired and the order was cancelled
+     * for want of payment, the stock is taken again and the order reinstated; returns false when it is
+     * no longer available.
+     */
+    boolean commit(Order order);
+    Map<Long, Integer> release(Collection<Order> orders);
+    List<Long> pollExpired();
+}
@@ -19,6 +19,7 @@ public interface UserService {
     UserDto updateProfile(ProfileUpdateRequest request);
     void changePassword(com.revcart.dto.request.ChangePasswordRequest request);
     PagedResponse<UserDto> listAllUsers(Pageable pageable);
+    PagedResponse<UserDto> listAllUsersAfter(String cursor, int size);
     UserDto getUserById(Long id);
     UserDto updateUserRole(Long id, String role);
     UserDto updateUserStatus(Long id, boolean active);
@@ -0,0 +1,201 @@
+package com.revcart.service.impl;
+
+import com.revcart.dto.CheckoutStatusDto;
+import com.revcart.dto.OrderDto;
+import com.revcart.dto.projection.StockShortage;
+import com.revcart.dto.request.CheckoutRequest;
+import com.revcart.exception.BadRequestException;
+import com.revcart.exception.InsufficientStockException;
+import com.revcart.exception.ResourceNotFoundException;
+import com.revcart.service.AsyncCheckoutService;
+import com.revcart.service.NotificationService;
+import com.revcart.service.OrderService;
+import java.io.Serializable;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+/**
+ * Checkout off the request thread. The request only validates the cart and queues a job; a checkout
+ * worker then places the order in its own transaction and the final job state is pushed on the
+ * customer's order topic. Clients can also poll the job. With the shared cache tier enabled job state
+ * is kept in Redis, so a poll that lands on another node than the one running the job still finds it.
+ */
+@Service
+public class AsyncCheckoutServiceImpl implements AsyncCheckoutService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncCheckoutServiceImpl.class);
+    private static final Duration JOB_RETENTION = Duration.ofHours(1);
+    private static final String KEY_PREFIX = "revcart:checkout:";
+
+    private final OrderService orderService;
+    private final NotificationService notificationService;
+    private final ThreadPoolTaskExecutor checkoutExecutor;
+    private final RedisTemplate<String, Object> redisTemplate;
+    // Used only without Redis
+    private final Map<String, CheckoutJob> jobs = new ConcurrentHashMap<>();
+
+    public AsyncCheckoutServiceImpl(
+            OrderService orderService,
+            NotificationService notificationService,
+            @Qualifier("checkoutExecutor") ThreadPoolTaskExecutor checkoutExecutor,
+            ObjectProvider<RedisTemplate<String, Object>> redisTemplate) {
+        this.orderService = orderService;
+        this.notificationService = notificationService;
+        this.checkoutExecutor = checkoutExecutor;
+        this.redisTemplate = redisTemplate.getIfAvailable();
+    }
+
+    @Override
+    public CheckoutStatusDto submit(CheckoutRequest request) {
+        evictExpiredJobs();
+        Long userId = orderService.validateCheckout(request);
+        CheckoutJob job = new CheckoutJob(UUID.randomUUID().toString(), userId, currentUserName());
+        save(job);
+        try {
+            checkoutExecutor.execute(() -> run(job, request));
+        } catch (TaskRejectedException ex) {
+            forget(job);
+            throw new BadRequestException("Too many checkouts in progress, try again shortly");
+        }
+        return job.toDto();
+    }
+
+    @Override
+    public CheckoutStatusDto status(String checkoutId) {
+        StoredJob job = find(checkoutId);
+        if (job == null || !Objects.equals(job.owner(), currentUserName())) {
+            throw new ResourceNotFoundException("Checkout not found");
+        }
+        return job.status();
+    }
+
+    private void run(CheckoutJob job, CheckoutRequest request) {
+        job.status = "RUNNING";
+        store(job);
+        OrderDto order;
+        try {
+            order = orderService.placeOrder(job.userId, request);
+        } catch (InsufficientStockException ex) {
+            job.shortages = ex.getShortages();
+            fail(job, ex.getMessage());
+            return;
+        } catch (BadRequestException | ResourceNotFoundException ex) {
+            fail(job, ex.getMessage());
+            return;
+        } catch (RuntimeException ex) {
+            logger.error("Checkout {} failed", job.id, ex);
+            fail(job, "Checkout failed, please try again");
+            return;
+        }
+        job.order = order;
+        job.status = "COMPLETED";
+        job.finishedAt = Instant.now();
+        push(job);
+    }
+
+    private void fail(CheckoutJob job, String message) {
+        job.message = message;
+        job.status = "FAILED";
+        job.finishedAt = Instant.now();
+        push(job);
+    }
+
+    private void push(CheckoutJob job) {
+        store(job);
+        try {
+            notificationService.pushCheckoutStatus(job.userId, job.toDto());
+        } catch (RuntimeException ex) {
+            // The job can still be polled
+            logger.warn("Could not push the status of checkout {}", job.id, ex);
+        }
+    }
+
+    private void save(CheckoutJob job) {
+        if (redisTemplate == null) {
+            jobs.put(job.id, job);
+        } else {
+            redisTemplate.opsForValue().set(KEY_PREFIX + job.id, new StoredJob(job.owner, job.toDto()), JOB_RETENTION);
+        }
+    }
+
+    // Progress updates from the worker; the final state is pushed to the customer as well
+    private void store(CheckoutJob job) {
+        try {
+            save(job);
+        } catch (RuntimeException ex) {
+            logger.warn("Could not store the status of checkout {}", job.id, ex);
+        }
+    }
+
+    private void forget(CheckoutJob job) {
+        if (redisTemplate == null) {
+            jobs.remove(job.id);
+        } else {
+            redisTemplate.delete(KEY_PREFIX + job.id);
+        }
+    }
+
+    private StoredJob find(String checkoutId) {
+        if (redisTemplate == null) {
+            CheckoutJob job = jobs.get(checkoutId);
+            return job != null ? new StoredJob(job.owner, job.toDto()) : null;
+        }
+        return redisTemplate.opsForValue().get(KEY_PREFIX + checkoutId) instanceof StoredJob job ? job : null;
+    }
+
+    private static String currentUserName() {
+        return SecurityContextHolder.getContext().getAuthentication().getName();
+    }
+
+    private void evictExpiredJobs() {
+        Instant cutoff = Instant.now().minus(JOB_RETENTION);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    private record StoredJob(String owner, CheckoutStatusDto status) implements Serializable {
+    }
+
+    private static final class CheckoutJob {
+        private final String id;
+        private final Long userId;
+        private final String owner;
+        private final Instant submittedAt = Instant.now();
+        private volatile String status = "QUEUED";
+        private volatile OrderDto order;
+        private volatile String message;
+        private volatile List<StockShortage> shortages;
+        private volatile Instant finishedAt;
+
+        private CheckoutJob(String id, Long userId, String owner) {
+            this.id = id;
+            this.userId = userId;
+            this.owner = owner;
+        }
+
+        private CheckoutStatusDto toDto() {
+            return CheckoutStatusDto.builder()
+                    .checkoutId(id)
+                    .status(status)
+                    .order(order)
+                    .message(message)
+                    .shortages(shortages)
+                    .submittedAt(submittedAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+}
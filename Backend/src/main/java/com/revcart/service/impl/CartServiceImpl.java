@@ -1,5 +1,6 @@
 package com.revcart.service.impl;
 
+import com.revcart.concurrency.RetryOnConflict;
 import com.revcart.dto.CartDto;
 import com.revcart.dto.request.CartItemRequest;
 import com.revcart.entity.Cart;
@@ -14,31 +15,35 @@ import com.revcart.repository.ProductRepository;
 import com.revcart.repository.UserRepository;
 import com.revcart.service.CartService;
 import java.math.BigDecimal;
-import org.hibernate.exception.LockAcquisitionException;
-import org.springframework.dao.CannotAcquireLockException;
-import org.springframework.orm.jpa.JpaSystemException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 @Transactional(isolation = Isolation.READ_COMMITTED)
 public class CartServiceImpl implements CartService {
 
-    private static final int MAX_RETRY_ATTEMPTS = 3;
-    private static final long RETRY_DELAY_MS = 100;
-
     private final CartRepository cartRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final TransactionTemplate cartCreation;
 
     public CartServiceImpl(
-            CartRepository cartRepository, ProductRepository productRepository, UserRepository userRepository) {
+            CartRepository cartRepository,
+            ProductRepository productRepository,
+            UserRepository userRepository,
+            PlatformTransactionManager transactionManager) {
         this.cartRepository = cartRepository;
         this.productRepository = productRepository;
         this.userRepository = userRepository;
+        this.cartCreation = new TransactionTemplate(transactionManager);
+        this.cartCreation.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
     }
 
     @Override
@@ -48,67 +53,63 @@ public class CartServiceImpl implements CartService {
     }
 
     @Override
+    @RetryOnConflict
     public CartDto addItem(CartItemRequest request) {
-        return executeWithRetry(() -> {
-            Cart cart = getOrCreateCartWithLock(getCurrentUser());
-            Product product = productRepository.findById(request.getProductId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
-            if (!product.isActive()) {
-                throw new BadRequestException("Product inactive");
-            }
-            CartItem item = cart.getItems().stream()
-                    .filter(ci -> ci.getProduct().getId().equals(product.getId()))
-                    .findFirst()
-                    .orElseGet(() -> {
-                        CartItem ci = new CartItem();
-                        ci.setProduct(product);
-                        ci.setCart(cart);
-                        ci.setQuantity(0);
-                        ci.setPrice(product.getPrice());
-                        cart.getItems().add(ci);
-                        return ci;
-                    });
-            item.setQuantity(item.getQuantity() + request.getQuantity());
-            updateCartTotal(cart);
-            cartRepository.save(cart);
-            return CartMapper.toDto(cart);
-        });
+        Cart cart = getOrCreateCartForWrite(getCurrentUser());
+        Product product = productRepository.findById(request.getProductId())
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
+        if (!product.isActive()) {
+            throw new BadRequestException("Product inactive");
+        }
+        CartItem item = cart.getItems().stream()
+                .filter(ci -> ci.getProduct().getId().equals(product.getId()))
+                .findFirst()
+                .orElseGet(() -> {
+                    CartItem ci = new CartItem();
+                    ci.setProduct(product);
+                    ci.setCart(cart);
+                    ci.setQuantity(0);
+                    ci.setPrice(product.getPrice());
+                    cart.getItems().add(ci);
+                    return ci;
+                });
+        item.setQuantity(item.getQuantity() + request.getQuantity());
+        updateCartTotal(cart);
+        cartRepository.save(cart);
+        return CartMapper.toDto(cart);
     }
 
     @Override
+    @RetryOnConflict
     public CartDto updateItem(CartItemRequest request) {
-        return executeWithRetry(() -> {
-            Cart cart = getOrCreateCartWithLock(getCurrentUser());
-            CartItem item = cart.getItems().stream()
-                    .filter(ci -> ci.getProduct().getId().equals(request.getProductId()))
-                    .findFirst()
-                    .orElseThrow(() -> new ResourceNotFoundException("Item not found in cart"));
-            item.setQuantity(request.getQuantity());
-            updateCartTotal(cart);
-            cartRepository.save(cart);
-            return CartMapper.toDto(cart);
-        });
+        Cart cart = getOrCreateCartForWrite(getCurrentUser());
+        CartItem item = cart.getItems().stream()
+                .filter(ci -> ci.getProduct().getId().equals(request.getProductId()))
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Item not found in cart"));
+        item.setQuantity(request.getQuantity());
+        updateCartTotal(cart);
+        cartRepository.save(cart);
+        return CartMapper.toDto(cart);
     }
 
     @Override
+    @RetryOnConflict
     public CartDto removeItem(Long productId) {
-        return executeWithRetry(() -> {
-            Cart cart = getOrCreateCartWithLock(getCurrentUser());
-            cart.getItems().removeIf(ci -> ci.getProduct().getId().equals(productId));
-            updateCartTotal(cart);
-            cartRepository.save(cart);
-            return CartMapper.toDto(cart);
-        });
+        Cart cart = getOrCreateCartForWrite(getCurrentUser());
+        cart.getItems().removeIf(ci -> ci.getProduct().getId().equals(productId));
+        updateCartTotal(cart);
+        cartRepository.save(cart);
+        return CartMapper.toDto(cart);
     }
 
     @Override
+    @RetryOnConflict
     public void clearCart() {
-        executeWithRetryVoid(() -> {
-            Cart cart = getOrCreateCartWithLock(getCurrentUser());
-            cart.getItems().clear();
-            cart.setTotalAmount(BigDecimal.ZERO);
-            cartRepository.save(cart);
-        });
+        Cart cart = getOrCreateCartForWrite(getCurrentUser());
+        cart.getItems().clear();
+        cart.setTotalAmount(BigDecimal.ZERO);
+        cartRepository.save(cart);
     }
 
     private void updateCartTotal(Cart cart) {
@@ -126,72 +127,27 @@ public class CartServiceImpl implements CartService {
         });
     }
 
-    private Cart getOrCreateCartWithLock(User user) {
-        // Try to get existing cart with lock first
-        return cartRepository.findByUserWithLock(user).orElseGet(() -> {
-            // If cart doesn't exist, create a new one
-            // Use a separate transaction to avoid deadlock on creation
-            try {
-                Cart cart = new Cart();
-                cart.setUser(user);
-                return cartRepository.save(cart);
-            } catch (Exception e) {
-                // If creation fails (e.g., cart was created by another thread), try to fetch it again
-                return cartRepository.findByUserWithLock(user)
-                        .orElseThrow(() -> new ResourceNotFoundException("Failed to create or retrieve cart"));
-            }
+    // Concurrent writers of the same cart conflict on its version and are retried by @RetryOnConflict
+    private Cart getOrCreateCartForWrite(User user) {
+        return cartRepository.findForWriteByUser(user).orElseGet(() -> {
+            createCart(user);
+            return cartRepository.findForWriteByUser(user)
+                    .orElseThrow(() -> new ResourceNotFoundException("Failed to create or retrieve cart"));
         });
     }
 
-    private <T> T executeWithRetry(java.util.function.Supplier<T> operation) {
-        int attempts = 0;
-        Exception lastException = null;
-
-        while (attempts < MAX_RETRY_ATTEMPTS) {
-            try {
-                return operation.get();
-            } catch (CannotAcquireLockException | LockAcquisitionException e) {
-                lastException = e;
-                attempts++;
-                if (attempts < MAX_RETRY_ATTEMPTS) {
-                    try {
-                        Thread.sleep(RETRY_DELAY_MS * attempts); // Exponential backoff
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        throw new RuntimeException("Retry interrupted", ie);
-                    }
-                }
-            } catch (JpaSystemException e) {
-                // Check if it's a deadlock exception
-                Throwable cause = e.getCause();
-                if (cause instanceof LockAcquisitionException ||
-                    cause instanceof CannotAcquireLockException ||
-                    (cause != null && cause.getMessage() != null &&
-                     cause.getMessage().contains("Deadlock"))) {
-                    lastException = e;
-                    attempts++;
-                    if (attempts < MAX_RETRY_ATTEMPTS) {
-                        try {
-                            Thread.sleep(RETRY_DELAY_MS * attempts);
-                        } catch (InterruptedException ie) {
-                            Thread.currentThread().interrupt();
-                            throw new RuntimeException("Retry interrupted", ie);
-                        }
-                    }
-                } else {
-                    throw e;
-                }
-            }
+    // Committed on its own so a concurrent first write losing the race on the unique user key leaves the
+    // caller's transaction usable; the loser then works on the winner's cart
+    private void createCart(User user) {
+        try {
+            cartCreation.executeWithoutResult(status -> {
+                Cart cart = new Cart();
+                cart.setUser(user);
+                cartRepository.saveAndFlush(cart);
+            });
+        } catch (DataIntegrityViolationException ex) {
+            // Created by the concurrent request
         }
-
-        throw new RuntimeException("Failed to acquire lock after " + MAX_RETRY_ATTEMPTS + " attempts", lastException);
-    }
-
-    private void executeWithRetryVoid(java.lang.Runnable operation) {
-        executeWithRetry(() -> {
-            operation.run();
-            return null;
-        });
     }
 
     private User getCurrentUser() {
@@ -1,5 +1,6 @@
 package com.revcart.service.impl;
 
+import com.revcart.cache.ProductCacheInvalidator;
 import com.revcart.dto.CategoryDto;
 import com.revcart.dto.request.CategoryRequest;
 import com.revcart.entity.Category;
@@ -11,18 +12,25 @@ import com.revcart.service.CategoryService;
 import java.util.List;
 import java.util.stream.Collectors;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final ProductRepository productRepository;
+    private final ProductCacheInvalidator productCacheInvalidator;
 
-    public CategoryServiceImpl(CategoryRepository categoryRepository, ProductRepository productRepository) {
+    public CategoryServiceImpl(
+            CategoryRepository categoryRepository,
+            ProductRepository productRepository,
+            ProductCacheInvalidator productCacheInvalidator) {
         this.categoryRepository = categoryRepository;
         this.productRepository = productRepository;
+        this.productCacheInvalidator = productCacheInvalidator;
     }
 
+    // Served from the primary: the listing is cached under the catalog version ETag
     @Override
     public List<CategoryDto> list() {
         return categoryRepository.findAll().stream()
@@ -34,7 +42,9 @@ public class CategoryServiceImpl implements CategoryService {
     public CategoryDto create(CategoryRequest request) {
         Category category = new Category();
         map(category, request);
-        return map(categoryRepository.save(category));
+        CategoryDto saved = map(categoryRepository.save(category));
+        productCacheInvalidator.catalogChanged();
+        return saved;
     }
 
     @Override
@@ -42,7 +52,10 @@ public class CategoryServiceImpl implements CategoryService {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found"));
         map(category, request);
-        return map(categoryRepository.save(category));
+        CategoryDto saved = map(categoryRepository.save(category));
+        // Category names are embedded in cached product listings
+        productCacheInvalidator.catalogChanged();
+        return saved;
     }
 
     @Override
@@ -59,9 +72,11 @@ public class CategoryServiceImpl implements CategoryService {
         }
 
         categoryRepository.delete(category);
+        productCacheInvalidator.catalogChanged();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public CategoryDto getById(Long id) {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found"));
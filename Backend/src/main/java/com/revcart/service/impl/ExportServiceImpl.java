@@ -0,0 +1,62 @@
+package com.revcart.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revcart.catalog.feed.FeedFormat;
+import com.revcart.catalog.feed.FeedWriter;
+import com.revcart.dto.projection.OrderRow;
+import com.revcart.dto.projection.ProductRow;
+import com.revcart.repository.OrderRepository;
+import com.revcart.repository.ProductRepository;
+import com.revcart.service.ExportService;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Full exports streamed from a forward-only cursor straight to the response, one projected row at a
+ * time, so memory use is the same for a hundred rows or a year of orders.
+ */
+@Service
+public class ExportServiceImpl implements ExportService {
+
+    private final ProductRepository productRepository;
+    private final OrderRepository orderRepository;
+    private final ObjectMapper objectMapper;
+
+    public ExportServiceImpl(
+            ProductRepository productRepository,
+            OrderRepository orderRepository,
+            ObjectMapper objectMapper) {
+        this.productRepository = productRepository;
+        this.orderRepository = orderRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportProducts(FeedFormat format, OutputStream out) throws IOException {
+        try (Stream<ProductRow> rows = productRepository.streamAllRows()) {
+            write(rows, new FeedWriter<>(out, format, ProductRow.class, objectMapper));
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportOrders(FeedFormat format, Instant from, Instant to, OutputStream out) throws IOException {
+        try (Stream<OrderRow> rows = orderRepository.streamRowsCreatedBetween(from, to)) {
+            write(rows, new FeedWriter<>(out, format, OrderRow.class, objectMapper));
+        }
+    }
+
+    private <T extends Record> void write(Stream<T> rows, FeedWriter<T> writer) throws IOException {
+        Iterator<T> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            writer.write(iterator.next());
+        }
+        writer.flush();
+    }
+}
@@ -0,0 +1,64 @@
+package com.revcart.service.impl;
+
+import com.revcart.cache.ProductCacheInvalidator;
+import com.revcart.exception.BadRequestException;
+import com.revcart.exception.ResourceNotFoundException;
+import com.revcart.repository.InventoryRepository;
+import com.revcart.service.HotStockService;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Hot products, such as the deal of the day, keep their stock in several shard counters so that
+ * checkouts spread their row locks instead of all queueing on one inventory row. The inventory row of
+ * a hot product is refreshed from its shards every tick, which is what product pages read.
+ */
+@Service
+@Transactional
+public class HotStockServiceImpl implements HotStockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotStockServiceImpl.class);
+
+    private final InventoryRepository inventoryRepository;
+    private final ProductCacheInvalidator productCacheInvalidator;
+    private final int maxShards;
+
+    public HotStockServiceImpl(
+            InventoryRepository inventoryRepository,
+            ProductCacheInvalidator productCacheInvalidator,
+            @Value("${revcart.inventory.hot.max-shards:64}") int maxShards) {
+        this.inventoryRepository = inventoryRepository;
+        this.productCacheInvalidator = productCacheInvalidator;
+        this.maxShards = maxShards;
+    }
+
+    @Override
+    public void enable(Long productId, int shards) {
+        if (shards < 2 || shards > maxShards) {
+            throw new BadRequestException("Shard count must be between 2 and " + maxShards);
+        }
+        if (!inventoryRepository.shardStock(productId, shards)) {
+            throw new ResourceNotFoundException("Inventory not found");
+        }
+        productCacheInvalidator.productsChanged(List.of(productId));
+        logger.info("Stock of product {} split over {} shards", productId, shards);
+    }
+
+    @Override
+    public void disable(Long productId) {
+        inventoryRepository.unshardStock(productId);
+        productCacheInvalidator.productsChanged(List.of(productId));
+        logger.info("Stock of product {} folded back into its inventory row", productId);
+    }
+
+    @Scheduled(fixedDelayString = "${revcart.inventory.hot.aggregate-ms:1000}")
+    public void refreshTotals() {
+        List<Long> changed = inventoryRepository.refreshShardTotals();
+        productCacheInvalidator.productsChanged(changed);
+    }
+}
@@ -1,6 +1,7 @@
 package com.revcart.service.impl;
 
 import com.revcart.document.NotificationDocument;
+import com.revcart.dto.CheckoutStatusDto;
 import com.revcart.dto.NotificationDto;
 import com.revcart.enums.NotificationType;
 import com.revcart.mapper.NotificationMapper;
@@ -56,6 +57,12 @@ public class NotificationServiceImpl implements NotificationService {
         System.out.println("✅ Payment notification sent successfully");
     }
 
+    // Transient progress of an asynchronous checkout; not stored as a notification
+    @Override
+    public void pushCheckoutStatus(Long userId, CheckoutStatusDto status) {
+        messagingTemplate.convertAndSend("/topic/orders/" + userId, status);
+    }
+
     @Override
     public List<NotificationDto> getNotifications() {
         Long userId = getCurrentUserId();
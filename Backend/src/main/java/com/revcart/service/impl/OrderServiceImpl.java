@@ -1,48 +1,64 @@
 package com.revcart.service.impl;
 
-import com.revcart.document.DeliveryTrackingLog;
+import com.revcart.cache.ProductCacheInvalidator;
+import com.revcart.catalog.CatalogIndexer;
+import com.revcart.concurrency.RetryOnConflict;
 import com.revcart.dto.OrderDto;
+import com.revcart.dto.PageCursor;
 import com.revcart.dto.PagedResponse;
+import com.revcart.dto.projection.AddressRow;
+import com.revcart.dto.projection.OrderItemRow;
+import com.revcart.dto.projection.OrderRow;
+import com.revcart.dto.projection.StockShortage;
 import com.revcart.dto.request.CheckoutRequest;
 import com.revcart.dto.request.OrderStatusUpdateRequest;
 import com.revcart.entity.Address;
 import com.revcart.entity.Cart;
 import com.revcart.entity.CartItem;
-import com.revcart.entity.Inventory;
 import com.revcart.entity.Order;
 import com.revcart.entity.OrderItem;
 import com.revcart.entity.Payment;
-import com.revcart.entity.Product;
 import com.revcart.entity.User;
 import com.revcart.enums.OrderStatus;
+import com.revcart.enums.PaymentMethod;
 import com.revcart.enums.PaymentStatus;
 import com.revcart.enums.UserRole;
 import com.revcart.exception.BadRequestException;
+import com.revcart.exception.InsufficientStockException;
 import com.revcart.exception.ResourceNotFoundException;
 import com.revcart.mapper.OrderMapper;
+import com.revcart.monitoring.StageTimer;
+import com.revcart.monitoring.TimedStages;
+import com.revcart.outbox.OrderOutbox;
 import com.revcart.repository.AddressRepository;
 import com.revcart.repository.CartRepository;
 import com.revcart.repository.InventoryRepository;
+import com.revcart.repository.OrderItemRepository;
 import com.revcart.repository.OrderRepository;
 import com.revcart.repository.PaymentRepository;
-import com.revcart.repository.ProductRepository;
 import com.revcart.repository.UserRepository;
-import com.revcart.repository.mongo.DeliveryTrackingLogRepository;
-import com.revcart.service.NotificationService;
 import com.revcart.service.OrderService;
 import com.revcart.service.PaymentService;
+import com.revcart.service.StockHoldService;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -56,46 +72,93 @@ public class OrderServiceImpl implements OrderService {
 
     private final OrderRepository orderRepository;
     private final CartRepository cartRepository;
-    private final ProductRepository productRepository;
     private final UserRepository userRepository;
     private final PaymentRepository paymentRepository;
     private final AddressRepository addressRepository;
+    private final OrderItemRepository orderItemRepository;
     private final InventoryRepository inventoryRepository;
-    private final NotificationService notificationService;
-    private final DeliveryTrackingLogRepository deliveryTrackingLogRepository;
+    private final OrderOutbox orderOutbox;
     private final PaymentService paymentService;
+    private final ProductCacheInvalidator productCacheInvalidator;
+    private final CatalogIndexer catalogIndexer;
+    private final StockHoldService stockHoldService;
+    private final StageTimer stageTimer;
+    private final int holdSweepBatchSize;
 
     public OrderServiceImpl(
             OrderRepository orderRepository,
             CartRepository cartRepository,
-            ProductRepository productRepository,
             UserRepository userRepository,
             PaymentRepository paymentRepository,
             AddressRepository addressRepository,
+            OrderItemRepository orderItemRepository,
             InventoryRepository inventoryRepository,
-            NotificationService notificationService,
-            DeliveryTrackingLogRepository deliveryTrackingLogRepository,
-            PaymentService paymentService) {
+            OrderOutbox orderOutbox,
+            PaymentService paymentService,
+            ProductCacheInvalidator productCacheInvalidator,
+            CatalogIndexer catalogIndexer,
+            StockHoldService stockHoldService,
+            StageTimer stageTimer,
+            @Value("${revcart.inventory.hold-sweep-batch-size:500}") int holdSweepBatchSize) {
         this.orderRepository = orderRepository;
         this.cartRepository = cartRepository;
-        this.productRepository = productRepository;
         this.userRepository = userRepository;
         this.paymentRepository = paymentRepository;
         this.addressRepository = addressRepository;
+        this.orderItemRepository = orderItemRepository;
         this.inventoryRepository = inventoryRepository;
-        this.notificationService = notificationService;
-        this.deliveryTrackingLogRepository = deliveryTrackingLogRepository;
+        this.orderOutbox = orderOutbox;
         this.paymentService = paymentService;
+        this.productCacheInvalidator = productCacheInvalidator;
+        this.catalogIndexer = catalogIndexer;
+        this.stockHoldService = stockHoldService;
+        this.stageTimer = stageTimer;
+        this.holdSweepBatchSize = holdSweepBatchSize;
     }
 
     @Override
-    @CacheEvict(value = "products", allEntries = true)
+    @RetryOnConflict
+    @TimedStages("checkout")
     public OrderDto checkout(CheckoutRequest request) {
         logger.info("Starting checkout process");
+        stageTimer.stage("user_fetch");
         User user = getCurrentUser();
+        Order saved = placeOrder(user, request);
+        logger.info("Checkout completed successfully for order ID: {}", saved.getId());
+        return OrderMapper.toDto(saved);
+    }
+
+    @Override
+    public Long validateCheckout(CheckoutRequest request) {
+        User user = getCurrentUser();
+        if (!addressRepository.existsById(request.getAddressId())) {
+            throw new ResourceNotFoundException("Address not found");
+        }
+        Cart cart = cartRepository.findByUser(user)
+                .orElseThrow(() -> new BadRequestException("Cart not found"));
+        if (cart.getItems().isEmpty()) {
+            throw new BadRequestException("Cart empty");
+        }
+        return user.getId();
+    }
+
+    @Override
+    @RetryOnConflict
+    @TimedStages("checkout")
+    public OrderDto placeOrder(Long userId, CheckoutRequest request) {
+        stageTimer.stage("user_fetch");
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        return OrderMapper.toDto(placeOrder(user, request));
+    }
+
+    private Order placeOrder(User user, CheckoutRequest request) {
         logger.debug("Checkout for user ID: {}", user.getId());
+        stageTimer.paymentMethod(request.getPaymentMethod());
+        stageTimer.stage("address_fetch");
         Address address = addressRepository.findById(request.getAddressId())
                 .orElseThrow(() -> new ResourceNotFoundException("Address not found"));
+        stageTimer.stage("cart_fetch");
         Cart cart = cartRepository.findByUser(user)
                 .orElseThrow(() -> new BadRequestException("Cart not found"));
         if (cart.getItems().isEmpty()) {
@@ -114,6 +177,7 @@ public class OrderServiceImpl implements OrderService {
             order.setPaymentStatus(PaymentStatus.PENDING);
         }
         BigDecimal total = BigDecimal.ZERO;
+        Map<Long, Integer> stockDeltas = new HashMap<>();
         for (CartItem cartItem : cart.getItems()) {
             logger.debug("Processing cart item - Product ID: {}, Quantity: {}", cartItem.getProduct().getId(),
                     cartItem.getQuantity());
@@ -125,53 +189,103 @@ public class OrderServiceImpl implements OrderService {
             item.setSubtotal(cartItem.getPrice().multiply(BigDecimal.valueOf(cartItem.getQuantity())));
             order.getItems().add(item);
             total = total.add(item.getSubtotal());
-            reserveInventory(cartItem.getProduct(), cartItem.getQuantity());
-            logger.debug("Successfully reserved inventory for product ID: {}", cartItem.getProduct().getId());
+            stockDeltas.merge(cartItem.getProduct().getId(), -cartItem.getQuantity(), Integer::sum);
+        }
+        stageTimer.stage("reserve_inventory");
+        if (isCashOnDelivery(request)) {
+            List<StockShortage> shortages = inventoryRepository.reserveAll(negate(stockDeltas));
+            if (!shortages.isEmpty()) {
+                logger.warn("Checkout rejected, short lines: {}", shortages);
+                throw new InsufficientStockException(shortages);
+            }
+        } else {
+            // Online payments only hold the stock until the payment is verified or the hold expires
+            order.setHoldExpiresAt(stockHoldService.hold(negate(stockDeltas)));
         }
         logger.info("All inventory reservations completed");
+        stageTimer.stage("catalog_update");
+        productCacheInvalidator.productsChanged(stockDeltas.keySet());
+        catalogIndexer.stockAdjusted(stockDeltas);
+        catalogIndexer.salesRecorded(negate(stockDeltas), Instant.now());
+        stageTimer.stage("order_insert");
         order.setTotalAmount(total);
         Order saved = orderRepository.save(order);
         logger.info("Order created successfully with ID: {}", saved.getId());
-        createTrackingLog(saved, OrderStatus.PLACED, "Order placed");
+        if (saved.getHoldExpiresAt() != null) {
+            stockHoldService.track(saved.getId(), saved.getHoldExpiresAt());
+        }
+        catalogIndexer.basketRecorded(saved.getId(), stockDeltas.keySet(), 1);
+        stageTimer.stage("cart_clear");
         cart.getItems().clear();
         cartRepository.save(cart);
         logger.debug("Cart cleared and saved");
+        stageTimer.stage("payment_init");
         paymentService.initiatePayment(saved.getId());
         logger.debug("Payment initiated for order ID: {}", saved.getId());
-        
+        stageTimer.stage("tracking_log");
+        orderOutbox.trackingLog(saved.getId(), OrderStatus.PLACED, "Order placed");
+        stageTimer.stage("notification");
         // Only send notification for COD orders, Razorpay orders will notify after payment
-        if (request.getPaymentMethod() != null && request.getPaymentMethod().toString().equals("COD")) {
-            notificationService.pushOrderUpdate(user.getId(), "Order #" + saved.getId() + " placed successfully");
+        if (isCashOnDelivery(request)) {
+            orderOutbox.orderUpdate(saved.getId(), user.getId(), "Order #" + saved.getId() + " placed successfully");
         }
-        
-        logger.info("Checkout completed successfully for order ID: {}", saved.getId());
-        return OrderMapper.toDto(saved);
+        return saved;
+    }
+
+    private static boolean isCashOnDelivery(CheckoutRequest request) {
+        return request.getPaymentMethod() != null && request.getPaymentMethod().toString().equals("COD");
+    }
+
+    private static PaymentMethod paymentMethodOf(Order order) {
+        return order.getPayment() != null ? order.getPayment().getMethod() : null;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public PagedResponse<OrderDto> myOrders(Pageable pageable) {
         User user = getCurrentUser();
-        Page<Order> page = orderRepository.findByUser(user, pageable);
+        Page<OrderRow> page = orderRepository.findRowsByUser(user, pageable);
         return mapPage(page);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public PagedResponse<OrderDto> allOrders(Pageable pageable) {
-        Page<Order> page = orderRepository.findAll(pageable);
+        Page<OrderRow> page = orderRepository.findAllRows(pageable);
         return mapPage(page);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public PagedResponse<OrderDto> allOrdersAfter(String cursor, int size) {
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<OrderRow> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = orderRepository.findRowsNewestFirst(limit);
+        } else {
+            PageCursor position = PageCursor.decode(cursor);
+            rows = orderRepository.findRowsBefore(position.createdAt(), position.id(), limit);
+        }
+        return PagedResponse.ofSeek(rows, size, rowMapper(rows),
+                row -> new PageCursor(row.createdAt(), row.id()));
+    }
+
+    // Served from the primary: clients open the order right after checkout, before a replica may have it
     @Override
     public OrderDto getOrder(Long orderId) {
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findWithDetailsById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
         return OrderMapper.toDto(order);
     }
 
     @Override
+    @RetryOnConflict
+    @TimedStages("update_status")
     public OrderDto updateStatus(Long orderId, OrderStatusUpdateRequest request) {
-        Order order = orderRepository.findById(orderId)
+        stageTimer.stage("order_fetch");
+        Order order = orderRepository.findWithDetailsById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+        stageTimer.paymentMethod(paymentMethodOf(order));
         order.setStatus(request.getStatus());
         if (request.getStatus() == OrderStatus.DELIVERED) {
             order.setPaymentStatus(PaymentStatus.SUCCESS);
@@ -180,48 +294,67 @@ public class OrderServiceImpl implements OrderService {
 
         // Auto-assign delivery agent when order status changes to PACKED
         if (request.getStatus() == OrderStatus.PACKED && order.getDeliveryAgent() == null) {
+            stageTimer.stage("agent_assign");
             User assignedAgent = findBestAvailableAgent();
             if (assignedAgent != null) {
                 order.setDeliveryAgent(assignedAgent);
-                notificationService.pushOrderUpdate(
+                orderOutbox.orderUpdate(
+                        order.getId(),
                         order.getUser().getId(),
                         "Delivery agent " + assignedAgent.getFullName() + " assigned to order #" + order.getId());
             }
         }
 
-        createTrackingLog(order, request.getStatus(), request.getNote());
-        notificationService.pushOrderUpdate(order.getUser().getId(),
+        stageTimer.stage("tracking_log");
+        orderOutbox.trackingLog(order.getId(), request.getStatus(), request.getNote());
+        stageTimer.stage("notification");
+        orderOutbox.orderUpdate(order.getId(), order.getUser().getId(),
                 "Order #" + order.getId() + " status updated to " + request.getStatus());
+        stageTimer.stage("order_update");
         return OrderMapper.toDto(orderRepository.save(order));
     }
 
     @Override
+    @RetryOnConflict
     public OrderDto assignDeliveryAgent(Long orderId, Long agentId) {
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findWithDetailsById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
         User agent = userRepository.findById(agentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Agent not found"));
         order.setDeliveryAgent(agent);
-        notificationService.pushOrderUpdate(
-                order.getUser().getId(), "Delivery agent assigned for order #" + order.getId());
+        orderOutbox.orderUpdate(
+                order.getId(), order.getUser().getId(), "Delivery agent assigned for order #" + order.getId());
         return OrderMapper.toDto(orderRepository.save(order));
     }
 
     @Override
+    @RetryOnConflict
+    @TimedStages("cancel_order")
     public OrderDto cancelOrder(Long orderId, String reason) {
-        Order order = orderRepository.findById(orderId)
+        stageTimer.stage("order_lock");
+        Order order = orderRepository.findForUpdateById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+        stageTimer.paymentMethod(paymentMethodOf(order));
+        if (order.getStatus() == OrderStatus.CANCELLED) {
+            throw new BadRequestException("Order already cancelled");
+        }
         order.setStatus(OrderStatus.CANCELLED);
         order.setPaymentStatus(PaymentStatus.REFUNDED);
+        order.setCancelledAt(Instant.now());
+        stageTimer.stage("order_update");
         orderRepository.save(order);
+        stageTimer.stage("restock");
         restockInventory(order);
+        stageTimer.stage("refund");
         paymentService.handleRefund(orderId);
-        notificationService.pushOrderUpdate(
-                order.getUser().getId(), "Order #" + orderId + " cancelled. Reason: " + reason);
+        stageTimer.stage("notification");
+        orderOutbox.orderUpdate(
+                orderId, order.getUser().getId(), "Order #" + orderId + " cancelled. Reason: " + reason);
         return OrderMapper.toDto(order);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public PagedResponse<OrderDto> deliveryOrders(OrderStatus status, Pageable pageable) {
         User agent = getCurrentUser();
         List<Order> orders = orderRepository.findByDeliveryAgentAndStatus(agent, status);
@@ -244,6 +377,7 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Map<String, Object> getDeliveryStatistics() {
         User agent = getCurrentUser();
         long assigned = orderRepository.countAssignedOrders(agent);
@@ -265,6 +399,7 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<OrderDto> getAssignedOrders() {
         User agent = getCurrentUser();
         return orderRepository.findAssignedOrders(agent).stream()
@@ -273,6 +408,7 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<OrderDto> getInTransitOrders() {
         User agent = getCurrentUser();
         return orderRepository.findInTransitOrders(agent).stream()
@@ -281,49 +417,87 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<OrderDto> getPendingOrders() {
         return orderRepository.findPendingOrders().stream()
                 .map(OrderMapper::toDto)
                 .collect(Collectors.toList());
     }
 
-    private void reserveInventory(Product product, Integer qty) {
-        logger.debug("Attempting to reserve inventory for product ID: {} with quantity: {}", product.getId(), qty);
-
-        // Refresh product to ensure we have fresh data
-        Product refreshedProduct = productRepository.findById(product.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
+    @Override
+    @RetryOnConflict
+    @Scheduled(fixedDelayString = "${revcart.inventory.hold-tick-ms:1000}")
+    public void expireStockHolds() {
+        expireHolds(stockHoldService.pollExpired());
+    }
 
-        Inventory inventory = inventoryRepository.findByProduct(refreshedProduct)
-                .orElseThrow(() -> {
-                    logger.error("Inventory record not found for product ID: {}", refreshedProduct.getId());
-                    return new ResourceNotFoundException("Inventory missing");
-                });
+    // Safety net for holds the wheel does not know about, such as those placed by an instance that went down
+    @Override
+    @RetryOnConflict
+    @Scheduled(fixedDelayString = "${revcart.inventory.hold-sweep-ms:60000}")
+    public void sweepExpiredStockHolds() {
+        expireHolds(orderRepository.findIdsWithHoldExpiredBy(Instant.now(), PageRequest.of(0, holdSweepBatchSize)));
+    }
 
-        logger.debug("Current available quantity: {} for product ID: {}", inventory.getAvailableQuantity(),
-                refreshedProduct.getId());
+    private void expireHolds(List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        List<Order> orders = orderRepository.findHoldsExpiredForUpdate(orderIds, now);
+        if (orders.isEmpty()) {
+            return;
+        }
+        stockHoldService.release(orders);
+        for (Order order : orders) {
+            order.setStatus(OrderStatus.CANCELLED);
+            order.setPaymentStatus(PaymentStatus.FAILED);
+            order.setCancelledAt(now);
+            if (order.getPayment() != null) {
+                order.getPayment().setStatus(PaymentStatus.FAILED);
+            }
+            orderOutbox.trackingLog(order.getId(), OrderStatus.CANCELLED, "Payment not received in time");
+            orderOutbox.orderUpdate(order.getId(), order.getUser().getId(),
+                    "Order #" + order.getId() + " cancelled: payment was not completed in time");
+        }
+        stockRestored(orders);
+        logger.info("Released stock holds of {} unpaid orders", orders.size());
+    }
 
-        if (inventory.getAvailableQuantity() == null || inventory.getAvailableQuantity() < qty) {
-            int availableQty = inventory.getAvailableQuantity() != null ? inventory.getAvailableQuantity() : 0;
-            logger.warn("Insufficient stock for product ID: {}. Available: {}, Requested: {}",
-                    refreshedProduct.getId(), availableQty, qty);
-            throw new BadRequestException("Insufficient stock");
+    private void restockInventory(Order order) {
+        if (stockHoldService.release(List.of(order)).isEmpty()) {
+            if (!inventoryRepository.restockAll(quantities(order)).isEmpty()) {
+                throw new ResourceNotFoundException("Inventory missing");
+            }
         }
+        stockRestored(List.of(order));
+    }
 
-        int newQuantity = inventory.getAvailableQuantity() - qty;
-        inventory.setAvailableQuantity(newQuantity);
-        Inventory saved = inventoryRepository.save(inventory);
-        logger.info("Inventory reserved successfully for product ID: {}. Previous: {}, New available quantity: {}",
-                refreshedProduct.getId(), inventory.getAvailableQuantity() + qty, saved.getAvailableQuantity());
+    private void stockRestored(Collection<Order> orders) {
+        Map<Long, Integer> stockDeltas = new HashMap<>();
+        for (Order order : orders) {
+            Map<Long, Integer> quantities = quantities(order);
+            quantities.forEach((productId, quantity) -> stockDeltas.merge(productId, quantity, Integer::sum));
+            catalogIndexer.salesRecorded(negate(quantities),
+                    order.getCreatedAt() != null ? order.getCreatedAt() : Instant.now());
+            catalogIndexer.basketRecorded(order.getId(), quantities.keySet(), -1);
+        }
+        productCacheInvalidator.productsChanged(stockDeltas.keySet());
+        catalogIndexer.stockAdjusted(stockDeltas);
     }
 
-    private void restockInventory(Order order) {
+    private static Map<Long, Integer> quantities(Order order) {
+        Map<Long, Integer> quantities = new HashMap<>();
         for (OrderItem item : order.getItems()) {
-            Inventory inventory = inventoryRepository.findByProduct(item.getProduct())
-                    .orElseThrow(() -> new ResourceNotFoundException("Inventory missing"));
-            inventory.setAvailableQuantity(inventory.getAvailableQuantity() + item.getQuantity());
-            inventoryRepository.save(inventory);
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
         }
+        return quantities;
+    }
+
+    private static Map<Long, Integer> negate(Map<Long, Integer> deltas) {
+        Map<Long, Integer> negated = new HashMap<>();
+        deltas.forEach((productId, delta) -> negated.put(productId, -delta));
+        return negated;
     }
 
     private User getCurrentUser() {
@@ -332,17 +506,9 @@ public class OrderServiceImpl implements OrderService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
     }
 
-    private void createTrackingLog(Order order, OrderStatus status, String note) {
-        DeliveryTrackingLog log = new DeliveryTrackingLog();
-        log.setOrderId(order.getId());
-        log.setStatus(status);
-        log.setNote(note);
-        deliveryTrackingLogRepository.save(log);
-    }
-
-    private PagedResponse<OrderDto> mapPage(Page<Order> page) {
+    private PagedResponse<OrderDto> mapPage(Page<OrderRow> page) {
         List<OrderDto> content = page.getContent().stream()
-                .map(OrderMapper::toDto)
+                .map(rowMapper(page.getContent()))
                 .collect(Collectors.toList());
         return PagedResponse.<OrderDto>builder()
                 .content(content)
@@ -353,6 +519,26 @@ public class OrderServiceImpl implements OrderService {
                 .build();
     }
 
+    // Loads the items and customer addresses of a page of order rows with one query each
+    private Function<OrderRow, OrderDto> rowMapper(List<OrderRow> rows) {
+        if (rows.isEmpty()) {
+            return row -> OrderMapper.toDto(row, List.of(), List.of());
+        }
+        List<Long> orderIds = rows.stream().map(OrderRow::id).collect(Collectors.toList());
+        Set<Long> userIds = rows.stream()
+                .map(OrderRow::userId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, List<OrderItemRow>> items = orderItemRepository.findRowsByOrderIdIn(orderIds).stream()
+                .collect(Collectors.groupingBy(OrderItemRow::orderId));
+        Map<Long, List<AddressRow>> addresses = userIds.isEmpty()
+                ? new HashMap<>()
+                : addressRepository.findRowsByUserIdIn(userIds).stream()
+                        .collect(Collectors.groupingBy(AddressRow::userId));
+        return row -> OrderMapper.toDto(row, items.getOrDefault(row.id(), List.of()),
+                addresses.getOrDefault(row.userId(), List.of()));
+    }
+
     /**
      * Finds the best available delivery agent based on current workload.
      * Returns the agent with the least number of active orders (PACKED or
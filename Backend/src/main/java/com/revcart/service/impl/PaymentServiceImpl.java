@@ -3,20 +3,25 @@ package com.revcart.service.impl;
 import com.razorpay.RazorpayClient;
 import com.razorpay.RazorpayException;
 import com.razorpay.Utils;
+import com.revcart.concurrency.RetryOnConflict;
 import com.revcart.dto.OrderDto;
 import com.revcart.dto.PaymentDto;
 import com.revcart.dto.request.PaymentCaptureRequest;
 import com.revcart.entity.Order;
 import com.revcart.entity.Payment;
+import com.revcart.enums.OrderStatus;
 import com.revcart.enums.PaymentMethod;
 import com.revcart.enums.PaymentStatus;
 import com.revcart.exception.BadRequestException;
 import com.revcart.exception.ResourceNotFoundException;
 import com.revcart.mapper.OrderMapper;
+import com.revcart.monitoring.StageTimer;
+import com.revcart.monitoring.TimedStages;
+import com.revcart.outbox.OrderOutbox;
 import com.revcart.repository.OrderRepository;
 import com.revcart.repository.PaymentRepository;
-import com.revcart.service.NotificationService;
 import com.revcart.service.PaymentService;
+import com.revcart.service.StockHoldService;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.HashMap;
@@ -36,7 +41,9 @@ public class PaymentServiceImpl implements PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final OrderRepository orderRepository;
-    private final NotificationService notificationService;
+    private final OrderOutbox orderOutbox;
+    private final StockHoldService stockHoldService;
+    private final StageTimer stageTimer;
     private RazorpayClient razorpayClient;
 
     @Value("${razorpay.key-id:rzp_test_dummy}")
@@ -48,10 +55,14 @@ public class PaymentServiceImpl implements PaymentService {
     public PaymentServiceImpl(
             PaymentRepository paymentRepository,
             OrderRepository orderRepository,
-            NotificationService notificationService) {
+            OrderOutbox orderOutbox,
+            StockHoldService stockHoldService,
+            StageTimer stageTimer) {
         this.paymentRepository = paymentRepository;
         this.orderRepository = orderRepository;
-        this.notificationService = notificationService;
+        this.orderOutbox = orderOutbox;
+        this.stockHoldService = stockHoldService;
+        this.stageTimer = stageTimer;
     }
 
     private RazorpayClient getRazorpayClient() {
@@ -82,22 +93,34 @@ public class PaymentServiceImpl implements PaymentService {
     }
 
     @Override
+    @RetryOnConflict
     public PaymentDto capturePayment(PaymentCaptureRequest request) {
-        Order order = orderRepository.findById(request.getOrderId())
+        Order order = orderRepository.findForUpdateById(request.getOrderId())
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
         Payment payment = paymentRepository.findByOrder(order)
                 .orElseThrow(() -> new BadRequestException("Payment not initiated"));
+        boolean reinstating = order.getStatus() == OrderStatus.CANCELLED;
+        boolean filled = stockHoldService.commit(order);
         payment.setMethod(request.getMethod());
         payment.setProviderPaymentId(request.getProviderPaymentId());
         payment.setPaymentSignature(request.getSignature());
         payment.setStatus(PaymentStatus.SUCCESS);
         payment.setPaidAt(Instant.now());
+        Payment saved = paymentRepository.save(payment);
+        if (!filled) {
+            refundUnfilled(order);
+            return map(saved);
+        }
         order.setPaymentStatus(PaymentStatus.SUCCESS);
         orderRepository.save(order);
-        PaymentDto paymentDto = map(paymentRepository.save(payment));
+        PaymentDto paymentDto = map(saved);
+        if (reinstating) {
+            orderOutbox.trackingLog(order.getId(), OrderStatus.PLACED, "Reinstated on late payment");
+        }
 
         // Send payment confirmation notification
-        notificationService.pushPaymentConfirmation(
+        orderOutbox.paymentConfirmation(
+                order.getId(),
                 order.getUser().getId(),
                 "Payment of ₹" + payment.getAmount() + " confirmed for order #" + order.getId());
 
@@ -144,11 +167,16 @@ public class PaymentServiceImpl implements PaymentService {
     }
 
     @Override
+    @RetryOnConflict
+    @TimedStages("verify_payment")
     public OrderDto verifyRazorpayPayment(Long orderId, Map<String, String> paymentData) {
-        Order order = orderRepository.findById(orderId)
+        stageTimer.paymentMethod(PaymentMethod.RAZORPAY);
+        stageTimer.stage("order_lock");
+        Order order = orderRepository.findForUpdateById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
 
         try {
+            stageTimer.stage("signature_verify");
             JSONObject options = new JSONObject();
             options.put("razorpay_order_id", paymentData.get("razorpay_order_id"));
             options.put("razorpay_payment_id", paymentData.get("razorpay_payment_id"));
@@ -157,6 +185,10 @@ public class PaymentServiceImpl implements PaymentService {
             boolean isValid = Utils.verifyPaymentSignature(options, razorpayKeySecret);
 
             if (isValid) {
+                stageTimer.stage("hold_commit");
+                boolean reinstating = order.getStatus() == OrderStatus.CANCELLED;
+                boolean filled = stockHoldService.commit(order);
+                stageTimer.stage("payment_update");
                 Payment payment = paymentRepository.findByOrder(order).orElseGet(() -> {
                     Payment p = new Payment();
                     p.setOrder(order);
@@ -171,15 +203,26 @@ public class PaymentServiceImpl implements PaymentService {
                 payment.setStatus(PaymentStatus.SUCCESS);
                 payment.setPaidAt(Instant.now());
                 paymentRepository.save(payment);
+                if (!filled) {
+                    refundUnfilled(order);
+                    return OrderMapper.toDto(order);
+                }
 
+                stageTimer.stage("order_update");
                 order.setPaymentStatus(PaymentStatus.SUCCESS);
                 orderRepository.save(order);
+                if (reinstating) {
+                    orderOutbox.trackingLog(order.getId(), OrderStatus.PLACED, "Reinstated on late payment");
+                }
 
+                stageTimer.stage("notification");
                 // Send both order placed and payment confirmation notifications
-                notificationService.pushOrderUpdate(
+                orderOutbox.orderUpdate(
+                        order.getId(),
                         order.getUser().getId(),
                         "Order #" + order.getId() + " placed successfully");
-                notificationService.pushPaymentConfirmation(
+                orderOutbox.paymentConfirmation(
+                        order.getId(),
                         order.getUser().getId(),
                         "Payment of ₹" + payment.getAmount() + " confirmed for order #" + order.getId());
 
@@ -193,6 +236,17 @@ public class PaymentServiceImpl implements PaymentService {
         }
     }
 
+    // The payment went through after the order's stock hold expired and the stock was sold meanwhile
+    private void refundUnfilled(Order order) {
+        handleRefund(order.getId());
+        order.setPaymentStatus(PaymentStatus.REFUNDED);
+        orderRepository.save(order);
+        orderOutbox.orderUpdate(
+                order.getId(),
+                order.getUser().getId(),
+                "Payment for order #" + order.getId() + " arrived after the items sold out and will be refunded");
+    }
+
     private PaymentDto map(Payment payment) {
         return PaymentDto.builder()
                 .id(payment.getId())
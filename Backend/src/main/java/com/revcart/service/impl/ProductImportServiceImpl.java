@@ -0,0 +1,359 @@
+package com.revcart.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revcart.cache.ProductCacheInvalidator;
+import com.revcart.catalog.CatalogIndexer;
+import com.revcart.catalog.feed.FeedFormat;
+import com.revcart.catalog.feed.ProductFeedReader;
+import com.revcart.catalog.feed.ProductFeedRow;
+import com.revcart.dto.ProductImportStatusDto;
+import com.revcart.entity.Category;
+import com.revcart.exception.BadRequestException;
+import com.revcart.exception.ResourceNotFoundException;
+import com.revcart.repository.CategoryRepository;
+import com.revcart.repository.ProductBatchWriter;
+import com.revcart.service.ProductImportService;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Bulk catalog import. The request body is spooled to a temporary file and processed in the background:
+ * records are read and validated one at a time and valid ones are upserted in chunks through
+ * {@link ProductBatchWriter}, so neither the file nor the catalog is ever held in memory. The import runs
+ * on the node that received the feed; with the shared cache tier enabled its progress is kept in Redis,
+ * so a status poll landing on another node still finds the job.
+ */
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportServiceImpl.class);
+    private static final Duration JOB_RETENTION = Duration.ofHours(6);
+    private static final String KEY_PREFIX = "revcart:import:";
+
+    private final ProductBatchWriter batchWriter;
+    private final CategoryRepository categoryRepository;
+    private final CatalogIndexer catalogIndexer;
+    private final ProductCacheInvalidator productCacheInvalidator;
+    private final ThreadPoolTaskExecutor productImportExecutor;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxErrors;
+    private final RedisTemplate<String, Object> redisTemplate;
+    // Used only without Redis
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public ProductImportServiceImpl(
+            ProductBatchWriter batchWriter,
+            CategoryRepository categoryRepository,
+            CatalogIndexer catalogIndexer,
+            ProductCacheInvalidator productCacheInvalidator,
+            @Qualifier("productImportExecutor") ThreadPoolTaskExecutor productImportExecutor,
+            ObjectMapper objectMapper,
+            @Value("${revcart.import.chunk-size:1000}") int chunkSize,
+            @Value("${revcart.import.max-errors:100}") int maxErrors,
+            ObjectProvider<RedisTemplate<String, Object>> redisTemplate) {
+        this.batchWriter = batchWriter;
+        this.categoryRepository = categoryRepository;
+        this.catalogIndexer = catalogIndexer;
+        this.productCacheInvalidator = productCacheInvalidator;
+        this.productImportExecutor = productImportExecutor;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+        this.redisTemplate = redisTemplate.getIfAvailable();
+    }
+
+    @Override
+    public ProductImportStatusDto start(InputStream feed, FeedFormat format) {
+        evictExpiredJobs();
+        Path file;
+        try {
+            file = Files.createTempFile("revcart-import-", "." + format.name().toLowerCase(Locale.ROOT));
+            Files.copy(feed, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not store the uploaded feed", ex);
+        }
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), format);
+        save(job);
+        try {
+            productImportExecutor.execute(() -> run(job, file));
+        } catch (TaskRejectedException ex) {
+            forget(job);
+            deleteQuietly(file);
+            throw new BadRequestException("Too many imports in progress, try again later");
+        }
+        return job.toDto();
+    }
+
+    @Override
+    public ProductImportStatusDto status(String jobId) {
+        ProductImportStatusDto job = find(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Import job not found");
+        }
+        return job;
+    }
+
+    private void run(ImportJob job, Path file) {
+        job.status = "RUNNING";
+        job.startedAt = Instant.now();
+        store(job);
+        Map<String, Long> categories = loadCategories();
+        List<ProductFeedRow> chunk = new ArrayList<>(chunkSize);
+        Map<String, String> chunkSkus = new HashMap<>();
+        try (ProductFeedReader reader = new ProductFeedReader(file, job.format, objectMapper)) {
+            while (true) {
+                Map<String, String> record;
+                try {
+                    record = reader.next();
+                } catch (IllegalArgumentException ex) {
+                    job.rowsRead.incrementAndGet();
+                    job.reject(reader.lineNumber(), ex.getMessage(), maxErrors);
+                    continue;
+                }
+                if (record == null) {
+                    break;
+                }
+                job.rowsRead.incrementAndGet();
+                try {
+                    ProductFeedRow row = toRow(record, categories);
+                    checkSpelling(row.sku(), chunkSkus);
+                    chunk.add(row);
+                } catch (IllegalArgumentException ex) {
+                    job.reject(reader.lineNumber(), ex.getMessage(), maxErrors);
+                }
+                if (chunk.size() >= chunkSize) {
+                    flush(job, chunk);
+                    chunkSkus.clear();
+                }
+            }
+            flush(job, chunk);
+            job.status = "COMPLETED";
+        } catch (Exception ex) {
+            logger.error("Product import {} failed", job.id, ex);
+            job.status = "FAILED";
+            job.message = ex.getMessage();
+        } finally {
+            job.finishedAt = Instant.now();
+            store(job);
+            deleteQuietly(file);
+            if (job.rowsImported.get() > 0) {
+                productCacheInvalidator.catalogChanged();
+                // Every node re-reads the catalog: one message instead of one per imported product
+                catalogIndexer.catalogReloaded();
+            }
+            logger.info("Product import {} {}: {} read, {} imported, {} rejected", job.id, job.status,
+                    job.rowsRead.get(), job.rowsImported.get(), job.rowsRejected.get());
+        }
+    }
+
+    private void flush(ImportJob job, List<ProductFeedRow> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        batchWriter.upsert(chunk);
+        job.rowsImported.addAndGet(chunk.size());
+        chunk.clear();
+        store(job);
+    }
+
+    // "abc" and "ABC" are one product to the database, so one batch cannot carry both spellings
+    private static void checkSpelling(String sku, Map<String, String> chunkSkus) {
+        String earlier = chunkSkus.putIfAbsent(ProductBatchWriter.skuKey(sku), sku);
+        if (earlier != null && !earlier.equals(sku)) {
+            throw new IllegalArgumentException("SKU " + sku + " differs from SKU " + earlier
+                    + " only by case or accents");
+        }
+    }
+
+    private ProductFeedRow toRow(Map<String, String> record, Map<String, Long> categories) {
+        String sku = required(record, "sku");
+        String name = required(record, "name");
+        BigDecimal price = decimal(record, "price");
+        if (price == null || price.signum() < 0) {
+            throw new IllegalArgumentException("price must be a non-negative number");
+        }
+        BigDecimal discount = decimal(record, "discount");
+        Long categoryId = resolveCategory(record, categories);
+        int quantity = 0;
+        String quantityValue = record.get("quantity");
+        if (quantityValue != null) {
+            try {
+                quantity = Integer.parseInt(quantityValue.trim());
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("quantity must be a whole number");
+            }
+            if (quantity < 0) {
+                throw new IllegalArgumentException("quantity must not be negative");
+            }
+        }
+        String active = record.get("active");
+        return new ProductFeedRow(sku, name, record.get("description"), price, discount, record.get("imageurl"),
+                record.get("brand"), active == null || Boolean.parseBoolean(active.trim()), categoryId, quantity);
+    }
+
+    private Long resolveCategory(Map<String, String> record, Map<String, Long> categories) {
+        String id = record.get("categoryid");
+        if (id != null) {
+            try {
+                Long categoryId = Long.valueOf(id.trim());
+                if (categories.containsValue(categoryId)) {
+                    return categoryId;
+                }
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("categoryId must be a number");
+            }
+            throw new IllegalArgumentException("Unknown category id " + id);
+        }
+        String name = required(record, "category");
+        Long categoryId = categories.get(name.trim().toLowerCase(Locale.ROOT));
+        if (categoryId == null) {
+            throw new IllegalArgumentException("Unknown category " + name);
+        }
+        return categoryId;
+    }
+
+    private Map<String, Long> loadCategories() {
+        Map<String, Long> categories = new HashMap<>();
+        for (Category category : categoryRepository.findAll()) {
+            categories.put(category.getName().toLowerCase(Locale.ROOT), category.getId());
+        }
+        return categories;
+    }
+
+    private static String required(Map<String, String> record, String field) {
+        String value = record.get(field);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(field + " is required");
+        }
+        return value.trim();
+    }
+
+    private static BigDecimal decimal(Map<String, String> record, String field) {
+        String value = record.get(field);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(field + " must be a number");
+        }
+    }
+
+    private void save(ImportJob job) {
+        if (redisTemplate == null) {
+            jobs.put(job.id, job);
+        } else {
+            redisTemplate.opsForValue().set(KEY_PREFIX + job.id, job.toDto(), JOB_RETENTION);
+        }
+    }
+
+    // Progress updates from the worker, once per chunk; a poll between them sees the last chunk's counts
+    private void store(ImportJob job) {
+        try {
+            save(job);
+        } catch (RuntimeException ex) {
+            logger.warn("Could not store the status of product import {}", job.id, ex);
+        }
+    }
+
+    private void forget(ImportJob job) {
+        if (redisTemplate == null) {
+            jobs.remove(job.id);
+        } else {
+            redisTemplate.delete(KEY_PREFIX + job.id);
+        }
+    }
+
+    private ProductImportStatusDto find(String jobId) {
+        if (redisTemplate == null) {
+            ImportJob job = jobs.get(jobId);
+            return job != null ? job.toDto() : null;
+        }
+        return redisTemplate.opsForValue().get(KEY_PREFIX + jobId) instanceof ProductImportStatusDto job ? job : null;
+    }
+
+    private void evictExpiredJobs() {
+        Instant cutoff = Instant.now().minus(JOB_RETENTION);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            logger.warn("Could not delete import file {}", file, ex);
+        }
+    }
+
+    private static final class ImportJob {
+        private final String id;
+        private final FeedFormat format;
+        private final AtomicLong rowsRead = new AtomicLong();
+        private final AtomicLong rowsImported = new AtomicLong();
+        private final AtomicLong rowsRejected = new AtomicLong();
+        private final List<String> errors = new ArrayList<>();
+        private volatile String status = "QUEUED";
+        private volatile String message;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+
+        private ImportJob(String id, FeedFormat format) {
+            this.id = id;
+            this.format = format;
+        }
+
+        private void reject(long line, String reason, int maxErrors) {
+            rowsRejected.incrementAndGet();
+            synchronized (errors) {
+                if (errors.size() < maxErrors) {
+                    errors.add("Line " + line + ": " + reason);
+                }
+            }
+        }
+
+        private ProductImportStatusDto toDto() {
+            List<String> errorsCopy;
+            synchronized (errors) {
+                errorsCopy = new ArrayList<>(errors);
+            }
+            return ProductImportStatusDto.builder()
+                    .jobId(id)
+                    .status(status)
+                    .format(format.name())
+                    .rowsRead(rowsRead.get())
+                    .rowsImported(rowsImported.get())
+                    .rowsRejected(rowsRejected.get())
+                    .errors(errorsCopy)
+                    .message(message)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+}
@@ -1,7 +1,20 @@
 package com.revcart.service.impl;
 
+import com.revcart.cache.ProductCacheInvalidator;
+import com.revcart.catalog.CatalogIndexer;
+import com.revcart.catalog.ProductFacetIndex;
+import com.revcart.catalog.ProductPopularity;
+import com.revcart.catalog.ProductSearchIndex;
+import com.revcart.catalog.ProductSuggestionIndex;
+import com.revcart.catalog.SalesRanking;
+import com.revcart.concurrency.RetryOnConflict;
+import com.revcart.dto.PageCursor;
 import com.revcart.dto.PagedResponse;
+import com.revcart.dto.ProductBrowseResponse;
 import com.revcart.dto.ProductDto;
+import com.revcart.dto.SuggestionDto;
+import com.revcart.dto.projection.ProductRow;
+import com.revcart.dto.projection.ProductSaleRow;
 import com.revcart.dto.request.ProductRequest;
 import com.revcart.entity.Category;
 import com.revcart.entity.Inventory;
@@ -10,40 +23,95 @@ import com.revcart.exception.ResourceNotFoundException;
 import com.revcart.mapper.ProductMapper;
 import com.revcart.repository.CategoryRepository;
 import com.revcart.repository.InventoryRepository;
+import com.revcart.repository.OrderItemRepository;
 import com.revcart.repository.ProductRepository;
+import com.revcart.repository.ProductSalesTotal;
 import com.revcart.service.ProductService;
-import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @Transactional
 public class ProductServiceImpl implements ProductService {
 
     private static final Logger logger = LoggerFactory.getLogger(ProductServiceImpl.class);
+    private static final int FEATURED_SIZE = 12;
 
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final InventoryRepository inventoryRepository;
+    private final ProductSearchIndex searchIndex;
+    private final ProductFacetIndex facetIndex;
+    private final ProductSuggestionIndex suggestionIndex;
+    private final ProductPopularity popularity;
+    private final OrderItemRepository orderItemRepository;
+    private final CatalogIndexer catalogIndexer;
+    private final ProductCacheInvalidator productCacheInvalidator;
+    private final SalesRanking salesRanking;
+    private final int bestSellerTagCount;
 
     public ProductServiceImpl(
             ProductRepository productRepository,
             CategoryRepository categoryRepository,
-            InventoryRepository inventoryRepository) {
+            InventoryRepository inventoryRepository,
+            ProductSearchIndex searchIndex,
+            ProductFacetIndex facetIndex,
+            ProductSuggestionIndex suggestionIndex,
+            ProductPopularity popularity,
+            OrderItemRepository orderItemRepository,
+            CatalogIndexer catalogIndexer,
+            ProductCacheInvalidator productCacheInvalidator,
+            SalesRanking salesRanking,
+            @Value("${revcart.catalog.best-sellers.tag-count:20}") int bestSellerTagCount) {
         this.productRepository = productRepository;
         this.categoryRepository = categoryRepository;
         this.inventoryRepository = inventoryRepository;
+        this.searchIndex = searchIndex;
+        this.facetIndex = facetIndex;
+        this.suggestionIndex = suggestionIndex;
+        this.popularity = popularity;
+        this.orderItemRepository = orderItemRepository;
+        this.catalogIndexer = catalogIndexer;
+        this.productCacheInvalidator = productCacheInvalidator;
+        this.salesRanking = salesRanking;
+        this.bestSellerTagCount = bestSellerTagCount;
+    }
+
+    // Not read-only on purpose: this runs right after bulk imports and must read them from the primary
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildCatalogIndexes() {
+        popularity.load(orderItemRepository.sumQuantityByProduct().stream()
+                .collect(Collectors.toMap(ProductSalesTotal::getProductId, ProductSalesTotal::getQuantity)));
+        try (Stream<ProductSaleRow> sales = orderItemRepository.streamSalesSince(salesRanking.windowStart())) {
+            salesRanking.load(sales.iterator());
+        }
+        List<Product> products = productRepository.findAllActiveWithDetails();
+        catalogIndexer.rebuild(products);
+        logger.info("Catalog indexes built with {} products", searchIndex.size());
     }
 
     @Override
-    @CacheEvict(value = "products", allEntries = true)
     public ProductDto create(ProductRequest request) {
         Category category = categoryRepository.findById(request.getCategoryId())
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found"));
@@ -54,52 +122,70 @@ public class ProductServiceImpl implements ProductService {
         // Refresh the product to ensure the inventory relationship is loaded
         saved = productRepository.findById(saved.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found after save"));
+        catalogIndexer.productChanged(saved);
+        productCacheInvalidator.catalogChanged();
         logger.info("Product created successfully. ID: {}, Stock: {}", saved.getId(),
                 saved.getInventory() != null ? saved.getInventory().getAvailableQuantity() : 0);
         return ProductMapper.toDto(saved);
     }
 
+    // The stock level is absolute: re-applying it after a checkout moved the row would undo that sale
     @Override
-    @CacheEvict(value = "products", allEntries = true)
+    @RetryOnConflict(noRetryFor = Inventory.class)
     public ProductDto update(Long id, ProductRequest request) {
         logger.info("Updating product with ID: {}", id);
         logger.debug("Update request - Name: {}, Price: {}, Quantity: {}", request.getName(), request.getPrice(),
                 request.getQuantity());
-        Product product = productRepository.findById(id)
+        Product product = productRepository.findWithDetailsById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
         Category category = categoryRepository.findById(request.getCategoryId())
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found"));
+        boolean listingChanged = affectsListings(product, request);
         mapProduct(product, request, category);
         createOrUpdateInventory(product, request.getQuantity());
         Product saved = productRepository.save(product);
         // Refresh the product to ensure the inventory relationship is loaded
         saved = productRepository.findById(saved.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found after save"));
+        catalogIndexer.productChanged(saved);
+        if (listingChanged) {
+            productCacheInvalidator.catalogChanged();
+        } else {
+            productCacheInvalidator.productsChanged(List.of(saved.getId()));
+        }
         logger.info("Product updated successfully. ID: {}, Stock: {}", saved.getId(),
                 saved.getInventory() != null ? saved.getInventory().getAvailableQuantity() : 0);
         return ProductMapper.toDto(saved);
     }
 
     @Override
-    @CacheEvict(value = "products", allEntries = true)
     public void delete(Long id) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
         product.setActive(false);
         productRepository.save(product);
+        catalogIndexer.productRemoved(id);
+        productCacheInvalidator.catalogChanged();
     }
 
+    // Catalog reads are served from the primary. Their results end up in the product caches and under
+    // the catalog version ETag, both renewed on commit, so rows from a lagging replica would stay pinned.
     @Override
     public ProductDto get(Long id) {
-        return productRepository.findById(id)
+        return productRepository.findWithDetailsById(id)
                 .map(ProductMapper::toDto)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
     }
 
     @Override
-    @Cacheable(value = "products", key = "#keyword + '-' + #pageable.pageNumber")
+    // Composite keys: keywords are free text, so joining them into a string lets two searches share a key
+    @Cacheable(value = "products",
+            key = "T(java.util.Arrays).asList('list', #keyword, #pageable.pageNumber, #pageable.pageSize)", sync = true)
     public PagedResponse<ProductDto> list(String keyword, Pageable pageable) {
-        Page<Product> page = productRepository.searchActiveProducts(keyword, pageable);
+        if (keyword != null && !keyword.isBlank()) {
+            return search(keyword, pageable);
+        }
+        Page<ProductRow> page = productRepository.searchActiveProducts(keyword, pageable);
         return PagedResponse.<ProductDto>builder()
                 .content(page.getContent().stream().map(ProductMapper::toDto).collect(Collectors.toList()))
                 .totalElements(page.getTotalElements())
@@ -110,13 +196,145 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
-    @Cacheable("featuredProducts")
+    @Cacheable(value = "products",
+            key = "T(java.util.Arrays).asList('fuzzy', #keyword, #pageable.pageNumber, #pageable.pageSize)", sync = true)
+    public PagedResponse<ProductDto> fuzzySearch(String keyword, Pageable pageable) {
+        return loadPage(searchIndex.fuzzySearch(keyword), pageable);
+    }
+
+    @Override
+    public PagedResponse<ProductDto> listAfter(String cursor, int size) {
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<ProductRow> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = productRepository.findActiveNewestFirst(limit);
+        } else {
+            PageCursor position = PageCursor.decode(cursor);
+            rows = productRepository.findActiveBefore(position.createdAt(), position.id(), limit);
+        }
+        return PagedResponse.ofSeek(rows, size, ProductMapper::toDto,
+                row -> new PageCursor(row.createdAt(), row.id()));
+    }
+
+    @Override
+    public ProductBrowseResponse browse(Map<String, Set<String>> facets, Pageable pageable) {
+        ProductFacetIndex.FacetResult result = facetIndex.query(facets);
+        return ProductBrowseResponse.builder()
+                .products(loadPage(result.productIds(), pageable))
+                .facets(result.facets())
+                .build();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<SuggestionDto> suggest(String prefix, int limit) {
+        return suggestionIndex.suggest(prefix, limit).stream()
+                .map(suggestion -> SuggestionDto.builder()
+                        .text(suggestion.text())
+                        .type(suggestion.type())
+                        .id(suggestion.id())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Cacheable(value = "featuredProducts", sync = true)
     public List<ProductDto> getFeatured() {
-        return productRepository.findTop12ByOrderByCreatedAtDesc().stream()
+        List<ProductRow> featured = new ArrayList<>(loadRows(salesRanking.top(null, FEATURED_SIZE)));
+        if (featured.size() < FEATURED_SIZE) {
+            // Top up with new arrivals while too few products have sold in the window
+            Set<Long> ids = featured.stream().map(ProductRow::id).collect(Collectors.toSet());
+            for (ProductRow row : productRepository.findActiveNewestFirst(PageRequest.of(0, FEATURED_SIZE))) {
+                if (featured.size() < FEATURED_SIZE && ids.add(row.id())) {
+                    featured.add(row);
+                }
+            }
+        }
+        return featured.stream()
                 .map(ProductMapper::toDto)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductDto> getBestSellers(Long categoryId, int limit) {
+        return loadRows(salesRanking.top(categoryId, limit)).stream()
+                .map(ProductMapper::toDto)
+                .collect(Collectors.toList());
+    }
+
+    // Runs on every node. Sales reach every node's ranking through CatalogIndexer, so the nodes agree on
+    // the top products, and both tag updates are conditional, so a concurrent run on a peer finds nothing left to do
+    @Override
+    @Scheduled(fixedDelayString = "${revcart.catalog.best-sellers.tag-refresh-ms:300000}")
+    public void refreshBestSellerTags() {
+        if (!salesRanking.isLoaded()) {
+            return;
+        }
+        Set<Long> ranked = new HashSet<>(salesRanking.top(null, bestSellerTagCount));
+        Set<Long> tagged = new HashSet<>(productRepository.findIdsByAutoTag(Product.ProductTag.BEST_SELLER));
+        List<Long> added = ranked.stream().filter(id -> !tagged.contains(id)).collect(Collectors.toList());
+        List<Long> dropped = tagged.stream().filter(id -> !ranked.contains(id)).collect(Collectors.toList());
+        int changed = 0;
+        if (!added.isEmpty()) {
+            changed += productRepository.tagUntagged(added, Product.ProductTag.BEST_SELLER);
+        }
+        if (!dropped.isEmpty()) {
+            changed += productRepository.clearAutoTag(dropped, Product.ProductTag.BEST_SELLER);
+        }
+        if (changed == 0) {
+            return;
+        }
+        List<Long> touched = new ArrayList<>(added);
+        touched.addAll(dropped);
+        productRepository.findWithDetailsByIdIn(touched).forEach(catalogIndexer::productChanged);
+        productCacheInvalidator.catalogChanged();
+        logger.info("Best-seller tags updated: {} added, {} removed", added.size(), dropped.size());
+    }
+
+    private PagedResponse<ProductDto> search(String keyword, Pageable pageable) {
+        return loadPage(searchIndex.search(keyword), pageable);
+    }
+
+    private List<ProductRow> loadRows(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ProductRow> rows = productRepository.findActiveRowsByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProductRow::id, Function.identity()));
+        return ids.stream()
+                .map(rows::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private PagedResponse<ProductDto> loadPage(List<Long> matches, Pageable pageable) {
+        int start = (int) Math.min(pageable.getOffset(), matches.size());
+        int end = Math.min(start + pageable.getPageSize(), matches.size());
+        List<Long> pageIds = matches.subList(start, end);
+        Map<Long, ProductRow> products = productRepository.findActiveRowsByIdIn(pageIds).stream()
+                .collect(Collectors.toMap(ProductRow::id, Function.identity()));
+        List<ProductDto> content = pageIds.stream()
+                .map(products::get)
+                .filter(product -> product != null)
+                .map(ProductMapper::toDto)
+                .collect(Collectors.toList());
+        return PagedResponse.<ProductDto>builder()
+                .content(content)
+                .totalElements(matches.size())
+                .totalPages((int) Math.ceil((double) matches.size() / pageable.getPageSize()))
+                .page(pageable.getPageNumber())
+                .size(pageable.getPageSize())
+                .build();
+    }
+
+    // Name, description and visibility decide which listing pages a product appears on
+    private boolean affectsListings(Product product, ProductRequest request) {
+        return !Objects.equals(product.getName(), request.getName())
+                || !Objects.equals(product.getDescription(), request.getDescription())
+                || product.isActive() != request.isActive();
+    }
+
     private void mapProduct(Product product, ProductRequest request, Category category) {
         product.setName(request.getName());
         product.setDescription(request.getDescription());
@@ -138,7 +356,11 @@ public class ProductServiceImpl implements ProductService {
         logger.debug("Setting availableQuantity to: {} for product ID: {}", quantity != null ? quantity : 0,
                 product.getId());
         inventory.setAvailableQuantity(quantity != null ? quantity : 0);
+        if (inventory.getShardCount() > 0) {
+            inventoryRepository.resetShardedStock(product.getId(), inventory.getAvailableQuantity());
+        }
         Inventory saved = inventoryRepository.save(inventory);
+        product.setInventory(saved);
         logger.debug("Inventory saved successfully. Inventory ID: {}, availableQuantity: {}", saved.getId(),
                 saved.getAvailableQuantity());
     }
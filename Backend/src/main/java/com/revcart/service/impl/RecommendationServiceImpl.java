@@ -0,0 +1,169 @@
+package com.revcart.service.impl;
+
+import com.revcart.catalog.CoPurchaseIndex;
+import com.revcart.dto.ProductDto;
+import com.revcart.dto.projection.OrderProductRow;
+import com.revcart.dto.projection.ProductRow;
+import com.revcart.entity.User;
+import com.revcart.exception.BadRequestException;
+import com.revcart.exception.ResourceNotFoundException;
+import com.revcart.mapper.ProductMapper;
+import com.revcart.repository.CartRepository;
+import com.revcart.repository.OrderItemRepository;
+import com.revcart.repository.OrderRepository;
+import com.revcart.repository.ProductRepository;
+import com.revcart.repository.UserRepository;
+import com.revcart.service.RecommendationService;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Serves "frequently bought together" lists from {@link CoPurchaseIndex}; only the product rows of the
+ * recommended ids are read from the database. The matrix itself lives in memory and is backfilled
+ * from order history on startup, or on demand.
+ */
+@Service
+public class RecommendationServiceImpl implements RecommendationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecommendationServiceImpl.class);
+
+    private final CoPurchaseIndex coPurchaseIndex;
+    private final ProductRepository productRepository;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final CartRepository cartRepository;
+    private final UserRepository userRepository;
+    private final ThreadPoolTaskExecutor recommendationExecutor;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public RecommendationServiceImpl(
+            CoPurchaseIndex coPurchaseIndex,
+            ProductRepository productRepository,
+            OrderRepository orderRepository,
+            OrderItemRepository orderItemRepository,
+            CartRepository cartRepository,
+            UserRepository userRepository,
+            @Qualifier("recommendationExecutor") ThreadPoolTaskExecutor recommendationExecutor,
+            PlatformTransactionManager transactionManager) {
+        this.coPurchaseIndex = coPurchaseIndex;
+        this.productRepository = productRepository;
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.cartRepository = cartRepository;
+        this.userRepository = userRepository;
+        this.recommendationExecutor = recommendationExecutor;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductDto> forProduct(Long productId, int limit) {
+        return loadProducts(coPurchaseIndex.neighbors(productId, limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductDto> forProducts(Collection<Long> productIds, int limit) {
+        return loadProducts(coPurchaseIndex.forBasket(productIds, limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductDto> forMyCart(int limit) {
+        // Reads the cart without creating one: visitors who never added anything get no recommendations
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        User user = userRepository.findByEmail(authentication.getName())
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        List<Long> productIds = cartRepository.findByUser(user)
+                .map(cart -> cart.getItems().stream()
+                        .map(item -> item.getProduct().getId())
+                        .collect(Collectors.toList()))
+                .orElseGet(List::of);
+        return productIds.isEmpty() ? List.of() : forProducts(productIds, limit);
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void startBackfill() {
+        try {
+            recommendationExecutor.execute(this::backfill);
+        } catch (TaskRejectedException ex) {
+            throw new BadRequestException("A recommendation backfill is already running");
+        }
+    }
+
+    private void backfill() {
+        long cutoff = orderRepository.findMaxId();
+        CoPurchaseIndex.Backfill backfill = coPurchaseIndex.startBackfill(cutoff);
+        try {
+            long orders = readOnlyTransaction.execute(status -> {
+                try (Stream<OrderProductRow> rows = orderItemRepository.streamOrderProductsUpTo(cutoff)) {
+                    return replay(rows.iterator(), backfill);
+                }
+            });
+            backfill.finish();
+            logger.info("Co-purchase matrix backfilled from {} orders", orders);
+        } catch (RuntimeException ex) {
+            backfill.abort();
+            logger.error("Co-purchase backfill failed", ex);
+        }
+    }
+
+    // Rows arrive ordered by order id, so each order's items are consecutive
+    private long replay(Iterator<OrderProductRow> rows, CoPurchaseIndex.Backfill backfill) {
+        long orders = 0;
+        Long currentOrder = null;
+        List<Long> basket = new ArrayList<>();
+        while (rows.hasNext()) {
+            OrderProductRow row = rows.next();
+            if (!row.orderId().equals(currentOrder)) {
+                if (!basket.isEmpty()) {
+                    backfill.add(basket);
+                    orders++;
+                }
+                basket = new ArrayList<>();
+                currentOrder = row.orderId();
+            }
+            basket.add(row.productId());
+        }
+        if (!basket.isEmpty()) {
+            backfill.add(basket);
+            orders++;
+        }
+        return orders;
+    }
+
+    private List<ProductDto> loadProducts(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ProductRow> rows = productRepository.findActiveRowsByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProductRow::id, Function.identity()));
+        return ids.stream()
+                .map(rows::get)
+                .filter(Objects::nonNull)
+                .map(ProductMapper::toDto)
+                .collect(Collectors.toList());
+    }
+}
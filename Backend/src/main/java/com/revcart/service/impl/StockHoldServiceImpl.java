@@ -0,0 +1,162 @@
+package com.revcart.service.impl;
+
+import com.revcart.cache.ProductCacheInvalidator;
+import com.revcart.catalog.CatalogIndexer;
+import com.revcart.dto.projection.HoldRow;
+import com.revcart.dto.projection.StockShortage;
+import com.revcart.entity.Order;
+import com.revcart.entity.OrderItem;
+import com.revcart.enums.OrderStatus;
+import com.revcart.enums.PaymentStatus;
+import com.revcart.exception.InsufficientStockException;
+import com.revcart.repository.InventoryRepository;
+import com.revcart.repository.OrderRepository;
+import com.revcart.service.StockHoldService;
+import com.revcart.util.TimingWheel;
+import com.revcart.util.TransactionCallbacks;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Stock held for orders awaiting payment. A hold moves the ordered quantities from available into
+ * reserved stock and expires after a fixed time; payment commits it, cancellation or expiry releases it.
+ * Deadlines are tracked in a {@link TimingWheel}, so finding the expired holds each tick only touches
+ * the holds due in that tick. Callers lock the order before committing or releasing its hold.
+ */
+@Service
+@Transactional
+public class StockHoldServiceImpl implements StockHoldService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockHoldServiceImpl.class);
+    private static final int WHEEL_SIZE = 512;
+
+    private final InventoryRepository inventoryRepository;
+    private final OrderRepository orderRepository;
+    private final CatalogIndexer catalogIndexer;
+    private final ProductCacheInvalidator productCacheInvalidator;
+    private final Duration holdTtl;
+    private final TimingWheel wheel;
+
+    public StockHoldServiceImpl(
+            InventoryRepository inventoryRepository,
+            OrderRepository orderRepository,
+            CatalogIndexer catalogIndexer,
+            ProductCacheInvalidator productCacheInvalidator,
+            @Value("${revcart.inventory.hold-ttl:PT15M}") Duration holdTtl,
+            @Value("${revcart.inventory.hold-tick-ms:1000}") long tickMillis) {
+        this.inventoryRepository = inventoryRepository;
+        this.orderRepository = orderRepository;
+        this.catalogIndexer = catalogIndexer;
+        this.productCacheInvalidator = productCacheInvalidator;
+        this.holdTtl = holdTtl;
+        this.wheel = new TimingWheel(tickMillis, WHEEL_SIZE, System.currentTimeMillis());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadActiveHolds() {
+        List<HoldRow> holds = orderRepository.findActiveHolds();
+        holds.forEach(hold -> wheel.schedule(hold.orderId(), hold.expiresAt().toEpochMilli()));
+        logger.info("Tracking {} open stock holds", holds.size());
+    }
+
+    @Override
+    public Instant hold(Map<Long, Integer> quantities) {
+        List<StockShortage> shortages = inventoryRepository.holdAll(quantities);
+        if (!shortages.isEmpty()) {
+            logger.warn("Stock hold rejected, short lines: {}", shortages);
+            throw new InsufficientStockException(shortages);
+        }
+        return Instant.now().plus(holdTtl);
+    }
+
+    @Override
+    public void track(Long orderId, Instant expiresAt) {
+        TransactionCallbacks.afterCommit(() -> wheel.schedule(orderId, expiresAt.toEpochMilli()));
+    }
+
+    @Override
+    public boolean commit(Order order) {
+        if (order.getHoldExpiresAt() == null) {
+            // Cash on delivery never holds; a cancelled order without a hold had it released on expiry
+            return order.getStatus() != OrderStatus.CANCELLED || reinstate(order);
+        }
+        inventoryRepository.commitHolds(quantities(order));
+        order.setHoldExpiresAt(null);
+        Long orderId = order.getId();
+        TransactionCallbacks.afterCommit(() -> wheel.cancel(orderId));
+        return true;
+    }
+
+    @Override
+    public Map<Long, Integer> release(Collection<Order> orders) {
+        Map<Long, Integer> released = new HashMap<>();
+        List<Long> orderIds = new ArrayList<>();
+        for (Order order : orders) {
+            if (order.getHoldExpiresAt() == null) {
+                continue;
+            }
+            quantities(order).forEach((productId, quantity) -> released.merge(productId, quantity, Integer::sum));
+            order.setHoldExpiresAt(null);
+            orderIds.add(order.getId());
+        }
+        if (!released.isEmpty()) {
+            inventoryRepository.releaseHolds(released);
+        }
+        TransactionCallbacks.afterCommit(() -> orderIds.forEach(wheel::cancel));
+        return released;
+    }
+
+    // Payment that arrives after expiry: sell the stock after all if it is still there
+    private boolean reinstate(Order order) {
+        // Orders the customer cancelled are refunded, not revived
+        if (order.getPaymentStatus() != PaymentStatus.FAILED) {
+            return false;
+        }
+        Map<Long, Integer> quantities = quantities(order);
+        List<StockShortage> shortages = inventoryRepository.reserveAll(quantities);
+        if (!shortages.isEmpty()) {
+            logger.info("Order {} was paid after its hold expired and can no longer be filled: {}",
+                    order.getId(), shortages);
+            return false;
+        }
+        order.setStatus(OrderStatus.PLACED);
+        order.setCancelledAt(null);
+        Map<Long, Integer> stockDeltas = new HashMap<>();
+        quantities.forEach((productId, quantity) -> stockDeltas.put(productId, -quantity));
+        catalogIndexer.stockAdjusted(stockDeltas);
+        catalogIndexer.salesRecorded(quantities, order.getCreatedAt() != null ? order.getCreatedAt() : Instant.now());
+        catalogIndexer.basketRecorded(order.getId(), quantities.keySet(), 1);
+        productCacheInvalidator.productsChanged(quantities.keySet());
+        logger.info("Order {} was paid after its hold expired and has been reinstated", order.getId());
+        return true;
+    }
+
+    @Override
+    public List<Long> pollExpired() {
+        long now = System.currentTimeMillis();
+        List<Long> expired = wheel.advance(now);
+        // An expiry that rolls back, say after losing a deadlock, sees these orders again on its next attempt
+        TransactionCallbacks.afterRollback(() -> expired.forEach(orderId -> wheel.schedule(orderId, now)));
+        return expired;
+    }
+
+    private static Map<Long, Integer> quantities(Order order) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (OrderItem item : order.getItems()) {
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+}
@@ -1,8 +1,11 @@
 package com.revcart.service.impl;
 
 import com.revcart.dto.AddressDto;
+import com.revcart.dto.PageCursor;
 import com.revcart.dto.PagedResponse;
 import com.revcart.dto.UserDto;
+import com.revcart.dto.projection.AddressRow;
+import com.revcart.dto.projection.UserRow;
 import com.revcart.dto.request.ChangePasswordRequest;
 import com.revcart.dto.request.ProfileUpdateRequest;
 import com.revcart.entity.Address;
@@ -16,13 +19,17 @@ import com.revcart.repository.AddressRepository;
 import com.revcart.repository.UserRepository;
 import com.revcart.service.UserService;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class UserServiceImpl implements UserService {
@@ -48,6 +55,7 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<UserDto> findAllDeliveryAgents() {
         return userRepository.findAll().stream()
                 .filter(user -> user.getRole() == UserRole.DELIVERY_AGENT)
@@ -139,10 +147,11 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public PagedResponse<UserDto> listAllUsers(Pageable pageable) {
-        Page<User> page = userRepository.findAll(pageable);
+        Page<UserRow> page = userRepository.findAllRows(pageable);
         List<UserDto> content = page.getContent().stream()
-                .map(UserMapper::toDto)
+                .map(rowMapper(page.getContent()))
                 .collect(Collectors.toList());
         return PagedResponse.<UserDto>builder()
                 .content(content)
@@ -154,6 +163,22 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public PagedResponse<UserDto> listAllUsersAfter(String cursor, int size) {
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<UserRow> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = userRepository.findRowsNewestFirst(limit);
+        } else {
+            PageCursor position = PageCursor.decode(cursor);
+            rows = userRepository.findRowsBefore(position.createdAt(), position.id(), limit);
+        }
+        return PagedResponse.ofSeek(rows, size, rowMapper(rows),
+                row -> new PageCursor(row.createdAt(), row.id()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public UserDto getUserById(Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
@@ -181,6 +206,16 @@ public class UserServiceImpl implements UserService {
         return UserMapper.toDto(userRepository.save(user));
     }
 
+    private Function<UserRow, UserDto> rowMapper(List<UserRow> rows) {
+        if (rows.isEmpty()) {
+            return row -> UserMapper.toDto(row, List.of());
+        }
+        List<Long> userIds = rows.stream().map(UserRow::id).collect(Collectors.toList());
+        Map<Long, List<AddressRow>> addresses = addressRepository.findRowsByUserIdIn(userIds).stream()
+                .collect(Collectors.groupingBy(AddressRow::userId));
+        return row -> UserMapper.toDto(row, addresses.getOrDefault(row.id(), List.of()));
+    }
+
     private User getAuthenticatedUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null) {
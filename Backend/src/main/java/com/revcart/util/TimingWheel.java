@@ -0,0 +1,74 @@
+package com.revcart.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashed timing wheel of {@code long} keys. A deadline hashes to the bucket of its tick, so scheduling
+ * and cancelling are O(1) and each {@link #advance(long)} only looks at the buckets of the ticks that
+ * have passed. Deadlines further out than one revolution share a bucket with nearer ones and are kept
+ * until a later revolution reaches them.
+ */
+public final class TimingWheel {
+
+    private final long tickMillis;
+    private final List<Map<Long, Long>> buckets;
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private long nextTick;
+
+    public TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new HashMap<>());
+        }
+        this.nextTick = Math.floorDiv(startMillis, tickMillis);
+    }
+
+    public synchronized void schedule(long key, long deadlineMillis) {
+        cancel(key);
+        long tick = Math.max(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), nextTick);
+        int slot = slotOf(tick);
+        buckets.get(slot).put(key, deadlineMillis);
+        slots.put(key, slot);
+    }
+
+    public synchronized boolean cancel(long key) {
+        Integer slot = slots.remove(key);
+        return slot != null && buckets.get(slot).remove(key) != null;
+    }
+
+    /**
+     * Moves the wheel to {@code nowMillis} and returns every key whose deadline has passed.
+     */
+    public synchronized List<Long> advance(long nowMillis) {
+        long lastTick = Math.floorDiv(nowMillis, tickMillis);
+        // After a long pause one revolution is enough: it visits every bucket once
+        long firstTick = Math.max(nextTick, lastTick - buckets.size() + 1);
+        List<Long> expired = new ArrayList<>();
+        for (long tick = firstTick; tick <= lastTick; tick++) {
+            Iterator<Map.Entry<Long, Long>> entries = buckets.get(slotOf(tick)).entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<Long, Long> entry = entries.next();
+                if (entry.getValue() <= nowMillis) {
+                    expired.add(entry.getKey());
+                    slots.remove(entry.getKey());
+                    entries.remove();
+                }
+            }
+        }
+        nextTick = Math.max(nextTick, lastTick + 1);
+        return expired;
+    }
+
+    public synchronized int size() {
+        return slots.size();
+    }
+
+    private int slotOf(long tick) {
+        return (int) Math.floorMod(tick, (long) buckets.size());
+    }
+}
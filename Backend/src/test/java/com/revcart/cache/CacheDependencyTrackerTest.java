@@ -0,0 +1,65 @@
+package com.revcart.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.revcart.cache.CacheDependencyTracker.CacheEntryRef;
+import com.revcart.dto.PagedResponse;
+import com.revcart.dto.ProductDto;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+
+/**
+ * Dependencies follow the cached value: removing a value that has already been replaced must leave
+ * the replacement's dependencies alone.
+ */
+class CacheDependencyTrackerTest {
+
+    private final CacheDependencyTracker tracker = new CacheDependencyTracker();
+
+    @Test
+    void theRemovalOfAReplacedValueKeepsTheNewDependencies() {
+        PagedResponse<ProductDto> stale = page(5L);
+        PagedResponse<ProductDto> reloaded = page(5L, 6L);
+        tracker.onPut("products", "page-0", stale);
+        tracker.onPut("products", "page-0", reloaded);
+
+        // The eviction of the stale value is reported after the reload was stored
+        tracker.onRemoval("products", "page-0", stale);
+
+        assertThat(tracker.entriesFor(List.of(6L))).containsExactly(new CacheEntryRef("products", "page-0"));
+        tracker.onRemoval("products", "page-0", reloaded);
+        assertThat(tracker.entriesFor(List.of(5L, 6L))).isEmpty();
+    }
+
+    @Test
+    void cacheRemovalsReachTheTrackerWithTheirValue() {
+        CachePolicy policy = new CachePolicy(2, Duration.ofMinutes(10), null, null);
+        PolicyCacheManager manager = new PolicyCacheManager(Map.of("products", policy), policy, tracker);
+        manager.initializeCaches();
+        Cache cache = manager.getCache("products");
+
+        cache.put("page-0", page(5L));
+        cache.get("page-1", () -> page(6L));
+        assertThat(tracker.entriesFor(List.of(5L, 6L))).hasSize(2);
+
+        cache.evict("page-0");
+        assertThat(tracker.entriesFor(List.of(5L))).isEmpty();
+
+        cache.put("page-1", page(7L));
+        assertThat(tracker.entriesFor(List.of(6L))).isEmpty();
+        assertThat(tracker.entriesFor(List.of(7L))).hasSize(1);
+
+        cache.clear();
+        assertThat(tracker.entriesFor(List.of(7L))).isEmpty();
+    }
+
+    private static PagedResponse<ProductDto> page(Long... productIds) {
+        return PagedResponse.<ProductDto>builder()
+                .content(Arrays.stream(productIds).map(id -> ProductDto.builder().id(id).build()).toList())
+                .build();
+    }
+}
@@ -0,0 +1,177 @@
+package com.revcart.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.revcart.catalog.CatalogVersion;
+import com.revcart.dto.PagedResponse;
+import com.revcart.dto.ProductDto;
+import com.revcart.repository.CategoryRepository;
+import com.revcart.repository.InventoryRepository;
+import com.revcart.repository.ProductRepository;
+import com.revcart.support.InMemoryRedis;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.core.serializer.support.SerializationDelegate;
+
+/**
+ * Two nodes whose L2 is an in-process stand-in for Redis: one map per cache name, storing values
+ * serialized, and a bus that delivers every message to the other node. The shared dependency index
+ * lives in an {@link InMemoryRedis}.
+ */
+class TwoLevelCacheTest {
+
+    private final Map<String, ConcurrentMap<Object, Object>> redis = new ConcurrentHashMap<>();
+    private final List<Consumer<CacheInvalidationMessage>> subscribers = new CopyOnWriteArrayList<>();
+    private final List<CacheInvalidationMessage> published = new CopyOnWriteArrayList<>();
+    private final InMemoryRedis dependencies = new InMemoryRedis();
+    private final AtomicInteger loads = new AtomicInteger();
+    private CachePolicy policy;
+
+    @BeforeEach
+    void setUp() {
+        policy = new CachePolicy(100, Duration.ofMinutes(10), null, null);
+    }
+
+    @Test
+    void aMissIsFilledFromTheOtherNodesLoadWithoutABroadcast() {
+        Cache nodeA = node("a").getCache("products");
+        Cache nodeB = node("b").getCache("products");
+
+        assertThat(nodeA.get("page-0", this::load)).isEqualTo("v1");
+        assertThat(nodeB.get("page-0", this::load)).isEqualTo("v1");
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(published).isEmpty();
+    }
+
+    @Test
+    void aPutOfANewValueDropsThePeersLocalCopy() {
+        Cache nodeA = node("a").getCache("products");
+        Cache nodeB = node("b").getCache("products");
+        nodeA.put("page-0", "v1");
+        assertThat(nodeB.get("page-0").get()).isEqualTo("v1");
+
+        nodeA.put("page-0", "v1");
+        assertThat(published).isEmpty();
+
+        nodeA.put("page-0", "v2");
+        assertThat(published).hasSize(1);
+        assertThat(nodeB.get("page-0").get()).isEqualTo("v2");
+    }
+
+    @Test
+    void anEvictionReachesBothTiersAndThePeer() {
+        Cache nodeA = node("a").getCache("products");
+        Cache nodeB = node("b").getCache("products");
+        nodeA.get("page-0", this::load);
+        nodeB.get("page-0", this::load);
+
+        nodeA.evict("page-0");
+
+        assertThat(nodeB.get("page-0")).isNull();
+        assertThat(redis.get("products")).isEmpty();
+    }
+
+    @Test
+    void aRefreshAheadReloadsInsteadOfReadingTheSharedCopy() {
+        // Every read after the first is due for refresh
+        policy = new CachePolicy(100, Duration.ofMinutes(10), null, Duration.ZERO);
+        Cache nodeA = node("a").getCache("products");
+
+        nodeA.get("page-0", this::load);
+        assertThat(nodeA.get("page-0", this::load)).isEqualTo("v2");
+
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(node("c").getCache("products").get("page-0").get()).isEqualTo("v2");
+    }
+
+    @Test
+    void aProductChangeEvictsSharedEntriesNoNodeHoldsAnyMore() {
+        TwoLevelCacheManager nodeA = node("a");
+        TwoLevelCache cache = (TwoLevelCache) nodeA.getCache("products");
+        cache.get("page-0", () -> page(5L, 6L));
+        cache.get("page-1", () -> page(7L));
+        // Dropped from L1 by size or age: this node's tracker forgets it, L2 still has it
+        cache.getLocal().evict("page-0");
+
+        invalidator(nodeA).productsChanged(List.of(5L));
+
+        assertThat(redis.get("products")).containsOnlyKeys("page-1");
+    }
+
+    private String load() {
+        return "v" + loads.incrementAndGet();
+    }
+
+    private TwoLevelCacheManager node(String nodeId) {
+        TwoLevelCacheManager manager = new TwoLevelCacheManager(Map.of("products", policy), policy,
+                new CacheDependencyTracker(), null, new LoopbackBus(nodeId),
+                new SharedDependencyIndex(dependencies.template())) {
+            @Override
+            protected Cache createSharedCache(String name, CachePolicy cachePolicy) {
+                SerializationDelegate serialization = new SerializationDelegate(getClass().getClassLoader());
+                return new ConcurrentMapCache(name, redis.computeIfAbsent(name, key -> new ConcurrentHashMap<>()),
+                        true, serialization) {
+                };
+            }
+        };
+        manager.initializeCaches();
+        return manager;
+    }
+
+    private ProductCacheInvalidator invalidator(TwoLevelCacheManager manager) {
+        CatalogVersion catalogVersion = new CatalogVersion(
+                mock(ProductRepository.class), mock(CategoryRepository.class), mock(InventoryRepository.class));
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("dependencies", new SharedDependencyIndex(dependencies.template()));
+        return new ProductCacheInvalidator(manager, new CacheDependencyTracker(), catalogVersion,
+                beans.getBeanProvider(CacheInvalidationBus.class), beans.getBeanProvider(SharedDependencyIndex.class));
+    }
+
+    private static PagedResponse<ProductDto> page(Long... productIds) {
+        return PagedResponse.<ProductDto>builder()
+                .content(Arrays.stream(productIds).map(id -> ProductDto.builder().id(id).build()).toList())
+                .build();
+    }
+
+    private final class LoopbackBus implements CacheInvalidationBus {
+        private final String nodeId;
+
+        private LoopbackBus(String nodeId) {
+            this.nodeId = nodeId;
+        }
+
+        @Override
+        public String nodeId() {
+            return nodeId;
+        }
+
+        @Override
+        public void publish(CacheInvalidationMessage message) {
+            published.add(message);
+            subscribers.forEach(subscriber -> subscriber.accept(message));
+        }
+
+        @Override
+        public void subscribe(Consumer<CacheInvalidationMessage> listener) {
+            subscribers.add(message -> {
+                if (!nodeId.equals(message.origin())) {
+                    listener.accept(message);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.revcart.catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Cache headers of conditional catalog reads, for successful, unchanged and failed responses.
+ */
+class CatalogConditionalGetFilterTest {
+
+    private static final long STAMP = 1_760_000_000_000L;
+
+    private CatalogConditionalGetFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        CatalogVersion catalogVersion = mock(CatalogVersion.class);
+        when(catalogVersion.of(7L)).thenReturn(STAMP);
+        filter = new CatalogConditionalGetFilter(catalogVersion, 0, 30);
+    }
+
+    @Test
+    void successfulAnonymousReadsArePublic() throws Exception {
+        MockHttpServletResponse response = get(HttpServletResponse.SC_OK, null);
+
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).contains("public", "s-maxage=30");
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("W/\"" + STAMP + "\"");
+    }
+
+    @Test
+    void unchangedReadsAreAnsweredWithoutTheController() throws Exception {
+        MockHttpServletResponse response = get(HttpServletResponse.SC_OK, "W/\"" + STAMP + "\"");
+
+        assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_NOT_MODIFIED);
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).contains("public");
+    }
+
+    @Test
+    void errorsAreNeverStored() throws Exception {
+        assertThat(get(HttpServletResponse.SC_NOT_FOUND, null).getHeader(HttpHeaders.CACHE_CONTROL))
+                .isEqualTo("no-store");
+        assertThat(get(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, null).getHeader(HttpHeaders.CACHE_CONTROL))
+                .isEqualTo("no-store");
+    }
+
+    private MockHttpServletResponse get(int status, String ifNoneMatch) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products/7");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                // Controllers' exception handlers set the status, the container's error handling sends it
+                if (status == HttpServletResponse.SC_NOT_FOUND) {
+                    resp.sendError(status);
+                } else {
+                    resp.setStatus(status);
+                }
+            }
+        }));
+        return response;
+    }
+}
@@ -0,0 +1,188 @@
+package com.revcart.catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.revcart.cache.CacheInvalidationBus;
+import com.revcart.cache.CacheInvalidationMessage;
+import com.revcart.entity.Product;
+import com.revcart.repository.ProductRepository;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Two nodes whose indexers share a bus that serializes messages the way Redis pub/sub does: whatever
+ * one node records must reach the other node's indexes.
+ */
+class CatalogIndexerTest {
+
+    private final List<Consumer<CacheInvalidationMessage>> subscribers = new CopyOnWriteArrayList<>();
+    private ProductRepository productRepository;
+    private RecordingIndex localIndex;
+    private RecordingIndex peerIndex;
+    private ProductPopularity peerPopularity;
+    private CatalogIndexer local;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        localIndex = new RecordingIndex();
+        peerIndex = new RecordingIndex();
+        peerPopularity = new ProductPopularity();
+        local = node("a", localIndex, new ProductPopularity());
+        node("b", peerIndex, peerPopularity);
+    }
+
+    @Test
+    void peersReadAChangedProductBackFromTheDatabase() {
+        Product product = new Product();
+        product.setId(7L);
+        product.setName("Basmati rice");
+        when(productRepository.findWithDetailsById(7L)).thenReturn(Optional.of(product));
+
+        local.productChanged(product);
+
+        assertThat(localIndex.events).containsExactly("index 7");
+        assertThat(peerIndex.events).containsExactly("index 7");
+    }
+
+    @Test
+    void peersDropAProductThatIsGoneByTheTimeTheyReadIt() {
+        Product product = new Product();
+        product.setId(7L);
+        when(productRepository.findWithDetailsById(7L)).thenReturn(Optional.empty());
+
+        local.productChanged(product);
+
+        assertThat(peerIndex.events).containsExactly("remove 7");
+    }
+
+    @Test
+    void stockSalesAndBasketsReachPeers() {
+        Instant soldAt = Instant.parse("2026-10-01T10:00:00Z");
+
+        local.productRemoved(3L);
+        local.stockAdjusted(Map.of(1L, -2));
+        local.salesRecorded(Map.of(1L, 2), soldAt);
+        local.basketRecorded(40L, List.of(1L, 2L), 1);
+
+        assertThat(peerIndex.events).containsExactly(
+                "remove 3", "stock 1 -2", "sales 1 2 " + soldAt, "basket 40 [1, 2] 1");
+        assertThat(peerIndex.events).isEqualTo(localIndex.events);
+        assertThat(peerPopularity.unitsSold(1L)).isEqualTo(2);
+    }
+
+    @Test
+    void aReloadRebuildsEveryNodeFromTheDatabase() {
+        Product product = new Product();
+        product.setId(7L);
+        when(productRepository.findAllActiveWithDetails()).thenReturn(List.of(product));
+
+        local.catalogReloaded();
+
+        assertThat(localIndex.events).containsExactly("rebuild [7]");
+        assertThat(peerIndex.events).containsExactly("rebuild [7]");
+    }
+
+    private CatalogIndexer node(String nodeId, ProductIndex index, ProductPopularity popularity) {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("bus", new LoopbackBus(nodeId));
+        return new CatalogIndexer(List.of(index), popularity, productRepository,
+                mock(PlatformTransactionManager.class), beans.getBeanProvider(CacheInvalidationBus.class));
+    }
+
+    private final class LoopbackBus implements CacheInvalidationBus {
+        private final String nodeId;
+
+        private LoopbackBus(String nodeId) {
+            this.nodeId = nodeId;
+        }
+
+        @Override
+        public String nodeId() {
+            return nodeId;
+        }
+
+        @Override
+        public void publish(CacheInvalidationMessage message) {
+            CacheInvalidationMessage delivered = (CacheInvalidationMessage) roundTrip(message);
+            subscribers.forEach(subscriber -> subscriber.accept(delivered));
+        }
+
+        @Override
+        public void subscribe(Consumer<CacheInvalidationMessage> listener) {
+            subscribers.add(message -> {
+                if (!nodeId.equals(message.origin())) {
+                    listener.accept(message);
+                }
+            });
+        }
+
+        private Object roundTrip(Object message) {
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                    out.writeObject(message);
+                }
+                try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                    return in.readObject();
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            } catch (ClassNotFoundException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+
+    private static final class RecordingIndex implements ProductIndex {
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void rebuild(Collection<Product> products) {
+            events.add("rebuild " + products.stream().map(Product::getId).toList());
+        }
+
+        @Override
+        public void index(Product product) {
+            events.add("index " + product.getId());
+        }
+
+        @Override
+        public void remove(Long productId) {
+            events.add("remove " + productId);
+        }
+
+        @Override
+        public void stockAdjusted(Long productId, int delta) {
+            events.add("stock " + productId + " " + delta);
+        }
+
+        @Override
+        public void salesRecorded(Long productId, int units, Instant soldAt) {
+            events.add("sales " + productId + " " + units + " " + soldAt);
+        }
+
+        @Override
+        public void basketRecorded(Long orderId, Collection<Long> productIds, int weight) {
+            events.add("basket " + orderId + " " + productIds + " " + weight);
+        }
+    }
+}
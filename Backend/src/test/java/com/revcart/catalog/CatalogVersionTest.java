@@ -0,0 +1,57 @@
+package com.revcart.catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.revcart.repository.CategoryRepository;
+import com.revcart.repository.InventoryRepository;
+import com.revcart.repository.ProductRepository;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A peer that applies broadcast stamps must end up with the same ETags as the node that made the change.
+ */
+class CatalogVersionTest {
+
+    private final CatalogVersion origin = version();
+    private final CatalogVersion peer = version();
+
+    @Test
+    void peersAdoptTheStampOfAProductChange() {
+        long stamp = origin.productsChanged(List.of(7L));
+        peer.productsChanged(List.of(7L), stamp);
+
+        assertThat(peer.of(7L)).isEqualTo(origin.of(7L)).isEqualTo(stamp);
+        assertThat(peer.current()).isEqualTo(origin.current());
+    }
+
+    @Test
+    void peersAdoptTheStampOfACatalogChange() {
+        long productStamp = origin.productsChanged(List.of(7L));
+        peer.productsChanged(List.of(7L), productStamp);
+        long catalogStamp = origin.catalogChanged();
+        peer.catalogChanged(catalogStamp);
+
+        assertThat(peer.of(7L)).isEqualTo(origin.of(7L)).isEqualTo(catalogStamp);
+        assertThat(peer.of(8L)).isEqualTo(catalogStamp);
+        assertThat(peer.current()).isEqualTo(catalogStamp);
+    }
+
+    @Test
+    void aLateCatalogChangeDoesNotHideANewerProductChange() {
+        long catalogStamp = origin.catalogChanged();
+        long productStamp = origin.productsChanged(List.of(7L));
+
+        peer.productsChanged(List.of(7L), productStamp);
+        peer.catalogChanged(catalogStamp);
+
+        assertThat(peer.of(7L)).isEqualTo(productStamp);
+        assertThat(peer.current()).isEqualTo(productStamp);
+    }
+
+    private static CatalogVersion version() {
+        return new CatalogVersion(mock(ProductRepository.class), mock(CategoryRepository.class),
+                mock(InventoryRepository.class));
+    }
+}
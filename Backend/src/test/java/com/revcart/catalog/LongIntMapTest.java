@@ -0,0 +1,74 @@
+package com.revcart.catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks {@link LongIntMap} against a {@code HashMap}, with removals frequent enough that backward-shift
+ * deletion runs through long probe chains and around the end of the table.
+ */
+class LongIntMapTest {
+
+    @Test
+    void removingAKeyKeepsTheRestOfItsProbeChainReachable() {
+        LongIntMap map = new LongIntMap(64);
+        for (long key = 1; key <= 30; key++) {
+            map.addTo(key, (int) key);
+        }
+
+        for (long key = 1; key <= 30; key += 2) {
+            assertThat(map.addTo(key, -(int) key)).isZero();
+        }
+
+        assertThat(map.size()).isEqualTo(15);
+        for (long key = 1; key <= 30; key++) {
+            assertThat(map.get(key)).isEqualTo(key % 2 == 0 ? (int) key : 0);
+        }
+    }
+
+    @Test
+    void matchesAHashMapUnderRandomAddsAndRemovals() {
+        Random random = new Random(42);
+        LongIntMap map = new LongIntMap();
+        Map<Long, Integer> expected = new HashMap<>();
+
+        for (int i = 0; i < 200_000; i++) {
+            // A small key space keeps the table dense, so chains collide and wrap
+            long key = random.nextInt(2_000) - 1_000;
+            int delta = random.nextInt(7) - 3;
+            int value = expected.getOrDefault(key, 0) + delta;
+            if (value > 0) {
+                expected.put(key, value);
+            } else {
+                expected.remove(key);
+            }
+            assertThat(map.addTo(key, delta)).isEqualTo(Math.max(value, 0));
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        Map<Long, Integer> actual = new HashMap<>();
+        map.forEach(actual::put);
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    void aNonPositiveDeltaDoesNotInsert() {
+        LongIntMap map = new LongIntMap();
+
+        assertThat(map.addTo(7L, 0)).isZero();
+        assertThat(map.addTo(7L, -2)).isZero();
+
+        assertThat(map.size()).isZero();
+    }
+
+    @Test
+    void rejectsTheReservedKey() {
+        assertThatThrownBy(() -> new LongIntMap().addTo(Long.MIN_VALUE, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
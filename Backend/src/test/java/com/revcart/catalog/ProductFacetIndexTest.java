@@ -0,0 +1,118 @@
+package com.revcart.catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.revcart.catalog.ProductFacetIndex.FacetCount;
+import com.revcart.catalog.ProductFacetIndex.FacetResult;
+import com.revcart.entity.Category;
+import com.revcart.entity.Inventory;
+import com.revcart.entity.Product;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Queries a small catalog of rice and tea from two brands, and checks both the matches and the counts
+ * shown next to every facet value.
+ */
+class ProductFacetIndexTest {
+
+    private final ProductFacetIndex index = new ProductFacetIndex();
+    private Category rice;
+    private Category tea;
+
+    @BeforeEach
+    void setUp() {
+        rice = category(1L, "Rice");
+        tea = category(2L, "Tea");
+        index.rebuild(List.of(
+                product(10L, rice, "Daawat", "120", 5),
+                product(11L, rice, "India Gate", "80", 0),
+                product(12L, tea, "Daawat", "300", 2),
+                product(13L, tea, "Tata", "45", 7)));
+    }
+
+    @Test
+    void orsValuesWithinAFacetAndAndsAcrossFacets() {
+        FacetResult result = index.query(Map.of(
+                ProductFacetIndex.BRAND, Set.of("Daawat", "Tata"),
+                ProductFacetIndex.CATEGORY, Set.of("2")));
+
+        assertThat(result.productIds()).containsExactly(13L, 12L);
+    }
+
+    @Test
+    void countsEachValueAgainstTheOtherFacetsOnly() {
+        FacetResult result = index.query(Map.of(ProductFacetIndex.BRAND, Set.of("Daawat")));
+
+        assertThat(result.productIds()).containsExactly(12L, 10L);
+        // Alternatives within the selected facet ignore the selection itself
+        assertThat(counts(result, ProductFacetIndex.BRAND))
+                .containsExactly("Daawat=2*", "India Gate=1", "Tata=1");
+        assertThat(counts(result, ProductFacetIndex.CATEGORY)).containsExactly("Rice=1", "Tea=1");
+        assertThat(counts(result, ProductFacetIndex.PRICE)).containsExactly("100-250=1", "250-500=1");
+    }
+
+    @Test
+    void keepsASelectedValueThatNoLongerMatchesAnything() {
+        FacetResult result = index.query(Map.of(
+                ProductFacetIndex.CATEGORY, Set.of("1"),
+                ProductFacetIndex.BRAND, Set.of("Tata")));
+
+        assertThat(result.productIds()).isEmpty();
+        assertThat(counts(result, ProductFacetIndex.BRAND)).containsExactly("Daawat=1", "India Gate=1", "Tata=0*");
+    }
+
+    @Test
+    void tracksStockAndProductChanges() {
+        index.stockAdjusted(11L, 3);
+        index.stockAdjusted(10L, -5);
+        assertThat(index.query(Map.of(ProductFacetIndex.IN_STOCK, Set.of("true"))).productIds())
+                .containsExactly(13L, 12L, 11L);
+
+        index.remove(13L);
+        index.index(product(14L, tea, "Tata", "60", 1));
+        index.index(product(12L, tea, "Tata", "300", 2));
+
+        assertThat(index.query(Map.of(ProductFacetIndex.BRAND, Set.of("Tata"))).productIds())
+                .containsExactly(14L, 12L);
+        assertThat(counts(index.query(Map.of()), ProductFacetIndex.BRAND))
+                .containsExactly("Tata=2", "Daawat=1", "India Gate=1");
+    }
+
+    @Test
+    void bucketsPricesByLowerBoundInclusive() {
+        assertThat(ProductFacetIndex.priceBucket(new BigDecimal("49.99"))).isEqualTo("0-50");
+        assertThat(ProductFacetIndex.priceBucket(new BigDecimal("50"))).isEqualTo("50-100");
+        assertThat(ProductFacetIndex.priceBucket(new BigDecimal("500"))).isEqualTo("500+");
+        assertThat(ProductFacetIndex.priceBucket(null)).isNull();
+    }
+
+    private static List<String> counts(FacetResult result, String facet) {
+        return result.facets().get(facet).stream()
+                .map(count -> count.label() + "=" + count.count() + (count.selected() ? "*" : ""))
+                .toList();
+    }
+
+    private static Category category(Long id, String name) {
+        Category category = new Category();
+        category.setId(id);
+        category.setName(name);
+        return category;
+    }
+
+    private static Product product(Long id, Category category, String brand, String price, int stock) {
+        Inventory inventory = new Inventory();
+        inventory.setAvailableQuantity(stock);
+        Product product = new Product();
+        product.setId(id);
+        product.setCategory(category);
+        product.setBrand(brand);
+        product.setPrice(new BigDecimal(price));
+        product.setInventory(inventory);
+        return product;
+    }
+}
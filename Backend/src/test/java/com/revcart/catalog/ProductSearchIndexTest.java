@@ -0,0 +1,87 @@
+package com.revcart.catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.revcart.entity.Product;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the bounded {@link ProductSearchIndex#editDistance} against a plain Levenshtein table, and the
+ * fuzzy search built on it.
+ */
+class ProductSearchIndexTest {
+
+    @Test
+    void measuresInsertionsDeletionsAndSubstitutions() {
+        assertThat(ProductSearchIndex.editDistance("kitten", "sitting", 5)).isEqualTo(3);
+        assertThat(ProductSearchIndex.editDistance("basmati", "basmatti", 2)).isEqualTo(1);
+        assertThat(ProductSearchIndex.editDistance("", "rice", 5)).isEqualTo(4);
+        assertThat(ProductSearchIndex.editDistance("rice", "rice", 0)).isZero();
+    }
+
+    @Test
+    void stopsAtTheLimit() {
+        assertThat(ProductSearchIndex.editDistance("kitten", "sitting", 1)).isEqualTo(2);
+        assertThat(ProductSearchIndex.editDistance("tomato", "potato", 0)).isEqualTo(1);
+    }
+
+    @Test
+    void matchesAFullLevenshteinTableUpToTheLimit() {
+        Random random = new Random(7);
+        for (int i = 0; i < 5_000; i++) {
+            String left = word(random);
+            String right = word(random);
+            int limit = random.nextInt(4);
+
+            assertThat(ProductSearchIndex.editDistance(left, right, limit))
+                    .as("%s / %s within %d", left, right, limit)
+                    .isEqualTo(Math.min(levenshtein(left, right), limit + 1));
+        }
+    }
+
+    @Test
+    void fuzzySearchToleratesATypoInEachTerm() {
+        ProductSearchIndex index = new ProductSearchIndex(new ProductPopularity());
+        index.rebuild(List.of(product(1L, "Basmati Rice"), product(2L, "Brown Rice"), product(3L, "Jasmine Tea")));
+
+        assertThat(index.fuzzySearch("basmatti rice")).containsExactly(1L);
+        assertThat(index.search("basmatti rice")).isEmpty();
+    }
+
+    private static Product product(Long id, String name) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        return product;
+    }
+
+    // Short words over a small alphabet, so that near matches are common
+    private static String word(Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = random.nextInt(8);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(3)));
+        }
+        return word.toString();
+    }
+
+    private static int levenshtein(String left, String right) {
+        int[][] distance = new int[left.length() + 1][right.length() + 1];
+        for (int i = 0; i <= left.length(); i++) {
+            distance[i][0] = i;
+        }
+        for (int j = 0; j <= right.length(); j++) {
+            distance[0][j] = j;
+        }
+        for (int i = 1; i <= left.length(); i++) {
+            for (int j = 1; j <= right.length(); j++) {
+                int cost = left.charAt(i - 1) == right.charAt(j - 1) ? 0 : 1;
+                distance[i][j] = Math.min(Math.min(distance[i - 1][j] + 1, distance[i][j - 1] + 1),
+                        distance[i - 1][j - 1] + cost);
+            }
+        }
+        return distance[left.length()][right.length()];
+    }
+}
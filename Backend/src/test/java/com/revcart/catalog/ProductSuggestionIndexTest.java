@@ -0,0 +1,89 @@
+package com.revcart.catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.revcart.catalog.ProductSuggestionIndex.Suggestion;
+import com.revcart.entity.Category;
+import com.revcart.entity.Product;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Builds the suggestion trie from a few products and walks it with prefixes.
+ */
+class ProductSuggestionIndexTest {
+
+    private ProductPopularity popularity;
+    private ProductSuggestionIndex index;
+    private Category vegetables;
+
+    @BeforeEach
+    void setUp() {
+        popularity = new ProductPopularity();
+        index = new ProductSuggestionIndex(popularity);
+        vegetables = new Category();
+        vegetables.setId(9L);
+        vegetables.setName("Vegetables");
+    }
+
+    @Test
+    void matchesThePrefixOfAnyWordButNotTheMiddleOfOne() {
+        index.rebuild(List.of(product(1L, "Cherry Tomatoes", null), product(2L, "Tomato Ketchup", null)));
+
+        assertThat(texts(index.suggest("tom", 10))).containsExactly("Cherry Tomatoes", "Tomato Ketchup");
+        assertThat(texts(index.suggest("  CHERRY   TOM ", 10))).containsExactly("Cherry Tomatoes");
+        assertThat(index.suggest("mato", 10)).isEmpty();
+        assertThat(index.suggest(" ", 10)).isEmpty();
+    }
+
+    @Test
+    void ranksBySalesAndCapsTheResult() {
+        popularity.record(2L, 5);
+        index.rebuild(List.of(product(1L, "Carrots", vegetables), product(2L, "Cabbage", vegetables),
+                product(3L, "Cauliflower", null)));
+
+        assertThat(texts(index.suggest("ca", 10))).containsExactly("Cabbage", "Carrots", "Cauliflower");
+        assertThat(texts(index.suggest("ca", 1))).containsExactly("Cabbage");
+        assertThat(index.suggest("ca", -1)).isEmpty();
+    }
+
+    @Test
+    void suggestsCategoriesWeightedByTheirProducts() {
+        popularity.record(1L, 3);
+        index.rebuild(List.of(product(1L, "Carrots", vegetables), product(2L, "Cabbage", vegetables)));
+
+        Suggestion category = index.suggest("veg", 10).get(0);
+
+        assertThat(category.type()).isEqualTo(Suggestion.CATEGORY);
+        assertThat(category.id()).isEqualTo(9L);
+        assertThat(category.weight()).isEqualTo(4 + 1);
+    }
+
+    @Test
+    void changesShowUpAfterTheNextRefresh() {
+        index.rebuild(List.of(product(1L, "Carrots", null), product(2L, "Cabbage", null)));
+        Product inactive = product(2L, "Cabbage", null);
+        inactive.setActive(false);
+
+        index.index(product(3L, "Capsicum", null));
+        index.index(inactive);
+        index.remove(1L);
+        assertThat(texts(index.suggest("ca", 10))).containsExactly("Cabbage", "Carrots");
+
+        index.refresh();
+        assertThat(texts(index.suggest("ca", 10))).containsExactly("Capsicum");
+    }
+
+    private static Product product(Long id, String name, Category category) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setCategory(category);
+        return product;
+    }
+
+    private static List<String> texts(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::text).toList();
+    }
+}
@@ -0,0 +1,101 @@
+package com.revcart.catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.revcart.entity.Category;
+import com.revcart.entity.Product;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A three-hour window on a clock the test moves by hand, so hours can be made to fall out of it.
+ */
+class SalesRankingTest {
+
+    private static final Instant START = Instant.parse("2026-10-01T10:30:00Z");
+
+    private Instant now = START;
+    private SalesRanking ranking;
+
+    @BeforeEach
+    void setUp() {
+        ranking = new SalesRanking(3) {
+            @Override
+            Instant now() {
+                return now;
+            }
+        };
+        ranking.rebuild(List.of(product(1L, 10L), product(2L, 10L), product(3L, 20L)));
+    }
+
+    @Test
+    void ranksByUnitsInTheWindow() {
+        ranking.salesRecorded(1L, 5, now);
+        ranking.salesRecorded(2L, 3, now);
+        ranking.salesRecorded(3L, 4, now);
+
+        assertThat(ranking.top(null, 10)).containsExactly(1L, 3L, 2L);
+        assertThat(ranking.top(10L, 10)).containsExactly(1L, 2L);
+        assertThat(ranking.top(20L, 10)).containsExactly(3L);
+    }
+
+    @Test
+    void hoursLeavingTheWindowAreSubtractedAgain() {
+        ranking.salesRecorded(1L, 5, now);
+        ranking.salesRecorded(2L, 1, now);
+        moveHours(2);
+        ranking.salesRecorded(2L, 3, now);
+
+        ranking.advance();
+        assertThat(ranking.top(null, 10)).containsExactly(1L, 2L);
+
+        moveHours(1);
+        ranking.advance();
+
+        assertThat(ranking.unitsInWindow(1L)).isZero();
+        assertThat(ranking.unitsInWindow(2L)).isEqualTo(3);
+        assertThat(ranking.top(null, 10)).containsExactly(2L);
+        assertThat(ranking.top(10L, 10)).containsExactly(2L);
+    }
+
+    @Test
+    void aBucketReusedForANewHourDropsItsOldSales() {
+        ranking.salesRecorded(1L, 5, now);
+        moveHours(3);
+
+        // Same slot as the first sale, three hours later; advance() has not run in between
+        ranking.salesRecorded(2L, 1, now);
+
+        assertThat(ranking.unitsInWindow(1L)).isZero();
+        assertThat(ranking.top(null, 10)).containsExactly(2L);
+    }
+
+    @Test
+    void cancellationsOfSalesOutsideTheWindowAreIgnored() {
+        ranking.salesRecorded(1L, 2, now);
+        Instant soldAt = now;
+        moveHours(5);
+        ranking.advance();
+
+        ranking.salesRecorded(1L, -2, soldAt);
+
+        assertThat(ranking.unitsInWindow(1L)).isZero();
+        assertThat(ranking.top(null, 10)).isEmpty();
+    }
+
+    private void moveHours(int hours) {
+        now = now.plus(Duration.ofHours(hours));
+    }
+
+    private static Product product(Long id, Long categoryId) {
+        Category category = new Category();
+        category.setId(categoryId);
+        Product product = new Product();
+        product.setId(id);
+        product.setCategory(category);
+        return product;
+    }
+}
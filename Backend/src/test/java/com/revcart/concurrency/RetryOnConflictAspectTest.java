@@ -0,0 +1,81 @@
+package com.revcart.concurrency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.revcart.entity.Cart;
+import com.revcart.entity.Inventory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+/**
+ * Drives {@link RetryOnConflictAspect} through a proxy whose methods fail on a version conflict a given
+ * number of times.
+ */
+class RetryOnConflictAspectTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private Writer writer;
+    private Writer proxy;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        writer = new Writer();
+        AspectJProxyFactory factory = new AspectJProxyFactory(writer);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new RetryOnConflictAspect(meterRegistry));
+        proxy = factory.getProxy();
+    }
+
+    @Test
+    void retriesAConflictUntilAnAttemptSucceeds() {
+        writer.failures = 2;
+
+        assertThat(proxy.write(Cart.class)).isEqualTo(3);
+        assertThat(conflicts("Cart", "retried")).isEqualTo(2);
+    }
+
+    @Test
+    void passesOnConflictsOfExcludedEntities() {
+        writer.failures = 1;
+
+        assertThatThrownBy(() -> proxy.write(Inventory.class))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(writer.attempts.get()).isEqualTo(1);
+        assertThat(conflicts("Inventory", "rejected")).isEqualTo(1);
+    }
+
+    @Test
+    void givesUpAfterTheLastAttempt() {
+        writer.failures = 5;
+
+        assertThatThrownBy(() -> proxy.write(Cart.class))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(writer.attempts.get()).isEqualTo(3);
+        assertThat(conflicts("Cart", "exhausted")).isEqualTo(1);
+    }
+
+    private double conflicts(String entity, String outcome) {
+        return meterRegistry.counter("revcart.optimistic.conflicts",
+                "method", "Writer.write", "entity", entity, "outcome", outcome).count();
+    }
+
+    static class Writer {
+        private final AtomicInteger attempts = new AtomicInteger();
+        private int failures;
+
+        @RetryOnConflict(backoffMillis = 0, noRetryFor = Inventory.class)
+        public int write(Class<?> entity) {
+            int attempt = attempts.incrementAndGet();
+            if (attempt <= failures) {
+                throw new ObjectOptimisticLockingFailureException(entity, 1L);
+            }
+            return attempt;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.revcart.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Two embedded databases wired as in {@code PersistenceConfig}: each one answers with its own name, so
+ * the test can tell which of them served a transaction.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private DriverManagerDataSource primary;
+    private SwitchableDataSource replica;
+    private ReplicaRoutingDataSource routing;
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = new SwitchableDataSource(database("replica"));
+        routing = new ReplicaRoutingDataSource(List.of(replica), primary);
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        new JdbcTemplate(primary).execute("SHUTDOWN");
+        new JdbcTemplate(replica.target).execute("SHUTDOWN");
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        assertThat(servedBy(true)).isEqualTo("replica");
+        assertThat(servedBy(false)).isEqualTo("primary");
+    }
+
+    @Test
+    void connectionsWithExplicitCredentialsAreRoutedTheSameWay() throws SQLException {
+        try (Connection connection = routing.getConnection("sa", "")) {
+            assertThat(name(connection)).isEqualTo("replica");
+        }
+        replica.down = true;
+        try (Connection connection = routing.getConnection("sa", "")) {
+            assertThat(name(connection)).isEqualTo("primary");
+        }
+    }
+
+    @Test
+    void readsFallBackToThePrimaryUntilTheReplicaRecovers() {
+        replica.down = true;
+
+        assertThat(servedBy(true)).isEqualTo("primary");
+        assertThat(routing.healthyReplicas()).isZero();
+
+        replica.down = false;
+        assertThat(servedBy(true)).isEqualTo("primary");
+        routing.checkHealth();
+        assertThat(routing.healthyReplicas()).isEqualTo(1);
+        assertThat(servedBy(true)).isEqualTo("replica");
+    }
+
+    private String servedBy(boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status ->
+                jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    private static String name(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery("SELECT name FROM node")) {
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+
+    private static DriverManagerDataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(16))");
+        jdbcTemplate.update("INSERT INTO node (name) VALUES (?)", name);
+        return dataSource;
+    }
+
+    private static final class SwitchableDataSource extends AbstractDataSource {
+        private final DataSource target;
+        private volatile boolean down;
+
+        private SwitchableDataSource(DataSource target) {
+            this.target = target;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return getConnection("sa", "");
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            if (down) {
+                throw new SQLException("Connection refused");
+            }
+            return target.getConnection(username, password);
+        }
+    }
+}
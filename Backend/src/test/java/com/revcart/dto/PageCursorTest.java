@@ -0,0 +1,39 @@
+package com.revcart.dto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.revcart.exception.BadRequestException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Cursors come back from clients, so anything that does not decode to a position must be a 400.
+ */
+class PageCursorTest {
+
+    @Test
+    void decodesWhatItEncoded() {
+        PageCursor cursor = new PageCursor(Instant.parse("2026-10-01T10:15:30.123456Z"), 42L);
+
+        assertThat(PageCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "2026-10-01T10:15:30Z", "2026-10-01T10:15:30Z|", "2026-10-01T10:15:30Z|x",
+            "yesterday|42", "|42"})
+    void rejectsPositionsThatDoNotParse(String raw) {
+        String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> PageCursor.decode(cursor)).isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void rejectsCursorsThatAreNotBase64() {
+        assertThatThrownBy(() -> PageCursor.decode("not a cursor!")).isInstanceOf(BadRequestException.class);
+    }
+}
@@ -0,0 +1,113 @@
+package com.revcart.idempotency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revcart.dto.PaymentDto;
+import com.revcart.dto.request.PaymentCaptureRequest;
+import com.revcart.enums.PaymentMethod;
+import com.revcart.enums.PaymentStatus;
+import com.revcart.exception.IdempotencyConflictException;
+import com.revcart.support.InMemoryRedis;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Two nodes sharing one Redis stand-in that serializes values the way the real template does: a key used
+ * on one node must be honoured on the other.
+ */
+class IdempotencyStoreTest {
+
+    private final InMemoryRedis redis = new InMemoryRedis();
+    private final AtomicInteger runs = new AtomicInteger();
+    private IdempotencyStore nodeA;
+    private IdempotencyStore nodeB;
+
+    @BeforeEach
+    void setUp() {
+        nodeA = node();
+        nodeB = node();
+    }
+
+    @Test
+    void aRetryOnAnotherNodeReplaysTheResult() {
+        PaymentDto first = nodeA.execute("capture", "key-1", capture("pay_1"), this::pay);
+        PaymentDto second = nodeB.execute("capture", "key-1", capture("pay_1"), this::pay);
+
+        assertThat(runs.get()).isEqualTo(1);
+        assertThat(second).isEqualTo(first);
+    }
+
+    @Test
+    void aKeyReusedForAnotherRequestIsRejectedOnEveryNode() {
+        nodeA.execute("capture", "key-1", capture("pay_1"), this::pay);
+
+        assertThatThrownBy(() -> nodeB.execute("capture", "key-1", capture("pay_2"), this::pay))
+                .isInstanceOf(IdempotencyConflictException.class);
+    }
+
+    @Test
+    void aFailedExecutionCanBeRetriedElsewhere() {
+        assertThatThrownBy(() -> nodeA.execute("capture", "key-1", capture("pay_1"), () -> {
+            throw new IllegalStateException("gateway down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        nodeB.execute("capture", "key-1", capture("pay_1"), this::pay);
+
+        assertThat(runs.get()).isEqualTo(1);
+    }
+
+    @Test
+    void aDuplicateGivesUpWhileTheFirstRequestIsStillRunning() {
+        nodeA.execute("capture", "key-1", capture("pay_1"), () -> {
+            assertThatThrownBy(() -> nodeB.execute("capture", "key-1", capture("pay_1"), this::pay))
+                    .isInstanceOf(IdempotencyConflictException.class)
+                    .hasMessageContaining("still in progress");
+            return pay();
+        });
+
+        assertThat(runs.get()).isEqualTo(1);
+    }
+
+    @Test
+    void aClaimLeftByANodeThatStoppedRespondingExpiresWithItsLease() {
+        nodeA.execute("capture", "key-1", capture("pay_1"), () -> {
+            // Node A hangs past the lease; its claim no longer blocks the retry
+            redis.elapse(Duration.ofSeconds(1));
+            PaymentDto retried = nodeB.execute("capture", "key-1", capture("pay_1"), this::pay);
+            assertThat(retried.getId()).isEqualTo(1L);
+            return pay();
+        });
+
+        assertThat(runs.get()).isEqualTo(2);
+    }
+
+    @Test
+    void aCompletedResultIsKeptForTheFullTtl() {
+        PaymentDto first = nodeA.execute("capture", "key-1", capture("pay_1"), this::pay);
+
+        redis.elapse(Duration.ofHours(23));
+
+        assertThat(nodeB.execute("capture", "key-1", capture("pay_1"), this::pay)).isEqualTo(first);
+        assertThat(runs.get()).isEqualTo(1);
+    }
+
+    private PaymentDto pay() {
+        return PaymentDto.builder().id((long) runs.incrementAndGet()).status(PaymentStatus.SUCCESS).build();
+    }
+
+    private static PaymentCaptureRequest capture(String providerPaymentId) {
+        PaymentCaptureRequest request = new PaymentCaptureRequest();
+        request.setOrderId(5L);
+        request.setMethod(PaymentMethod.RAZORPAY);
+        request.setProviderPaymentId(providerPaymentId);
+        return request;
+    }
+
+    private IdempotencyStore node() {
+        return new IdempotencyStore(redis.provider(), new ObjectMapper(), Duration.ofHours(24), 1_000, 200);
+    }
+}
@@ -0,0 +1,308 @@
+package com.revcart.monitoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+import com.revcart.cache.ProductCacheInvalidator;
+import com.revcart.catalog.CatalogIndexer;
+import com.revcart.catalog.CoPurchaseIndex;
+import com.revcart.catalog.ProductFacetIndex;
+import com.revcart.catalog.ProductPopularity;
+import com.revcart.catalog.ProductSearchIndex;
+import com.revcart.catalog.ProductSuggestionIndex;
+import com.revcart.catalog.SalesRanking;
+import com.revcart.config.PersistenceConfig;
+import com.revcart.controller.DeliveryController;
+import com.revcart.controller.OrderController;
+import com.revcart.controller.ProductController;
+import com.revcart.controller.RecommendationController;
+import com.revcart.entity.Address;
+import com.revcart.entity.Category;
+import com.revcart.entity.Inventory;
+import com.revcart.entity.Order;
+import com.revcart.entity.OrderItem;
+import com.revcart.entity.Payment;
+import com.revcart.entity.Product;
+import com.revcart.entity.User;
+import com.revcart.enums.OrderStatus;
+import com.revcart.enums.PaymentMethod;
+import com.revcart.enums.UserRole;
+import com.revcart.idempotency.IdempotencyStore;
+import com.revcart.outbox.OrderOutbox;
+import com.revcart.repository.AddressRepository;
+import com.revcart.repository.CategoryRepository;
+import com.revcart.repository.InventoryRepository;
+import com.revcart.repository.OrderRepository;
+import com.revcart.repository.ProductRepository;
+import com.revcart.repository.UserRepository;
+import com.revcart.service.AsyncCheckoutService;
+import com.revcart.service.HotStockService;
+import com.revcart.service.PaymentService;
+import com.revcart.service.ProductImportService;
+import com.revcart.service.StockHoldService;
+import com.revcart.service.impl.OrderServiceImpl;
+import com.revcart.service.impl.ProductServiceImpl;
+import com.revcart.service.impl.RecommendationServiceImpl;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Calls every {@link QueryBudget} endpoint against an embedded database holding a few products and
+ * orders and fails when one issues more statements than its budget. Runs outside a test transaction,
+ * so nothing is served from a persistence context warmed up by the fixtures.
+ */
+@DataJpaTest
+@Import({PersistenceConfig.class, QueryCounter.class, ProductServiceImpl.class, OrderServiceImpl.class,
+        RecommendationServiceImpl.class, ProductController.class, OrderController.class, DeliveryController.class,
+        RecommendationController.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EndpointQueryBudgetTest {
+
+    private static final String CUSTOMER = "customer@revcart.test";
+    private static final String AGENT = "agent@revcart.test";
+
+    @MockBean
+    private ProductSearchIndex searchIndex;
+    @MockBean
+    private ProductFacetIndex facetIndex;
+    @MockBean
+    private ProductSuggestionIndex suggestionIndex;
+    @MockBean
+    private ProductPopularity popularity;
+    @MockBean
+    private CatalogIndexer catalogIndexer;
+    @MockBean
+    private ProductCacheInvalidator productCacheInvalidator;
+    @MockBean
+    private SalesRanking salesRanking;
+    @MockBean
+    private ProductImportService productImportService;
+    @MockBean
+    private HotStockService hotStockService;
+    @MockBean
+    private OrderOutbox orderOutbox;
+    @MockBean
+    private PaymentService paymentService;
+    @MockBean
+    private StockHoldService stockHoldService;
+    @MockBean
+    private StageTimer stageTimer;
+    @MockBean
+    private AsyncCheckoutService asyncCheckoutService;
+    @MockBean
+    private IdempotencyStore idempotencyStore;
+    @MockBean
+    private CoPurchaseIndex coPurchaseIndex;
+    @MockBean(name = "recommendationExecutor")
+    private ThreadPoolTaskExecutor recommendationExecutor;
+
+    @Autowired
+    private QueryCounter queryCounter;
+    @Autowired
+    private ProductController productController;
+    @Autowired
+    private OrderController orderController;
+    @Autowired
+    private DeliveryController deliveryController;
+    @Autowired
+    private RecommendationController recommendationController;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private AddressRepository addressRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private final List<Product> products = new ArrayList<>();
+    private final List<Order> orders = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Category category = new Category();
+        category.setName("Fruit");
+        category.setSlug("fruit");
+        categoryRepository.save(category);
+        for (int i = 0; i < 3; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setPrice(BigDecimal.TEN);
+            product.setSku("SKU-" + i);
+            product.setCategory(category);
+            products.add(productRepository.save(product));
+            Inventory inventory = new Inventory();
+            inventory.setProduct(product);
+            inventory.setAvailableQuantity(50);
+            inventory.setReservedQuantity(0);
+            inventoryRepository.save(inventory);
+        }
+
+        User customer = userRepository.save(user(CUSTOMER, UserRole.CUSTOMER));
+        User agent = userRepository.save(user(AGENT, UserRole.DELIVERY_AGENT));
+        Address address = new Address();
+        address.setLine1("1 Main Street");
+        address.setCity("Pune");
+        address.setState("MH");
+        address.setPostalCode("411001");
+        address.setCountry("IN");
+        address.setUser(customer);
+        addressRepository.save(address);
+        for (OrderStatus status : List.of(OrderStatus.PLACED, OrderStatus.PACKED, OrderStatus.OUT_FOR_DELIVERY)) {
+            orders.add(orderRepository.save(order(customer, agent, address, status)));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        orderRepository.deleteAll();
+        addressRepository.deleteAll();
+        userRepository.deleteAll();
+        inventoryRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    void productEndpointsStayWithinBudget() {
+        List<Long> productIds = products.stream().map(Product::getId).toList();
+        when(facetIndex.query(any())).thenReturn(new ProductFacetIndex.FacetResult(productIds, Map.of()));
+        when(salesRanking.top(any(), anyInt())).thenReturn(productIds);
+
+        assertThat(withinBudget(productController, "list",
+                () -> productController.list(null, 0, 12, null, false)).getContent()).hasSize(3);
+        assertThat(withinBudget(productController, "browse",
+                () -> productController.browse(Set.of("fruit"), null, null, null, null, 0, 12)).getProducts()
+                .getContent()).hasSize(3);
+        assertThat(withinBudget(productController, "bestSellers",
+                () -> productController.bestSellers(null, 12))).hasSize(3);
+        assertThat(withinBudget(productController, "featured", productController::featured)).hasSize(3);
+        assertThat(withinBudget(productController, "get",
+                () -> productController.get(products.get(0).getId())).getId()).isEqualTo(products.get(0).getId());
+    }
+
+    @Test
+    void recommendationEndpointsStayWithinBudget() {
+        List<Long> neighbors = List.of(products.get(1).getId(), products.get(2).getId());
+        when(coPurchaseIndex.neighbors(any(), anyInt())).thenReturn(neighbors);
+        when(coPurchaseIndex.forBasket(any(), anyInt())).thenReturn(neighbors);
+
+        assertThat(withinBudget(recommendationController, "forProduct",
+                () -> recommendationController.forProduct(products.get(0).getId(), 8))).hasSize(2);
+        assertThat(withinBudget(recommendationController, "forProducts",
+                () -> recommendationController.forProducts(List.of(products.get(0).getId()), 8))).hasSize(2);
+    }
+
+    @Test
+    void customerOrderEndpointsStayWithinBudget() {
+        signIn(CUSTOMER);
+        assertThat(withinBudget(orderController, "myOrders", () -> orderController.myOrders(0, 10)).getContent())
+                .hasSize(3);
+        assertThat(withinBudget(orderController, "getOrder",
+                () -> orderController.getOrder(orders.get(0).getId())).getItems()).hasSize(2);
+    }
+
+    @Test
+    void adminOrderEndpointsStayWithinBudget() {
+        assertThat(withinBudget(orderController, "allOrders", () -> orderController.allOrders(0, 10, null))
+                .getContent()).hasSize(3);
+        assertThat(withinBudget(orderController, "allOrders", () -> orderController.allOrders(0, 10, ""))
+                .getContent()).hasSize(3);
+    }
+
+    @Test
+    void deliveryEndpointsStayWithinBudget() {
+        signIn(AGENT);
+        assertThat(withinBudget(deliveryController, "getAssignedOrders", deliveryController::getAssignedOrders)
+                .getData()).isNotEmpty();
+        assertThat(withinBudget(deliveryController, "getInTransitOrders", deliveryController::getInTransitOrders)
+                .getData()).isNotEmpty();
+        assertThat(withinBudget(deliveryController, "getPendingOrders", deliveryController::getPendingOrders)
+                .getData()).isNotEmpty();
+        assertThat(withinBudget(deliveryController, "myDeliveries",
+                () -> deliveryController.myDeliveries(OrderStatus.PACKED, 0, 10)).getContent()).hasSize(1);
+    }
+
+    private <T> T withinBudget(Object controller, String endpoint, Supplier<T> call) {
+        Method method = Arrays.stream(AopUtils.getTargetClass(controller).getMethods())
+                .filter(candidate -> candidate.getName().equals(endpoint))
+                .findFirst()
+                .orElseThrow();
+        int budget = method.getAnnotation(QueryBudget.class).value();
+        queryCounter.reset();
+        T result = call.get();
+        assertThat(queryCounter.current())
+                .as("SQL statements issued by %s.%s", method.getDeclaringClass().getSimpleName(), endpoint)
+                .isLessThanOrEqualTo(budget);
+        return result;
+    }
+
+    private static void signIn(String email) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(email, null, List.of()));
+    }
+
+    private static User user(String email, UserRole role) {
+        User user = new User();
+        user.setFullName(email);
+        user.setEmail(email);
+        user.setPassword("secret");
+        user.setRole(role);
+        return user;
+    }
+
+    private Order order(User customer, User agent, Address address, OrderStatus status) {
+        Order order = new Order();
+        order.setUser(customer);
+        order.setShippingAddress(address);
+        order.setStatus(status);
+        if (status != OrderStatus.PLACED) {
+            order.setDeliveryAgent(agent);
+        }
+        BigDecimal total = BigDecimal.ZERO;
+        for (Product product : products.subList(0, 2)) {
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setProduct(product);
+            item.setQuantity(1);
+            item.setUnitPrice(product.getPrice());
+            item.setSubtotal(product.getPrice());
+            order.getItems().add(item);
+            total = total.add(item.getSubtotal());
+        }
+        order.setTotalAmount(total);
+        Payment payment = new Payment();
+        payment.setOrder(order);
+        payment.setMethod(PaymentMethod.COD);
+        payment.setAmount(total);
+        payment.setCurrency("INR");
+        order.setPayment(payment);
+        return order;
+    }
+}
@@ -0,0 +1,139 @@
+package com.revcart.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.revcart.dto.projection.StockShortage;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Hundreds of checkouts racing for the same inventory rows, each reservation in its own transaction as
+ * in {@code OrderServiceImpl.placeOrder}. Whatever the interleaving, exactly the initial stock is sold.
+ */
+class InventoryReservationConcurrencyTest {
+
+    private static final int STOCK = 100;
+    private static final int CHECKOUTS = 400;
+    private static final int THREADS = 32;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private InventoryRepositoryCustomImpl inventory;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+        new ResourceDatabasePopulator(new ClassPathResource("db/inventory.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        inventory = new InventoryRepositoryCustomImpl(new NamedParameterJdbcTemplate(dataSource));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    void parallelCheckoutsSellExactlyTheStock() throws Exception {
+        addInventory(1L, STOCK);
+
+        int sold = checkout(() -> inventory.reserveAll(Map.of(1L, 1)));
+
+        assertThat(sold).isEqualTo(STOCK);
+        assertThat(available(1L)).isZero();
+    }
+
+    @Test
+    void parallelMultiLineCheckoutsSellExactlyTheStock() throws Exception {
+        addInventory(1L, STOCK);
+        addInventory(2L, STOCK);
+        AtomicInteger turn = new AtomicInteger();
+
+        // Lines arrive in both orders; the repository must lock them in one order regardless
+        int sold = checkout(() -> {
+            Map<Long, Integer> lines = new LinkedHashMap<>();
+            if (turn.getAndIncrement() % 2 == 0) {
+                lines.put(1L, 1);
+                lines.put(2L, 1);
+            } else {
+                lines.put(2L, 1);
+                lines.put(1L, 1);
+            }
+            return inventory.reserveAll(lines);
+        });
+
+        assertThat(sold).isEqualTo(STOCK);
+        assertThat(available(1L)).isZero();
+        assertThat(available(2L)).isZero();
+    }
+
+    @Test
+    void shortCheckoutReportsTheLineAndTakesNothing() {
+        addInventory(1L, 5);
+        addInventory(2L, 1);
+
+        List<StockShortage> shortages = transactionTemplate.execute(
+                status -> inventory.reserveAll(Map.of(1L, 2, 2L, 3)));
+
+        assertThat(shortages).containsExactly(new StockShortage(2L, 3, 1));
+        assertThat(available(1L)).isEqualTo(5);
+        assertThat(available(2L)).isEqualTo(1);
+    }
+
+    private int checkout(Supplier<List<StockShortage>> reservation) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger sold = new AtomicInteger();
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < CHECKOUTS; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    if (transactionTemplate.execute(status -> reservation.get()).isEmpty()) {
+                        sold.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return sold.get();
+    }
+
+    private void addInventory(Long productId, int quantity) {
+        jdbcTemplate.update("INSERT INTO inventory (product_id, available_quantity, reserved_quantity) VALUES (?, ?, 0)",
+                productId, quantity);
+    }
+
+    private int available(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT available_quantity FROM inventory WHERE product_id = ?",
+                Integer.class, productId);
+    }
+}
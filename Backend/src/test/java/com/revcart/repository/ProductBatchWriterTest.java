@@ -0,0 +1,76 @@
+package com.revcart.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.revcart.catalog.feed.ProductFeedRow;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+/**
+ * Upserts against a database whose SKU column, like MySQL's default collation, ignores case and accents.
+ */
+class ProductBatchWriterTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private ProductBatchWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        new ResourceDatabasePopulator(new ClassPathResource("db/products.sql"), new ClassPathResource("db/inventory.sql"))
+                .execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        writer = new ProductBatchWriter(jdbcTemplate, new NamedParameterJdbcTemplate(dataSource));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    void insertsProductsWithTheirStock() {
+        Map<String, Long> ids = writer.upsert(List.of(row("SKU-1", 5), row("SKU-2", 7)));
+
+        assertThat(ids).containsOnlyKeys("SKU-1", "SKU-2");
+        assertThat(stockOf(ids.get("SKU-1"))).isEqualTo(5);
+        assertThat(stockOf(ids.get("SKU-2"))).isEqualTo(7);
+    }
+
+    @Test
+    void aSkuSpelledDifferentlyFromTheStoredOneUpdatesThatProduct() {
+        Long id = writer.upsert(List.of(row("CAFÉ-1", 5))).get("CAFÉ-1");
+
+        Map<String, Long> ids = writer.upsert(List.of(row("cafe-1", 9)));
+
+        assertThat(ids).containsEntry("cafe-1", id);
+        assertThat(stockOf(id)).isEqualTo(9);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void skuKeysIgnoreCaseAndAccentsOnly() {
+        assertThat(ProductBatchWriter.skuKey("Café-1")).isEqualTo(ProductBatchWriter.skuKey("CAFE-1"));
+        assertThat(ProductBatchWriter.skuKey("SKU-1")).isNotEqualTo(ProductBatchWriter.skuKey("SKU1"));
+    }
+
+    private Integer stockOf(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT available_quantity FROM inventory WHERE product_id = ?",
+                Integer.class, productId);
+    }
+
+    private static ProductFeedRow row(String sku, int quantity) {
+        return new ProductFeedRow(sku, "Product " + sku, null, BigDecimal.TEN, null, null, null, true, null, quantity);
+    }
+}
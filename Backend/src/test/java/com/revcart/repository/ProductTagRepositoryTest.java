@@ -0,0 +1,54 @@
+package com.revcart.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.revcart.entity.Product;
+import com.revcart.entity.Product.ProductTag;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+/**
+ * The best-seller refresh may only take away the tags it assigned itself.
+ */
+@DataJpaTest
+class ProductTagRepositoryTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void clearsAutomaticTagsButKeepsManualOnes() {
+        Long manual = product("SKU-1", ProductTag.BEST_SELLER);
+        Long automatic = product("SKU-2", null);
+        Long dealOfDay = product("SKU-3", ProductTag.DEAL_OF_DAY);
+
+        assertThat(productRepository.tagUntagged(List.of(automatic, dealOfDay), ProductTag.BEST_SELLER)).isEqualTo(1);
+        assertThat(productRepository.findIdsByAutoTag(ProductTag.BEST_SELLER)).containsExactly(automatic);
+
+        assertThat(productRepository.clearAutoTag(List.of(manual, automatic), ProductTag.BEST_SELLER)).isEqualTo(1);
+        assertThat(tagOf(manual)).isEqualTo(ProductTag.BEST_SELLER);
+        assertThat(tagOf(automatic)).isNull();
+        assertThat(tagOf(dealOfDay)).isEqualTo(ProductTag.DEAL_OF_DAY);
+        assertThat(productRepository.findIdsByAutoTag(ProductTag.BEST_SELLER)).isEmpty();
+    }
+
+    private Long product(String sku, ProductTag tag) {
+        Product product = new Product();
+        product.setName(sku);
+        product.setPrice(BigDecimal.ONE);
+        product.setSku(sku);
+        product.setTag(tag);
+        return productRepository.saveAndFlush(product).getId();
+    }
+
+    private ProductTag tagOf(Long id) {
+        entityManager.clear();
+        return entityManager.find(Product.class, id).getTag();
+    }
+}
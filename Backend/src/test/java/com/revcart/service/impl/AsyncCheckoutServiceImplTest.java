@@ -0,0 +1,85 @@
+package com.revcart.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.revcart.dto.CheckoutStatusDto;
+import com.revcart.dto.OrderDto;
+import com.revcart.dto.request.CheckoutRequest;
+import com.revcart.exception.ResourceNotFoundException;
+import com.revcart.service.NotificationService;
+import com.revcart.service.OrderService;
+import com.revcart.support.InMemoryRedis;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * A checkout submitted on one node and polled on another, both backed by the same Redis stand-in. The
+ * executor runs jobs inline.
+ */
+class AsyncCheckoutServiceImplTest {
+
+    private final InMemoryRedis redis = new InMemoryRedis();
+    private OrderService orderService;
+    private AsyncCheckoutServiceImpl nodeA;
+    private AsyncCheckoutServiceImpl nodeB;
+
+    @BeforeEach
+    void setUp() {
+        orderService = mock(OrderService.class);
+        nodeA = node();
+        nodeB = node();
+        signIn("asha@example.com");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void anotherNodeSeesTheOutcomeOfAJob() {
+        CheckoutRequest request = new CheckoutRequest();
+        when(orderService.validateCheckout(request)).thenReturn(7L);
+        when(orderService.placeOrder(eq(7L), any())).thenReturn(OrderDto.builder().id(40L).build());
+
+        CheckoutStatusDto submitted = nodeA.submit(request);
+        CheckoutStatusDto polled = nodeB.status(submitted.getCheckoutId());
+
+        assertThat(polled.getStatus()).isEqualTo("COMPLETED");
+        assertThat(polled.getOrder().getId()).isEqualTo(40L);
+    }
+
+    @Test
+    void jobsAreOnlyVisibleToTheirOwner() {
+        CheckoutRequest request = new CheckoutRequest();
+        when(orderService.validateCheckout(request)).thenReturn(7L);
+        String checkoutId = nodeA.submit(request).getCheckoutId();
+
+        signIn("ravi@example.com");
+
+        assertThatThrownBy(() -> nodeB.status(checkoutId)).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private AsyncCheckoutServiceImpl node() {
+        ThreadPoolTaskExecutor executor = mock(ThreadPoolTaskExecutor.class);
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(executor).execute(any(Runnable.class));
+        return new AsyncCheckoutServiceImpl(orderService, mock(NotificationService.class), executor, redis.provider());
+    }
+
+    private static void signIn(String email) {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(email, null));
+    }
+}
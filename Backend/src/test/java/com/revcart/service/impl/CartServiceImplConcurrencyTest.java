@@ -0,0 +1,169 @@
+package com.revcart.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+
+import com.revcart.concurrency.RetryOnConflictAspect;
+import com.revcart.dto.request.CartItemRequest;
+import com.revcart.entity.Cart;
+import com.revcart.entity.Category;
+import com.revcart.entity.Product;
+import com.revcart.entity.User;
+import com.revcart.enums.UserRole;
+import com.revcart.repository.CartRepository;
+import com.revcart.repository.CategoryRepository;
+import com.revcart.repository.ProductRepository;
+import com.revcart.repository.UserRepository;
+import com.revcart.service.CartService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Two first adds of the same customer, held until both have seen that there is no cart yet, so both try
+ * to create it. Runs outside a test transaction, with the retry aspect in front of the service as in the
+ * application.
+ */
+@DataJpaTest
+@Import({CartServiceImpl.class, CartServiceImplConcurrencyTest.RetryConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CartServiceImplConcurrencyTest {
+
+    private static final String CUSTOMER = "customer@revcart.test";
+
+    @SpyBean
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartService cartService;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private User customer;
+    private Product apple;
+    private Product pear;
+
+    @BeforeEach
+    void setUp() {
+        Category category = new Category();
+        category.setName("Fruit");
+        category.setSlug("fruit");
+        categoryRepository.save(category);
+        apple = productRepository.save(product(category, "Apple"));
+        pear = productRepository.save(product(category, "Pear"));
+
+        customer = new User();
+        customer.setFullName(CUSTOMER);
+        customer.setEmail(CUSTOMER);
+        customer.setPassword("secret");
+        customer.setRole(UserRole.CUSTOMER);
+        customer = userRepository.save(customer);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        cartRepository.deleteAll();
+        userRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentFirstAddsShareOneCart() throws Exception {
+        CyclicBarrier bothFoundNoCart = new CyclicBarrier(2);
+        // The spy of a repository proxy forwards to it through its default answer
+        Answer<?> repository = mockingDetails(cartRepository).getMockCreationSettings().getDefaultAnswer();
+        doAnswer(invocation -> {
+            Optional<?> cart = (Optional<?>) repository.answer(invocation);
+            if (cart.isEmpty()) {
+                bothFoundNoCart.await(10, TimeUnit.SECONDS);
+            }
+            return cart;
+        }).when(cartRepository).findForWriteByUser(any());
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = executor.submit(() -> add(apple));
+            Future<?> second = executor.submit(() -> add(pear));
+            first.get(30, TimeUnit.SECONDS);
+            second.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<Cart> carts = cartRepository.findAll();
+        assertThat(carts).hasSize(1);
+        signIn();
+        assertThat(cartService.getMyCart().getItems()).hasSize(2);
+    }
+
+    private void add(Product product) {
+        signIn();
+        try {
+            CartItemRequest request = new CartItemRequest();
+            request.setProductId(product.getId());
+            request.setQuantity(1);
+            cartService.addItem(request);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static void signIn() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(CUSTOMER, null, List.of()));
+    }
+
+    private static Product product(Category category, String name) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(BigDecimal.TEN);
+        product.setSku("SKU-" + name);
+        product.setCategory(category);
+        return product;
+    }
+
+    @TestConfiguration
+    @EnableAspectJAutoProxy
+    static class RetryConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        RetryOnConflictAspect retryOnConflictAspect(MeterRegistry meterRegistry) {
+            return new RetryOnConflictAspect(meterRegistry);
+        }
+    }
+}
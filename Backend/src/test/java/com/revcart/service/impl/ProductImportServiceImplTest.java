@@ -0,0 +1,83 @@
+package com.revcart.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revcart.cache.ProductCacheInvalidator;
+import com.revcart.catalog.CatalogIndexer;
+import com.revcart.catalog.feed.FeedFormat;
+import com.revcart.dto.ProductImportStatusDto;
+import com.revcart.entity.Category;
+import com.revcart.exception.ResourceNotFoundException;
+import com.revcart.repository.CategoryRepository;
+import com.revcart.repository.ProductBatchWriter;
+import com.revcart.support.InMemoryRedis;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * An import run on one node and polled on another, both backed by the same Redis stand-in. The executor
+ * runs imports inline.
+ */
+class ProductImportServiceImplTest {
+
+    private final InMemoryRedis redis = new InMemoryRedis();
+    private CategoryRepository categoryRepository;
+    private ProductImportServiceImpl nodeA;
+    private ProductImportServiceImpl nodeB;
+
+    @BeforeEach
+    void setUp() {
+        Category fruit = new Category();
+        fruit.setId(3L);
+        fruit.setName("Fruit");
+        categoryRepository = mock(CategoryRepository.class);
+        when(categoryRepository.findAll()).thenReturn(List.of(fruit));
+        nodeA = node();
+        nodeB = node();
+    }
+
+    @Test
+    void anotherNodeSeesTheOutcomeOfAnImport() {
+        String feed = """
+                sku,name,price,category
+                SKU-1,Apple,10,Fruit
+                SKU-2,Pear,,Fruit
+                """;
+
+        String jobId = nodeA.start(new ByteArrayInputStream(feed.getBytes(StandardCharsets.UTF_8)), FeedFormat.CSV)
+                .getJobId();
+        ProductImportStatusDto polled = nodeB.status(jobId);
+
+        assertThat(polled.getStatus()).isEqualTo("COMPLETED");
+        assertThat(polled.getRowsRead()).isEqualTo(2);
+        assertThat(polled.getRowsImported()).isEqualTo(1);
+        assertThat(polled.getRowsRejected()).isEqualTo(1);
+        assertThat(polled.getErrors()).hasSize(1);
+    }
+
+    @Test
+    void anUnknownJobIsNotFound() {
+        assertThatThrownBy(() -> nodeB.status("missing")).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private ProductImportServiceImpl node() {
+        ThreadPoolTaskExecutor executor = mock(ThreadPoolTaskExecutor.class);
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(executor).execute(any(Runnable.class));
+        return new ProductImportServiceImpl(mock(ProductBatchWriter.class), categoryRepository,
+                mock(CatalogIndexer.class), mock(ProductCacheInvalidator.class), executor, new ObjectMapper(),
+                1_000, 100, redis.provider());
+    }
+}
@@ -0,0 +1,96 @@
+package com.revcart.support;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Key-value and set stand-in for the Java-serializing {@code RedisTemplate}. Values are stored serialized, so
+ * every node gets its own copy and anything that is not serializable fails as it would against Redis.
+ * Values expire against a clock that only moves on {@link #elapse(Duration)}; sets never expire.
+ */
+public final class InMemoryRedis {
+
+    private final Map<String, StoredValue> values = new ConcurrentHashMap<>();
+    private final Map<String, Set<Object>> sets = new ConcurrentHashMap<>();
+    private final RedisSerializer<Object> serializer = RedisSerializer.java();
+    private final AtomicLong clock = new AtomicLong();
+
+    public void elapse(Duration duration) {
+        clock.addAndGet(duration.toMillis());
+    }
+
+    @SuppressWarnings("unchecked")
+    public RedisTemplate<String, Object> template() {
+        RedisTemplate<String, Object> template = mock(RedisTemplate.class);
+        ValueOperations<String, Object> operations = mock(ValueOperations.class);
+        when(template.opsForValue()).thenReturn(operations);
+        when(operations.setIfAbsent(anyString(), any(), any(Duration.class))).thenAnswer(invocation -> {
+            StoredValue value = store(invocation.getArgument(1), invocation.getArgument(2));
+            return values.merge(invocation.getArgument(0), value,
+                    (existing, claimed) -> existing.expired(clock.get()) ? claimed : existing) == value;
+        });
+        doAnswer(invocation -> values.put(invocation.getArgument(0), store(invocation.getArgument(1), invocation.getArgument(2))))
+                .when(operations).set(anyString(), any(), any(Duration.class));
+        when(operations.get(anyString())).thenAnswer(invocation -> {
+            StoredValue value = live(invocation.getArgument(0));
+            return value != null ? serializer.deserialize(value.bytes()) : null;
+        });
+        when(template.delete(anyString())).thenAnswer(invocation -> values.remove(invocation.getArgument(0)) != null
+                | sets.remove(invocation.getArgument(0)) != null);
+
+        SetOperations<String, Object> setOperations = mock(SetOperations.class);
+        when(template.opsForSet()).thenReturn(setOperations);
+        when(setOperations.add(anyString(), any())).thenAnswer(invocation -> {
+            Set<Object> members = sets.computeIfAbsent(invocation.getArgument(0), key -> ConcurrentHashMap.newKeySet());
+            // Members are compared by their serialized form in Redis; equal records serialize alike
+            return Arrays.stream(invocation.getArguments()).skip(1)
+                    .filter(member -> members.add(serializer.deserialize(serializer.serialize(member))))
+                    .count();
+        });
+        when(setOperations.members(anyString())).thenAnswer(invocation ->
+                new HashSet<>(sets.getOrDefault((String) invocation.getArgument(0), Set.of())));
+        when(template.expire(anyString(), any(Duration.class))).thenAnswer(invocation ->
+                live(invocation.getArgument(0)) != null || sets.containsKey((String) invocation.getArgument(0)));
+        return template;
+    }
+
+    @SuppressWarnings("unchecked")
+    public ObjectProvider<RedisTemplate<String, Object>> provider() {
+        ObjectProvider<RedisTemplate<String, Object>> provider = mock(ObjectProvider.class);
+        RedisTemplate<String, Object> template = template();
+        when(provider.getIfAvailable()).thenReturn(template);
+        return provider;
+    }
+
+    private StoredValue store(Object value, Duration timeToLive) {
+        return new StoredValue(serializer.serialize(value), clock.get() + timeToLive.toMillis());
+    }
+
+    private StoredValue live(String key) {
+        StoredValue value = values.get(key);
+        return value != null && !value.expired(clock.get()) ? value : null;
+    }
+
+    private record StoredValue(byte[] bytes, long expiresAt) {
+
+        boolean expired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.revcart.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs a small wheel of 8 ticks of 10 ms each, so deadlines wrap around it within a test.
+ */
+class TimingWheelTest {
+
+    private final TimingWheel wheel = new TimingWheel(10, 8, 0);
+
+    @Test
+    void firesAKeyOnceItsDeadlineHasPassed() {
+        wheel.schedule(1L, 15);
+        wheel.schedule(2L, 30);
+
+        assertThat(wheel.advance(14)).isEmpty();
+        assertThat(wheel.advance(20)).containsExactly(1L);
+        assertThat(wheel.advance(29)).isEmpty();
+        assertThat(wheel.advance(30)).containsExactly(2L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void cancelledAndRescheduledKeysDoNotFireEarly() {
+        wheel.schedule(1L, 20);
+        wheel.schedule(2L, 20);
+
+        assertThat(wheel.cancel(1L)).isTrue();
+        assertThat(wheel.cancel(1L)).isFalse();
+        wheel.schedule(2L, 50);
+
+        assertThat(wheel.advance(20)).isEmpty();
+        assertThat(wheel.advance(50)).containsExactly(2L);
+    }
+
+    @Test
+    void keepsDeadlinesBeyondOneRevolutionForALaterOne() {
+        // Ticks 2 and 10 share a bucket
+        wheel.schedule(1L, 20);
+        wheel.schedule(2L, 100);
+
+        assertThat(wheel.advance(20)).containsExactly(1L);
+        assertThat(wheel.advance(99)).isEmpty();
+        assertThat(wheel.advance(100)).containsExactly(2L);
+    }
+
+    @Test
+    void aDeadlineAlreadyPassedFiresOnTheNextTick() {
+        wheel.advance(55);
+
+        wheel.schedule(1L, 10);
+
+        assertThat(wheel.advance(59)).isEmpty();
+        assertThat(wheel.advance(60)).containsExactly(1L);
+    }
+
+    @Test
+    void aLongPauseFiresEverythingDueInOneAdvance() {
+        for (long key = 0; key < 20; key++) {
+            wheel.schedule(key, key * 7);
+        }
+
+        assertThat(wheel.advance(1_000)).hasSize(20);
+        assertThat(wheel.size()).isZero();
+    }
+}
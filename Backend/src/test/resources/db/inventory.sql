@@ -0,0 +1,19 @@
+CREATE TABLE inventory (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    product_id BIGINT NOT NULL UNIQUE,
+    available_quantity INT,
+    reserved_quantity INT,
+    shard_count INT DEFAULT 0 NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP
+);
+
+CREATE TABLE inventory_shards (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    shard INT NOT NULL,
+    available_quantity INT NOT NULL,
+    reserved_quantity INT NOT NULL,
+    CONSTRAINT uk_inventory_shards_product_shard UNIQUE (product_id, shard)
+);
@@ -0,0 +1,17 @@
+SET COLLATION ENGLISH STRENGTH PRIMARY;
+
+CREATE TABLE products (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    sku VARCHAR(255),
+    name VARCHAR(255) NOT NULL,
+    description VARCHAR(255),
+    price DECIMAL(38, 2) NOT NULL,
+    discount DECIMAL(38, 2),
+    image_url VARCHAR(255),
+    brand VARCHAR(255),
+    active BOOLEAN NOT NULL,
+    category_id BIGINT,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    CONSTRAINT uk_products_sku UNIQUE (sku)
+);